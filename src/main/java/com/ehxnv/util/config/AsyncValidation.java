@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the asynchronous validations started while binding a single configuration source, see
+ * {@link com.ehxnv.util.config.validator.AsyncPropertyValidator}.
+ * <p>Validations run on a shared executor: virtual threads when the JVM has them, a bounded pool of daemon threads
+ * otherwise, unless another executor was set. Binding joins them all at once, so it only waits for the slowest of
+ * them rather than for their sum.</p>
+ *
+ * @author Eka Lie
+ */
+final class AsyncValidation {
+
+    /** Number of threads of the default pool per available processor, as validations mostly wait on I/O. **/
+    private static final int THREADS_PER_PROCESSOR = 4;
+
+    /** Executor running asynchronous validations, created on first use unless set. **/
+    private static volatile Executor executor;
+
+    /** Plan of the configuration interface. **/
+    private final ConfigPlan plan;
+    /** Slot of each started validation. **/
+    private final List<Integer> slots = new ArrayList<Integer>();
+    /** Property value of each started validation. **/
+    private final List<Object> values = new ArrayList<Object>();
+    /** Outcome of each started validation. **/
+    private final List<FutureTask<Boolean>> outcomes = new ArrayList<FutureTask<Boolean>>();
+
+    /**
+     * Constructor.
+     * @param plan plan of the configuration interface
+     */
+    AsyncValidation(final ConfigPlan plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * Set executor running asynchronous validations.
+     * @param validationExecutor executor, or null to go back to the default one
+     */
+    static void setExecutor(final Executor validationExecutor) {
+        executor = validationExecutor;
+    }
+
+    /**
+     * Get executor running asynchronous validations, creating the default one if needed.
+     * @return validation executor
+     */
+    static Executor getExecutor() {
+        Executor validationExecutor = executor;
+        if (validationExecutor == null) {
+            synchronized (AsyncValidation.class) {
+                if (executor == null) {
+                    executor = newDefaultExecutor();
+                }
+                validationExecutor = executor;
+            }
+        }
+
+        return validationExecutor;
+    }
+
+    /**
+     * Create the default executor: one virtual thread per validation when the JVM has them (Java 21 and later),
+     * looked up reflectively so that the library still runs on older JVMs, or else a bounded pool of daemon threads.
+     * @return validation executor
+     */
+    private static Executor newDefaultExecutor() {
+        try {
+            Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) newVirtualThreadPerTaskExecutor.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            // no virtual threads before Java 21
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors() * THREADS_PER_PROCESSOR;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 1L, TimeUnit.MINUTES,
+                                                         new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "pojo-config-validation");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Start validating a property value.
+     * @param slot slot index
+     * @param propertyValue converted property value
+     */
+    void start(final int slot, final Object propertyValue) {
+        FutureTask<Boolean> outcome = new FutureTask<Boolean>(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return Boolean.valueOf(plan.validate(slot, propertyValue));
+            }
+        });
+
+        slots.add(slot);
+        values.add(propertyValue);
+        outcomes.add(outcome);
+        getExecutor().execute(outcome);
+    }
+
+    /**
+     * Wait for every started validation.
+     * @return a problem for each invalid property value, in slot order, empty if all are valid
+     * @throws ConfigurationException if interrupted while waiting
+     * @throws RuntimeException thrown by a validator
+     */
+    List<BindingProblem> join() {
+        List<BindingProblem> problems = new ArrayList<BindingProblem>(0);
+        try {
+            for (int i = 0; i < outcomes.size(); i++) {
+                if (!outcomes.get(i).get().booleanValue()) {
+                    int slot = slots.get(i);
+                    problems.add(new BindingProblem(BindingProblem.Kind.INVALID, plan.getLayout().getPropertyName(slot),
+                                                    plan.getLayout().getConfigProperty(slot).getPropertyClass(), values.get(i)));
+                }
+            }
+        } catch (InterruptedException ex) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new ConfigurationException("Interrupted while validating properties", ex);
+        } catch (ExecutionException ex) {
+            cancel();
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new ConfigurationException("Failed to validate properties", ex.getCause());
+        }
+
+        return problems;
+    }
+
+    /**
+     * Cancel every validation still running, as binding failed without needing them.
+     */
+    void cancel() {
+        for (FutureTask<Boolean> outcome : outcomes) {
+            outcome.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+/**
+ * Utility class that tells whether binding phases can be reported as Java Flight Recorder events.
+ * <p>Event classes extend {@code jdk.jfr.Event}, which may be missing from the running JVM (e.g. an old JVM or a
+ * runtime image built without the {@code jdk.jfr} module). Callers therefore only touch event classes when
+ * {@link #AVAILABLE} is true. While no recording is running, JFR turns creating and committing an event into a
+ * no-op, so reporting costs next to nothing.</p>
+ *
+ * @author Eka Lie
+ * @see MetadataResolutionEvent
+ * @see PropertyConversionEvent
+ * @see PropertyValidationEvent
+ * @see ConfigCreationEvent
+ */
+final class BindingEvents {
+
+    /** Whether Java Flight Recorder is available in the running JVM. **/
+    static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+    /**
+     * Private constructor.
+     */
+    private BindingEvents() {
+    }
+
+    /**
+     * Determine if Java Flight Recorder is available in the running JVM.
+     * @return true if JFR event API can be loaded, false otherwise
+     */
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, BindingEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        } catch (LinkageError ex) {
+            return false;
+        }
+    }
+}
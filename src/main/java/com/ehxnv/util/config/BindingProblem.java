@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+/**
+ * Represents a single reason why a configuration source couldn't be bound to its configuration interface.
+ * <p>The problem message is only formatted when asked for, so reporting a problem is cheap.</p>
+ *
+ * @author Eka Lie
+ */
+public final class BindingProblem {
+
+    /** Kind of problem. **/
+    private final Kind kind;
+    /** Readable name of the property having the problem, null if configuration object is rejected as a whole. **/
+    private final String propertyName;
+    /** Expected property type. **/
+    private final Class<?> propertyType;
+    /** Offending property value, null if property is missing. **/
+    private final Object propertyValue;
+    /** Reason why property value can't be resolved or configuration object is rejected or violates a rule, null otherwise. **/
+    private final String reason;
+
+    /**
+     * Constructor.
+     * @param kind kind of problem
+     * @param propertyName readable name of the property having the problem
+     * @param propertyType expected property type
+     * @param propertyValue offending property value, null if property is missing
+     */
+    BindingProblem(final Kind kind, final String propertyName, final Class<?> propertyType, final Object propertyValue) {
+        this(kind, propertyName, propertyType, propertyValue, null);
+    }
+
+    /**
+     * Constructor.
+     * @param kind kind of problem
+     * @param propertyName readable name of the property having the problem
+     * @param propertyType expected property type
+     * @param propertyValue offending property value, null if property is missing
+     * @param reason reason why property value can't be resolved or configuration object is rejected, null otherwise
+     */
+    BindingProblem(final Kind kind, final String propertyName, final Class<?> propertyType, final Object propertyValue,
+                   final String reason) {
+        this.kind = kind;
+        this.propertyName = propertyName;
+        this.propertyType = propertyType;
+        this.propertyValue = propertyValue;
+        this.reason = reason;
+    }
+
+    /**
+     * Get kind of problem.
+     * @return kind of problem
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get readable name of the property having the problem.
+     * @return property name
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Get offending property value.
+     * @return property value or null if property is missing
+     */
+    public Object getPropertyValue() {
+        return propertyValue;
+    }
+
+    /**
+     * Get human readable description of the problem.
+     * @return problem message
+     */
+    public String getMessage() {
+        switch (kind) {
+            case MISSING:
+                return String.format("No property \"%s\" found in given properties", propertyName);
+            case UNCONVERTIBLE:
+                return String.format("Failed to convert \"%s\" into %s type", propertyValue, propertyType);
+            case REJECTED:
+            case VIOLATED:
+                return reason;
+            case UNRESOLVABLE:
+                return String.format("Failed to resolve \"%s\" of property \"%s\": %s", propertyValue, propertyName, reason);
+            default:
+                return String.format("Property \"%s\" value is invalid (value is %s)", propertyName, propertyValue);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+
+    /**
+     * Represents available kinds of problem.
+     */
+    public static enum Kind {
+
+        /** Property is not found in configuration source. **/
+        MISSING,
+        /** Property value references an undefined property or a reference cycle. **/
+        UNRESOLVABLE,
+        /** Property value can't be converted into property type. **/
+        UNCONVERTIBLE,
+        /** Property value is rejected by property validator. **/
+        INVALID,
+        /** Configuration record or class constructor rejects property values. **/
+        REJECTED,
+        /** Configuration object violates a rule spanning several properties. **/
+        VIOLATED
+    }
+}
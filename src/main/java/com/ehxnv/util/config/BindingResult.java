@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the outcome of binding a single configuration source: either a configuration object or every
+ * {@link BindingProblem} which prevented it from being created.
+ *
+ * @author Eka Lie
+ * @param <T> configuration interface type
+ * @see Configuration#tryBind(java.util.Properties, Class)
+ */
+public final class BindingResult<T> {
+
+    /** Configuration object, null if binding failed. **/
+    private final T config;
+    /** Binding problems, empty if binding succeeded. **/
+    private final List<BindingProblem> problems;
+    /** Binding failure, created on demand from binding problems. **/
+    private ConfigurationException failure;
+
+    /**
+     * Constructor.
+     * @param config configuration object
+     * @param problems binding problems
+     */
+    private BindingResult(final T config, final List<BindingProblem> problems) {
+        this.config = config;
+        this.problems = problems;
+    }
+
+    /**
+     * Create result of a successful binding.
+     * @param config configuration object
+     * @param <T> configuration interface type
+     * @return binding result
+     */
+    static <T> BindingResult<T> success(final T config) {
+        return new BindingResult<T>(config, Collections.<BindingProblem>emptyList());
+    }
+
+    /**
+     * Create result of a failed binding.
+     * @param problems binding problems, must not be empty
+     * @param <T> configuration interface type
+     * @return binding result
+     */
+    static <T> BindingResult<T> failure(final List<BindingProblem> problems) {
+        return new BindingResult<T>(null, problems);
+    }
+
+    /**
+     * Determine if binding succeeded.
+     * @return true if a configuration object was created, false otherwise
+     */
+    public boolean isSuccessful() {
+        return problems.isEmpty();
+    }
+
+    /**
+     * Get configuration object.
+     * @return configuration object
+     * @throws ConfigurationException describing every binding problem if binding failed
+     */
+    public T getConfig() {
+        if (!isSuccessful()) {
+            throw getFailure();
+        }
+
+        return config;
+    }
+
+    /**
+     * Get every problem which prevented binding.
+     * @return binding problems, empty if binding succeeded
+     */
+    public List<BindingProblem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * Get binding failure as an exception describing every binding problem.
+     * <p>The exception is only created when asked for, so a failed binding costs no exception unless
+     * the caller wants one.</p>
+     * @return binding failure or null if binding succeeded
+     */
+    public ConfigurationException getFailure() {
+        if (isSuccessful()) {
+            return null;
+        }
+
+        if (failure == null) {
+            if (problems.size() == 1) {
+                failure = new ConfigurationException(problems.get(0).getMessage());
+            } else {
+                StringBuilder message = new StringBuilder(String.format("%d properties failed to bind:", problems.size()));
+                for (BindingProblem problem : problems) {
+                    message.append(' ').append(problem.getMessage()).append(';');
+                }
+
+                failure = new ConfigurationException(message.toString());
+            }
+        }
+
+        return failure;
+    }
+}
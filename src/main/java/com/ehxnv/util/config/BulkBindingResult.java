@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the outcome of binding many configuration sources at once, see
+ * {@link Configuration#fromProperties(java.util.Collection, Class, java.util.concurrent.ExecutorService)}.
+ * <p>Results are kept in the same order as the given sources.</p>
+ *
+ * @author Eka Lie
+ * @param <T> configuration interface type
+ */
+public final class BulkBindingResult<T> {
+
+    /** Nanoseconds in a second. **/
+    private static final double NANOS_PER_SECOND = 1000000000d;
+
+    /** Binding result of each source. **/
+    private final List<BindingResult<T>> results;
+    /** Number of failed bindings. **/
+    private final int failureCount;
+    /** Wall clock time spent binding all sources. **/
+    private final long elapsedNanos;
+
+    /**
+     * Constructor.
+     * @param results binding result of each source
+     * @param elapsedNanos wall clock time spent binding all sources, in nanoseconds
+     */
+    BulkBindingResult(final List<BindingResult<T>> results, final long elapsedNanos) {
+        int failures = 0;
+        for (BindingResult<T> result : results) {
+            if (!result.isSuccessful()) {
+                failures++;
+            }
+        }
+
+        this.results = results;
+        this.failureCount = failures;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get binding result of each source.
+     * @return binding results, in the same order as the given sources
+     */
+    public List<BindingResult<T>> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Get number of successful bindings.
+     * @return number of successful bindings
+     */
+    public int getSuccessCount() {
+        return results.size() - failureCount;
+    }
+
+    /**
+     * Get number of failed bindings.
+     * @return number of failed bindings
+     */
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Get wall clock time spent binding all sources.
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get binding throughput.
+     * @return number of sources bound per second
+     */
+    public double getThroughput() {
+        return (elapsedNanos == 0) ? 0d : results.size() * NANOS_PER_SECOND / elapsedNanos;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+
+/**
+ * Represents the constructor a configuration record or class is created with, one parameter per property.
+ * <p>For a record, this is its canonical constructor and parameters are named after record components. For any
+ * other class, this is its single public constructor, whose parameter names are only available when the class is
+ * compiled with {@code -parameters}. The constructor is invoked through a {@link MethodHandle} resolved once, so
+ * creating a configuration object costs no more than calling its constructor, and reading a property is a plain
+ * (final) field access.</p>
+ *
+ * @author Eka Lie
+ */
+final class ConfigConstructor {
+
+    /** {@code Class.getRecordComponents()}, null if records are not supported by the running JVM. **/
+    private static final Method GET_RECORD_COMPONENTS;
+    /** {@code RecordComponent.getName()}, null if records are not supported by the running JVM. **/
+    private static final Method GET_COMPONENT_NAME;
+    /** {@code RecordComponent.getType()}, null if records are not supported by the running JVM. **/
+    private static final Method GET_COMPONENT_TYPE;
+
+    static {
+        Method getRecordComponents = null, getComponentName = null, getComponentType = null;
+        try {
+            Class<?> recordComponentClass = Class.forName("java.lang.reflect.RecordComponent");
+            getRecordComponents = Class.class.getMethod("getRecordComponents");
+            getComponentName = recordComponentClass.getMethod("getName");
+            getComponentType = recordComponentClass.getMethod("getType");
+        } catch (ReflectiveOperationException ex) {
+            // running JVM predates records, configuration classes must then be compiled with -parameters
+        }
+
+        GET_RECORD_COMPONENTS = getRecordComponents;
+        GET_COMPONENT_NAME = getComponentName;
+        GET_COMPONENT_TYPE = getComponentType;
+    }
+
+    /** Configuration class. **/
+    private final Class<?> configClass;
+    /** Constructor parameters. **/
+    private final Parameter[] parameters;
+    /** Constructor parameter names, which are property method names. **/
+    private final String[] parameterNames;
+    /** Constructor taking its arguments as an array and returning an object. **/
+    private final MethodHandle constructorHandle;
+
+    /**
+     * Constructor.
+     * @param configClass configuration class
+     * @param constructor constructor of the configuration class
+     * @param parameterNames constructor parameter names
+     */
+    private ConfigConstructor(final Class<?> configClass, final Constructor<?> constructor, final String[] parameterNames) {
+        this.configClass = configClass;
+        this.parameters = constructor.getParameters();
+        this.parameterNames = parameterNames;
+
+        try {
+            // records and classes nested privately (e.g. in tests) are not accessible otherwise
+            constructor.setAccessible(true);
+            this.constructorHandle = MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, parameterNames.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException ex) {
+            throw new ConfigurationException("Failed to access constructor of " + configClass.getName(), ex);
+        } catch (RuntimeException ex) {
+            throw new ConfigurationException("Failed to access constructor of " + configClass.getName(), ex);
+        }
+    }
+
+    /**
+     * Resolve the constructor of a configuration record or class.
+     * @param configClass configuration record or class
+     * @return configuration constructor
+     * @throws ConfigurationException if class has no single public constructor, or parameter names are not
+     *                                available
+     */
+    static ConfigConstructor of(final Class<?> configClass) {
+        Object[] recordComponents = recordComponentsOf(configClass);
+        if (recordComponents != null) {
+            String[] parameterNames = new String[recordComponents.length];
+            Class<?>[] parameterTypes = new Class<?>[recordComponents.length];
+            try {
+                for (int i = 0; i < recordComponents.length; i++) {
+                    parameterNames[i] = (String) GET_COMPONENT_NAME.invoke(recordComponents[i]);
+                    parameterTypes[i] = (Class<?>) GET_COMPONENT_TYPE.invoke(recordComponents[i]);
+                }
+                return new ConfigConstructor(configClass, configClass.getDeclaredConstructor(parameterTypes), parameterNames);
+            } catch (ReflectiveOperationException ex) {
+                throw new ConfigurationException("Failed to resolve canonical constructor of " + configClass.getName(), ex);
+            }
+        }
+
+        Constructor<?>[] constructors = configClass.getConstructors();
+        if (constructors.length != 1) {
+            throw new ConfigurationException(String.format("%s must have a single public constructor but has %d", configClass.getName(), constructors.length));
+        }
+
+        Parameter[] parameters = constructors[0].getParameters();
+        String[] parameterNames = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            if (!parameters[i].isNamePresent()) {
+                throw new ConfigurationException(String.format("Constructor parameter names of %s are not available, it must be compiled with -parameters", configClass.getName()));
+            }
+            parameterNames[i] = parameters[i].getName();
+        }
+
+        return new ConfigConstructor(configClass, constructors[0], parameterNames);
+    }
+
+    /**
+     * Get constructor parameters, in declaration order.
+     * @return constructor parameters
+     */
+    Parameter[] getParameters() {
+        return parameters.clone();
+    }
+
+    /**
+     * Get constructor parameter names, which are property method names, in declaration order.
+     * @return constructor parameter names
+     */
+    String[] getParameterNames() {
+        return parameterNames.clone();
+    }
+
+    /**
+     * Resolve the accessor of each constructor parameter, which is the public method without parameters named after
+     * it, e.g. a record component accessor, or its {@code get} / {@code is} getter.
+     * @return method handle taking the configuration object and returning the property value (boxed), per
+     * parameter in declaration order, null for a parameter without accessor
+     */
+    MethodHandle[] resolveAccessors() {
+        MethodHandle[] accessors = new MethodHandle[parameterNames.length];
+        for (int i = 0; i < accessors.length; i++) {
+            String suffix = Character.toUpperCase(parameterNames[i].charAt(0)) + parameterNames[i].substring(1);
+            Method accessor = findAccessor(parameterNames[i], "get" + suffix, "is" + suffix);
+            if (accessor == null) {
+                continue;
+            }
+
+            try {
+                // records and classes nested privately (e.g. in tests) are not accessible otherwise
+                accessor.setAccessible(true);
+                accessors[i] = MethodHandles.lookup().unreflect(accessor)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+            } catch (IllegalAccessException ex) {
+                throw new ConfigurationException("Failed to access " + accessor.getName() + " of " + configClass.getName(), ex);
+            } catch (RuntimeException ex) {
+                throw new ConfigurationException("Failed to access " + accessor.getName() + " of " + configClass.getName(), ex);
+            }
+        }
+
+        return accessors;
+    }
+
+    /**
+     * Find the first public method without parameters of given names.
+     * @param methodNames candidate method names, in order of preference
+     * @return method or null if not found
+     */
+    private Method findAccessor(final String... methodNames) {
+        for (String methodName : methodNames) {
+            try {
+                Method method = configClass.getMethod(methodName);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ex) {
+                // try next name
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Create a configuration object.
+     * @param arguments constructor arguments, in declaration order
+     * @return configuration object
+     * @throws ConfigurationException if constructor rejects the arguments
+     */
+    Object newInstance(final Object[] arguments) {
+        try {
+            return (Object) constructorHandle.invokeExact(arguments);
+        } catch (RuntimeException ex) {
+            throw new ConfigurationException(String.format("Failed to create %s: %s", configClass.getName(), ex.getMessage()), ex);
+        } catch (Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new ConfigurationException(String.format("Failed to create %s: %s", configClass.getName(), ex.getMessage()), ex);
+        }
+    }
+
+    /**
+     * Get record components of a class.
+     * @param configClass configuration class
+     * @return record components or null if class is not a record
+     */
+    private static Object[] recordComponentsOf(final Class<?> configClass) {
+        if (GET_RECORD_COMPONENTS == null) {
+            return null;
+        }
+
+        try {
+            return (Object[]) GET_RECORD_COMPONENTS.invoke(configClass);
+        } catch (ReflectiveOperationException ex) {
+            throw new ConfigurationException("Failed to resolve record components of " + configClass.getName(), ex);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+/**
+ * Represents a typed handle to a property of a configuration interface, for code which reads properties by name
+ * rather than through the interface methods.
+ * <p>A key is resolved to the slot of its property once, when it's created through
+ * {@link Configuration#key(Class, String, Class)}. Reading a property through a key is then an array read of that
+ * slot, with no name lookup nor conversion, out of the same values the configuration object methods read. Keys are
+ * immutable and meant to be kept in constants.</p>
+ * <p>A key remembers the configuration object it last read along with the values behind it, so that reading the same
+ * object again skips inspecting it. That object is therefore kept reachable by the key until another one is read.</p>
+ *
+ * @author Eka Lie
+ * @param <T> property type
+ * @see ReloadableConfig#get(ConfigKey)
+ */
+public final class ConfigKey<T> {
+
+    /** Plan of the configuration interface. **/
+    private final ConfigPlan plan;
+    /** Slot of the property. **/
+    private final int slot;
+    /** Property type. **/
+    private final Class<T> type;
+    /** Configuration object last read through this key along with its invocation handler, null until then. **/
+    private ProxyBinding lastBinding;
+
+    /**
+     * Constructor.
+     * @param plan plan of the configuration interface
+     * @param slot slot of the property
+     * @param type property type
+     */
+    private ConfigKey(final ConfigPlan plan, final int slot, final Class<T> type) {
+        this.plan = plan;
+        this.slot = slot;
+        this.type = type;
+    }
+
+    /**
+     * Create key of a property.
+     * @param plan plan of the configuration interface
+     * @param propertyName translated (readable) property name
+     * @param type property type, which the property values must be assignable to
+     * @param <T> property type
+     * @return property key
+     * @throws IllegalArgumentException if there's no such property or its values aren't of given type
+     */
+    static <T> ConfigKey<T> of(final ConfigPlan plan, final String propertyName, final Class<T> type) {
+        ConfigLayout layout = plan.getLayout();
+        int slot = layout.slotOfProperty(propertyName);
+        if (slot < 0) {
+            throw new IllegalArgumentException(String.format("%s has no property \"%s\"", plan.getConfigInterface().getName(), propertyName));
+        }
+
+        Class<?> propertyClass = layout.getConfigProperty(slot).getPropertyClass();
+        if (!type.isAssignableFrom(propertyClass)) {
+            throw new IllegalArgumentException(String.format("Property \"%s\" of %s is %s, not %s", propertyName, plan.getConfigInterface().getName(), propertyClass.getName(), type.getName()));
+        }
+
+        return new ConfigKey<T>(plan, slot, type);
+    }
+
+    /**
+     * Read the property of a configuration object.
+     * <p>A configuration record or class object is read through the accessor of the property, which is the method
+     * named after it (e.g. a record component) or its getter. A property without accessor can still be read out of
+     * {@link ReloadableConfig#get(ConfigKey)}.</p>
+     * @param config configuration object created by {@link Configuration} from the configuration interface of this
+     * key, or a projection of one
+     * @return property value, which may be null for an optional property
+     * @throws IllegalArgumentException if given configuration object isn't one of the configuration interface, or
+     * the configuration record or class has no accessor of the property
+     */
+    public T get(final Object config) {
+        if (plan.isConstructorBound()) {
+            if (config.getClass() != plan.getConfigInterface()) {
+                throw new IllegalArgumentException(String.format("config must be a %s", plan.getConfigInterface().getName()));
+            }
+            if (!plan.hasAccessor(slot)) {
+                throw new IllegalArgumentException(String.format("%s has no accessor of property \"%s\"", plan.getConfigInterface().getName(), getPropertyName()));
+            }
+
+            return type.cast(plan.read(config, slot));
+        }
+
+        // racy but safe, as a binding is immutable: at worst a thread inspects the configuration object again
+        ProxyBinding binding = lastBinding;
+        if (binding == null || binding.config != config) {
+            binding = new ProxyBinding(config, invocationHandlerOf(config));
+            lastBinding = binding;
+        }
+
+        return type.cast(binding.invocationHandler.get(slot));
+    }
+
+    /**
+     * Get invocation handler of a configuration object proxy.
+     * @param config configuration object
+     * @return invocation handler
+     * @throws IllegalArgumentException if given configuration object isn't one of the configuration interface
+     */
+    private Configuration.ConfigInvocationHandler invocationHandlerOf(final Object config) {
+        InvocationHandler invocationHandler = Proxy.isProxyClass(config.getClass()) ? Proxy.getInvocationHandler(config) : null;
+        if (!(invocationHandler instanceof Configuration.ConfigInvocationHandler)
+            || ((Configuration.ConfigInvocationHandler) invocationHandler).getPlan() != plan) {
+            throw new IllegalArgumentException(String.format("config must be created from %s", plan.getConfigInterface().getName()));
+        }
+
+        return (Configuration.ConfigInvocationHandler) invocationHandler;
+    }
+
+    /**
+     * Get configuration interface the property belongs to.
+     * @return configuration interface
+     */
+    public Class<?> getConfigInterface() {
+        return plan.getConfigInterface();
+    }
+
+    /**
+     * Get translated (readable) property name.
+     * @return property name
+     */
+    public String getPropertyName() {
+        return plan.getLayout().getPropertyName(slot);
+    }
+
+    /**
+     * Get property type.
+     * @return property type
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Get plan of the configuration interface.
+     * @return configuration plan
+     */
+    ConfigPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Get slot of the property.
+     * @return slot index
+     */
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ConfigKey that = (ConfigKey) o;
+        return plan == that.plan && slot == that.slot && type.equals(that.type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * (31 * plan.hashCode() + slot) + type.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return plan.getConfigInterface().getName() + "#" + getPropertyName();
+    }
+
+    /**
+     * A configuration object proxy along with its invocation handler.
+     */
+    private static final class ProxyBinding {
+        /** Configuration object. **/
+        private final Object config;
+        /** Invocation handler of the configuration object. **/
+        private final Configuration.ConfigInvocationHandler invocationHandler;
+
+        /**
+         * Constructor.
+         * @param config configuration object
+         * @param invocationHandler invocation handler of the configuration object
+         */
+        private ProxyBinding(final Object config, final Configuration.ConfigInvocationHandler invocationHandler) {
+            this.config = config;
+            this.invocationHandler = invocationHandler;
+        }
+    }
+}
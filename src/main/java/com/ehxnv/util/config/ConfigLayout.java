@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.translator.ConfigPropertyNameTranslator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the storage layout shared by every configuration object of a particular configuration interface.
+ * <p>Each configuration property is assigned a slot, which indexes the single {@code Object[]} held by
+ * {@link ConfigValues}. Values are stored as converted, so reading a property never allocates and always returns
+ * the same object, just like the map of values this layout replaces but without its entries and keys.</p>
+ * <p>A layout is resolved once per configuration interface, so configuration objects themselves only carry
+ * their values.</p>
+ *
+ * @author Eka Lie
+ */
+final class ConfigLayout {
+
+    /** Configuration properties in slot order. **/
+    private final ConfigProperty[] configProperties;
+    /** Translated (readable) property names in slot order. **/
+    private final String[] propertyNames;
+    /** Normalized property names in slot order, null unless source keys are matched relaxed. **/
+    private final String[] normalizedNames;
+    /** Slot index by method name. **/
+    private final Map<String, Integer> slotsByMethodName;
+    /** Slot index by translated property name, or by normalized property name if keys are matched relaxed. **/
+    private final Map<String, Integer> slotsByPropertyName;
+
+    /**
+     * Constructor.
+     * @param configMetadata configuration metadata to lay out
+     * @param configPropertyNameTranslator translator used to resolve each property readable name
+     * @throws ConfigurationException if two properties have the same readable name, or the same normalized name
+     *                                when keys are relaxed
+     */
+    ConfigLayout(final ConfigMetadata configMetadata, final ConfigPropertyNameTranslator configPropertyNameTranslator) {
+        // order slots by method name so that a layout is stable across runs
+        List<ConfigProperty> orderedProperties = new ArrayList<ConfigProperty>(configMetadata.getConfigProperties());
+        Collections.sort(orderedProperties, new Comparator<ConfigProperty>() {
+            @Override
+            public int compare(final ConfigProperty left, final ConfigProperty right) {
+                return left.getMethodName().compareTo(right.getMethodName());
+            }
+        });
+
+        int size = orderedProperties.size();
+        this.configProperties = orderedProperties.toArray(new ConfigProperty[size]);
+        this.propertyNames = new String[size];
+        this.normalizedNames = configMetadata.isRelaxedKeys() ? new String[size] : null;
+        this.slotsByMethodName = new HashMap<String, Integer>();
+        this.slotsByPropertyName = new HashMap<String, Integer>();
+
+        for (int slot = 0; slot < size; slot++) {
+            ConfigProperty configProperty = configProperties[slot];
+            propertyNames[slot] = configPropertyNameTranslator.translatePropertyNameIntoReadablePropertyName(configProperty.getNameInWords());
+            slotsByMethodName.put(configProperty.getMethodName(), slot);
+            if (normalizedNames != null) {
+                normalizedNames[slot] = RelaxedKeyIndex.normalize(propertyNames[slot]);
+            }
+            Integer collidingSlot = slotsByPropertyName.put((normalizedNames != null) ? normalizedNames[slot] : propertyNames[slot], slot);
+            if (collidingSlot != null) {
+                throw new ConfigurationException(String.format("Properties %s (\"%s\") and %s (\"%s\") have the same property name", configProperties[collidingSlot].getMethodName(), propertyNames[collidingSlot], configProperty.getMethodName(), propertyNames[slot]));
+            }
+        }
+    }
+
+    /**
+     * Get number of slots.
+     * @return number of slots
+     */
+    int size() {
+        return configProperties.length;
+    }
+
+    /**
+     * Get configuration property of a slot.
+     * @param slot slot index
+     * @return configuration property
+     */
+    ConfigProperty getConfigProperty(final int slot) {
+        return configProperties[slot];
+    }
+
+    /**
+     * Get translated (readable) property name of a slot.
+     * @param slot slot index
+     * @return readable property name
+     */
+    String getPropertyName(final int slot) {
+        return propertyNames[slot];
+    }
+
+    /**
+     * Determine if configuration source keys are matched regardless of case and separators.
+     * @return true if keys are matched relaxed, false otherwise
+     */
+    boolean isRelaxedKeys() {
+        return normalizedNames != null;
+    }
+
+    /**
+     * Get normalized property name of a slot, see {@link RelaxedKeyIndex#normalize(String)}.
+     * @param slot slot index
+     * @return normalized property name
+     * @throws NullPointerException if source keys are not matched relaxed
+     */
+    String getNormalizedName(final int slot) {
+        return normalizedNames[slot];
+    }
+
+    /**
+     * Get slot of a given method.
+     * @param methodName method name
+     * @return slot index or -1 if method is not a configuration property
+     */
+    int slotOf(final String methodName) {
+        Integer slot = slotsByMethodName.get(methodName);
+        return (slot == null) ? -1 : slot.intValue();
+    }
+
+    /**
+     * Get slot of a given translated (readable) property name.
+     * @param propertyName readable property name
+     * @return slot index or -1 if there's no such property
+     */
+    int slotOfProperty(final String propertyName) {
+        int slot = slotOfKey(propertyName);
+        return (slot >= 0 && propertyNames[slot].equals(propertyName)) ? slot : -1;
+    }
+
+    /**
+     * Get slot a given configuration source key binds to, taking relaxed key matching into account.
+     * @param key configuration source key
+     * @return slot index or -1 if the key doesn't bind to any property
+     */
+    int slotOfKey(final String key) {
+        Integer slot = slotsByPropertyName.get((normalizedNames != null) ? RelaxedKeyIndex.normalize(key) : key);
+        return (slot == null) ? -1 : slot.intValue();
+    }
+}
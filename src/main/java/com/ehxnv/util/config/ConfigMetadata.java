@@ -27,6 +27,7 @@
 
 package com.ehxnv.util.config;
 
+import com.ehxnv.util.config.annotation.Rule;
 import com.ehxnv.util.config.translator.ConfigPropertyNameTranslator;
 
 import java.util.Collections;
@@ -38,6 +39,9 @@ import java.util.Set;
  * <ul>
  *     <li>which {@link ConfigPropertyNameTranslator} should be used</li>
  *     <li>available {@link ConfigProperty}</li>
+ *     <li>whether configuration source keys are matched relaxed</li>
+ *     <li>{@link ConfigConstructor} if configuration objects are records or classes rather than proxies</li>
+ *     <li>{@link Rule rules} spanning several properties</li>
  * </ul>
  *
  * @author Eka Lie
@@ -48,6 +52,12 @@ final class ConfigMetadata {
     private Class<? extends ConfigPropertyNameTranslator> translator;
     /** Available properties. **/
     private Set<ConfigProperty> configProperties;
+    /** Whether configuration source keys are matched relaxed. **/
+    private boolean relaxedKeys;
+    /** Constructor of configuration record or class, null for configuration interface. **/
+    private ConfigConstructor constructor;
+    /** Rules spanning several properties. **/
+    private Rule[] rules;
 
     /**
      * Constructor.
@@ -56,8 +66,49 @@ final class ConfigMetadata {
      */
     public ConfigMetadata(final Class<? extends ConfigPropertyNameTranslator> translator,
                           final Set<ConfigProperty> configProperties) {
+        this(translator, configProperties, false);
+    }
+
+    /**
+     * Constructor.
+     * @param translator translator class to be used
+     * @param configProperties available properties
+     * @param relaxedKeys whether configuration source keys are matched relaxed
+     */
+    public ConfigMetadata(final Class<? extends ConfigPropertyNameTranslator> translator,
+                          final Set<ConfigProperty> configProperties, final boolean relaxedKeys) {
+        this(translator, configProperties, relaxedKeys, null);
+    }
+
+    /**
+     * Constructor.
+     * @param translator translator class to be used
+     * @param configProperties available properties
+     * @param relaxedKeys whether configuration source keys are matched relaxed
+     * @param constructor constructor of configuration record or class, null for configuration interface
+     */
+    ConfigMetadata(final Class<? extends ConfigPropertyNameTranslator> translator,
+                   final Set<ConfigProperty> configProperties, final boolean relaxedKeys,
+                   final ConfigConstructor constructor) {
+        this(translator, configProperties, relaxedKeys, constructor, new Rule[0]);
+    }
+
+    /**
+     * Constructor.
+     * @param translator translator class to be used
+     * @param configProperties available properties
+     * @param relaxedKeys whether configuration source keys are matched relaxed
+     * @param constructor constructor of configuration record or class, null for configuration interface
+     * @param rules rules spanning several properties
+     */
+    ConfigMetadata(final Class<? extends ConfigPropertyNameTranslator> translator,
+                   final Set<ConfigProperty> configProperties, final boolean relaxedKeys,
+                   final ConfigConstructor constructor, final Rule[] rules) {
         this.translator = translator;
         this.configProperties = configProperties;
+        this.relaxedKeys = relaxedKeys;
+        this.constructor = constructor;
+        this.rules = rules;
     }
 
     /**
@@ -75,4 +126,28 @@ final class ConfigMetadata {
     public Set<ConfigProperty> getConfigProperties() {
         return Collections.unmodifiableSet(configProperties);
     }
+
+    /**
+     * Determine if configuration source keys are matched regardless of case and separators.
+     * @return true if keys are matched relaxed, false otherwise
+     */
+    public boolean isRelaxedKeys() {
+        return relaxedKeys;
+    }
+
+    /**
+     * Get constructor configuration objects are created with.
+     * @return constructor of configuration record or class, or null for configuration interface
+     */
+    ConfigConstructor getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * Get rules spanning several properties.
+     * @return rules, which must not be modified
+     */
+    Rule[] getRules() {
+        return rules;
+    }
 }
@@ -0,0 +1,661 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.converter.CheckedPropertyConverter;
+import com.ehxnv.util.config.converter.ConfigPropertyConverter;
+import com.ehxnv.util.config.decryptor.ConfigPropertyDecryptor;
+import com.ehxnv.util.config.supplier.ConfigPropertySupplier;
+import com.ehxnv.util.config.validator.AsyncPropertyValidator;
+import com.ehxnv.util.config.validator.ConfigPropertyValidator;
+import com.ehxnv.util.config.validator.MemoizedPropertyValidator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Represents everything needed to bind a configuration interface, compiled once per interface.
+ * <p>A plan holds the {@link ConfigLayout} of the interface together with the converter and validator instance of
+ * each slot, so binding does not need to look anything up. Property default values are converted and validated
+ * once, when the plan is compiled, and every binding starts from a copy of them. A plan is immutable and can be
+ * shared by threads binding concurrently.</p>
+ *
+ * <p>Property values may reference other properties of the configuration source as {@code ${other.key}}, see
+ * {@link InterpolatedProperties}. When the layout matches keys relaxed, each property is looked up through the
+ * {@link RelaxedKeyIndex} of the configuration source.</p>
+ *
+ * <p>Built-in constraints of each property are compiled into a {@link ConstraintCheck} along with the plan, and
+ * checked before its validator.</p>
+ *
+ * <p>Secret properties are only checked for presence when binding; their value is kept encrypted in a
+ * {@link SecretValue} until first read.</p>
+ *
+ * <p>Rules spanning several properties, see {@link ConfigRules}, are checked against a configuration object once
+ * every property is bound. A rebinding only checks the rules depending on a rebound slot.</p>
+ *
+ * <p>Properties whose validator is an {@link AsyncPropertyValidator} are validated concurrently, see
+ * {@link AsyncValidation}, once every other property is bound.</p>
+ *
+ * <p>A plan also remembers the projections of its configuration interface which were checked already, see
+ * {@link Configuration#project(Object, Class)}, along with the constructor of their proxy.</p>
+ *
+ * @author Eka Lie
+ */
+final class ConfigPlan {
+
+    /** Configuration interface. **/
+    private final Class<?> configInterface;
+    /** Layout of the configuration interface. **/
+    private final ConfigLayout layout;
+    /** Converter of each slot. **/
+    private final ConfigPropertyConverter[] converters;
+    /** Validator of each slot. **/
+    private final ConfigPropertyValidator[] validators;
+    /** Built-in constraint check of each slot, null if slot is not constrained. **/
+    private final ConstraintCheck[] constraintChecks;
+    /** Decryptor of each slot, null if slot is not secret. **/
+    private final ConfigPropertyDecryptor[] decryptors;
+    /** Supplier of each slot, null if slot is not dynamic. **/
+    private final ConfigPropertySupplier[] suppliers;
+    /** Rules spanning several properties. **/
+    private final ConfigRules rules;
+    /** Constructor of configuration record or class, null for configuration interface. **/
+    private final ConfigConstructor constructor;
+    /** Slot of each constructor argument, null for configuration interface. **/
+    private final int[] argumentSlots;
+    /** Remembered outcomes of memoized validators. **/
+    private final ValidationMemo validationMemo = new ValidationMemo();
+    /** Accessor of each slot of a configuration record or class, null if slot has no accessor. **/
+    private final MethodHandle[] accessors;
+    /** Whether each slot must be found in configuration source. **/
+    private final boolean[] required;
+    /** Property default values, which every binding starts from. **/
+    private final ConfigValues defaults;
+    /** Proxy constructor of each projection interface checked so far. **/
+    private final ConcurrentMap<Class<?>, MethodHandle> projections = new ConcurrentHashMap<Class<?>, MethodHandle>();
+
+    /**
+     * Constructor.
+     * @param configInterface configuration interface
+     * @param layout layout of the configuration interface
+     * @param converters converter of each slot
+     * @param validators validator of each slot
+     * @param decryptors decryptor of each slot, null if slot is not secret
+     * @param suppliers supplier of each slot, null if slot is not dynamic
+     * @param rules rules spanning several properties
+     * @param constructor constructor of configuration record or class, null for configuration interface
+     * @throws ConfigurationException if a property default value can't be converted or is invalid, or a property
+     *                                constraint doesn't apply to its type
+     */
+    ConfigPlan(final Class<?> configInterface, final ConfigLayout layout, final ConfigPropertyConverter[] converters,
+               final ConfigPropertyValidator[] validators, final ConfigPropertyDecryptor[] decryptors,
+               final ConfigPropertySupplier[] suppliers, final ConfigRules rules,
+               final ConfigConstructor constructor) {
+        this.configInterface = configInterface;
+        this.layout = layout;
+        this.converters = converters;
+        this.validators = validators;
+        this.decryptors = decryptors;
+        this.suppliers = suppliers;
+        this.rules = rules;
+        this.constructor = constructor;
+        this.argumentSlots = (constructor == null) ? null : argumentSlotsOf(layout, constructor);
+        this.accessors = (constructor == null) ? null : accessorsOf(layout, argumentSlots, constructor);
+        this.constraintChecks = new ConstraintCheck[layout.size()];
+        this.required = new boolean[layout.size()];
+        this.defaults = new ConfigValues(layout);
+
+        for (int slot = 0; slot < layout.size(); slot++) {
+            ConfigProperty configProperty = layout.getConfigProperty(slot);
+            constraintChecks[slot] = ConstraintCheck.of(configProperty);
+            String defaultValue = configProperty.getDefaultValue();
+            required[slot] = !configProperty.isOptional() && (defaultValue == null);
+
+            // an encrypted default value is decrypted lazily like any other secret value, see bind
+            if (defaultValue != null && decryptors[slot] == null) {
+                Object propertyValue = convert(slot, defaultValue);
+                if (propertyValue == null) {
+                    throw new ConfigurationException(String.format("Failed to convert default value \"%s\" of property \"%s\" into %s type", defaultValue, layout.getPropertyName(slot), configProperty.getPropertyClass()));
+                }
+
+                if (!satisfies(slot, propertyValue) || !validators[slot].isValid(propertyValue)) {
+                    throw new ConfigurationException(String.format("Property \"%s\" default value is invalid (value is %s)", layout.getPropertyName(slot), propertyValue));
+                }
+
+                defaults.set(slot, propertyValue);
+            }
+        }
+    }
+
+    /**
+     * Get configuration interface.
+     * @return configuration interface
+     */
+    Class<?> getConfigInterface() {
+        return configInterface;
+    }
+
+    /**
+     * Determine if configuration objects are records or classes created through their constructor, rather than
+     * proxies of an interface.
+     * @return true if configuration objects are created through their constructor, false otherwise
+     */
+    boolean isConstructorBound() {
+        return constructor != null;
+    }
+
+    /**
+     * Create a configuration record or class object out of property values.
+     * <p>A configuration record or class has no secret property, see {@link JavaBeanMetadataResolver}, so nothing
+     * is decrypted here.</p>
+     * @param configValues property values
+     * @return configuration object
+     * @throws ConfigurationException if the constructor rejects the values
+     */
+    Object newInstance(final ConfigValues configValues) {
+        Object[] arguments = new Object[argumentSlots.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = configValues.get(argumentSlots[i]);
+        }
+
+        ConfigCreationEvent creationEvent = BindingEvents.AVAILABLE ? ConfigCreationEvent.start() : null;
+        Object config = constructor.newInstance(arguments);
+        if (creationEvent != null) {
+            creationEvent.commit(configInterface);
+        }
+
+        return config;
+    }
+
+    /**
+     * Determine if a property of a configuration record or class can be read back from configuration objects.
+     * @param slot slot index
+     * @return true if the record or class has an accessor of the property, false otherwise
+     */
+    boolean hasAccessor(final int slot) {
+        return accessors != null && accessors[slot] != null;
+    }
+
+    /**
+     * Read a property of a configuration record or class object through its accessor.
+     * @param config configuration object
+     * @param slot slot index, which has an accessor
+     * @return property value
+     * @throws ConfigurationException if the accessor fails
+     */
+    Object read(final Object config, final int slot) {
+        try {
+            return (Object) accessors[slot].invokeExact(config);
+        } catch (RuntimeException ex) {
+            throw new ConfigurationException(String.format("Failed to read property \"%s\" of %s: %s", layout.getPropertyName(slot), configInterface.getName(), ex.getMessage()), ex);
+        } catch (Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new ConfigurationException(String.format("Failed to read property \"%s\" of %s: %s", layout.getPropertyName(slot), configInterface.getName(), ex.getMessage()), ex);
+        }
+    }
+
+    /**
+     * Get proxy constructor of a projection interface which was checked already.
+     * @param projection projection interface
+     * @return method handle taking an {@link java.lang.reflect.InvocationHandler} and returning the proxy, or null
+     * if the projection wasn't checked yet
+     */
+    MethodHandle getProjectionConstructor(final Class<?> projection) {
+        return projections.get(projection);
+    }
+
+    /**
+     * Check that every method of a projection interface reads a property of the configuration interface, with a
+     * compatible type, and remember its proxy constructor.
+     * @param projection projection interface
+     * @param proxyConstructor method handle taking an {@link java.lang.reflect.InvocationHandler} and returning the
+     * proxy
+     * @return proxy constructor to use, which is the one remembered by another thread if it got there first
+     * @throws IllegalArgumentException if a method of the projection interface doesn't match a property
+     */
+    MethodHandle addProjection(final Class<?> projection, final MethodHandle proxyConstructor) {
+        for (Method method : projection.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+
+            Method sourceMethod = (method.getParameterTypes().length == 0 && layout.slotOf(method.getName()) >= 0)
+                                  ? findMethod(method.getName()) : null;
+            if (sourceMethod == null) {
+                throw new IllegalArgumentException(String.format("%s has no property %s of %s", configInterface.getName(), method.getName(), projection.getName()));
+            }
+
+            if (!method.getReturnType().isAssignableFrom(sourceMethod.getReturnType())) {
+                throw new IllegalArgumentException(String.format("Property %s of %s is %s, not %s", method.getName(), configInterface.getName(), sourceMethod.getReturnType().getName(), method.getReturnType().getName()));
+            }
+        }
+
+        MethodHandle existingConstructor = projections.putIfAbsent(projection, proxyConstructor);
+        return (existingConstructor != null) ? existingConstructor : proxyConstructor;
+    }
+
+    /**
+     * Find a property method of the configuration interface.
+     * @param methodName method name
+     * @return method or null if not found
+     */
+    private Method findMethod(final String methodName) {
+        try {
+            return configInterface.getMethod(methodName);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Get remembered outcomes of memoized validators.
+     * @return validation memo
+     */
+    ValidationMemo getValidationMemo() {
+        return validationMemo;
+    }
+
+    /**
+     * Get supplier of a dynamic property.
+     * @param slot slot index
+     * @return property supplier or null if property is not dynamic
+     */
+    ConfigPropertySupplier getSupplier(final int slot) {
+        return suppliers[slot];
+    }
+
+    /**
+     * Get layout of the configuration interface.
+     * @return configuration layout
+     */
+    ConfigLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Convert and validate given properties into property values, failing at the first problem.
+     * @param properties properties that represents a configuration
+     * @return property values laid out according to this plan
+     * @throws ConfigurationException if a property is missing, can't be resolved, can't be converted or is invalid
+     */
+    ConfigValues bind(final Properties properties) {
+        return bind(new InterpolatedProperties(properties), null);
+    }
+
+    /**
+     * Convert and validate given interpolated properties into property values, failing at the first problem.
+     * @param properties interpolated properties that represents a configuration
+     * @return property values laid out according to this plan
+     * @throws ConfigurationException if a property is missing, can't be resolved, can't be converted or is invalid
+     */
+    ConfigValues bind(final InterpolatedProperties properties) {
+        return bind(properties, null);
+    }
+
+    /**
+     * Convert and validate given properties into property values.
+     * <p>When a problem list is given, every problem is added to it instead of being thrown, and binding carries on
+     * with the next property. The returned values are then only meaningful if no problem was added.</p>
+     * @param properties properties that represents a configuration
+     * @param problems list collecting binding problems, or null to throw at the first problem
+     * @return property values laid out according to this plan
+     * @throws ConfigurationException if no problem list is given and a property is missing, can't be resolved, can't
+     *                                be converted or is invalid
+     */
+    ConfigValues bind(final Properties properties, final List<BindingProblem> problems) {
+        return bind(new InterpolatedProperties(properties), problems);
+    }
+
+    /**
+     * Convert and validate given interpolated properties into property values.
+     * @param properties interpolated properties that represents a configuration
+     * @param problems list collecting binding problems, or null to throw at the first problem
+     * @return property values laid out according to this plan
+     * @throws ConfigurationException if no problem list is given and a property is missing, can't be resolved, can't
+     *                                be converted or is invalid
+     * @see #bind(Properties, List)
+     */
+    ConfigValues bind(final InterpolatedProperties properties, final List<BindingProblem> problems) {
+        return bind(properties, problems, defaults, null);
+    }
+
+    /**
+     * Convert and validate the properties which changed since given values were bound, failing at the first
+     * problem.
+     * <p>When given interpolated properties were {@link InterpolatedProperties#update(Properties) updated} from the
+     * ones given values were bound from, only the slots bound from a stale key are converted and validated again,
+     * every other slot is copied over as is. Otherwise every slot is bound.</p>
+     * @param previousValues property values bound from the properties given interpolated properties were updated
+     *                       from
+     * @param properties interpolated properties that represents a configuration
+     * @return property values laid out according to this plan
+     * @throws ConfigurationException if a changed property is missing, can't be resolved, can't be converted or is
+     *                                invalid
+     */
+    ConfigValues rebind(final ConfigValues previousValues, final InterpolatedProperties properties) {
+        Set<String> staleKeys = properties.getStaleKeys();
+        if (staleKeys == null) {
+            return bind(properties, null);
+        }
+
+        // a stale key may bind no slot at all, or the same slot as another stale key when matched relaxed
+        Set<Integer> staleSlots = new TreeSet<Integer>();
+        for (String staleKey : staleKeys) {
+            int slot = layout.slotOfKey(staleKey);
+            if (slot >= 0) {
+                staleSlots.add(slot);
+            }
+        }
+
+        int[] slots = new int[staleSlots.size()];
+        int i = 0;
+        for (Integer slot : staleSlots) {
+            slots[i++] = slot.intValue();
+        }
+
+        return bind(properties, null, previousValues, slots);
+    }
+
+    /**
+     * Convert and validate given interpolated properties into some or all slots.
+     * @param properties interpolated properties that represents a configuration
+     * @param problems list collecting binding problems, or null to throw at the first problem
+     * @param template values every slot starts from, i.e. default values or previously bound values
+     * @param slots slots to bind, in ascending order, or null to bind every slot
+     * @return property values laid out according to this plan
+     * @throws ConfigurationException if no problem list is given and a property is missing, can't be resolved, can't
+     *                                be converted or is invalid
+     */
+    private ConfigValues bind(final InterpolatedProperties properties, final List<BindingProblem> problems,
+                              final ConfigValues template, final int[] slots) {
+        ConfigValues configValues = new ConfigValues(template);
+        RelaxedKeyIndex relaxedKeyIndex = layout.isRelaxedKeys() ? properties.getRelaxedKeyIndex() : null;
+        AsyncValidation asyncValidation = null;
+        int slotCount = (slots == null) ? layout.size() : slots.length;
+        int problemCount = (problems == null) ? 0 : problems.size();
+
+        try {
+            for (int i = 0; i < slotCount; i++) {
+                int slot = (slots == null) ? i : slots[i];
+                if (template != defaults) {
+                    // a rebound slot starts over from its default value, like every slot of a fresh binding
+                    configValues.copy(defaults, slot);
+                }
+
+                ConfigProperty configProperty = layout.getConfigProperty(slot);
+                String propertyName = layout.getPropertyName(slot);
+                Class<?> propertyType = configProperty.getPropertyClass();
+
+                // a missing optional property simply keeps its precomputed default value (or null) copied from defaults
+                String propertyKey = (relaxedKeyIndex == null) ? propertyName : relaxedKeyIndex.keyOf(layout.getNormalizedName(slot));
+                Object propertyValue = (propertyKey == null) ? null : properties.get(propertyKey);
+                if (propertyValue == null && configProperty.getDefaultValue() != null && decryptors[slot] != null) {
+                    propertyValue = configProperty.getDefaultValue();
+                }
+
+                if (propertyValue == null) {
+                    String failure = (propertyKey == null) ? null : properties.getFailure(propertyKey);
+                    if (failure != null) {
+                        report(problems, new BindingProblem(BindingProblem.Kind.UNRESOLVABLE, propertyName, propertyType,
+                                                            properties.getSource().get(propertyKey), failure));
+                    } else if (required[slot]) {
+                        report(problems, new BindingProblem(BindingProblem.Kind.MISSING, propertyName, propertyType, null));
+                    }
+                    continue;
+                }
+
+                if (decryptors[slot] != null) {
+                    configValues.set(slot, new SecretValue(this, slot, propertyValue.toString()));
+                    continue;
+                }
+
+                boolean typeMatched = propertyType.isInstance(propertyValue);
+                if (!typeMatched) {
+                    // convert property value using each property converter
+                    PropertyConversionEvent conversionEvent = BindingEvents.AVAILABLE ? PropertyConversionEvent.start() : null;
+                    Object convertedValue = convert(slot, propertyValue.toString());
+                    if (conversionEvent != null) {
+                        conversionEvent.commit(configInterface, propertyName, propertyType);
+                    }
+
+                    if (convertedValue == null) {
+                        report(problems, new BindingProblem(BindingProblem.Kind.UNCONVERTIBLE, propertyName, propertyType, propertyValue));
+                        continue;
+                    }
+
+                    propertyValue = convertedValue;
+                }
+
+                if (!satisfies(slot, propertyValue)) {
+                    report(problems, new BindingProblem(BindingProblem.Kind.INVALID, propertyName, propertyType, propertyValue));
+                    continue;
+                }
+
+                // blocking validators run concurrently, their outcome is joined below
+                if (validators[slot] instanceof AsyncPropertyValidator) {
+                    if (asyncValidation == null) {
+                        asyncValidation = new AsyncValidation(this);
+                    }
+                    asyncValidation.start(slot, propertyValue);
+                    configValues.set(slot, propertyValue);
+                    continue;
+                }
+
+                if (!validate(slot, propertyValue)) {
+                    report(problems, new BindingProblem(BindingProblem.Kind.INVALID, propertyName, propertyType, propertyValue));
+                    continue;
+                }
+
+                configValues.set(slot, propertyValue);
+            }
+        } catch (RuntimeException ex) {
+            if (asyncValidation != null) {
+                asyncValidation.cancel();
+            }
+            throw ex;
+        }
+
+        if (asyncValidation != null) {
+            List<BindingProblem> asyncProblems = asyncValidation.join();
+            if (problems != null) {
+                problems.addAll(asyncProblems);
+            } else if (!asyncProblems.isEmpty()) {
+                // every invalid value is reported at once, rather than only the first one
+                throw BindingResult.failure(asyncProblems).getFailure();
+            }
+        }
+
+        // rules only make sense once every property they depend on is bound and valid
+        if (!rules.isEmpty() && (problems == null || problems.size() == problemCount)) {
+            checkRules(configValues, slots, problems);
+        }
+
+        return configValues;
+    }
+
+    /**
+     * Check the rules depending on some slots against a configuration object created from given values.
+     * <p>The configuration object is kept along with the values, so binding returns it rather than creating
+     * another one. Secret properties of a configuration interface are only decrypted if a rule reads them.</p>
+     * @param configValues property values
+     * @param slots slots which were bound, in ascending order, or null to check every rule
+     * @param problems list collecting violated rules, or null to throw at the first violated rule
+     * @throws ConfigurationException if no problem list is given and a rule is violated, or the configuration
+     *                                record or class constructor rejects the values
+     */
+    private void checkRules(final ConfigValues configValues, final int[] slots, final List<BindingProblem> problems) {
+        Object config;
+        try {
+            config = Configuration.newConfig(this, configInterface, configValues);
+        } catch (ConfigurationException ex) {
+            if (problems == null) {
+                throw ex;
+            }
+            // the constructor rejects the values again when the configuration object is created, and gets reported then
+            return;
+        }
+
+        rules.check(config, slots, problems);
+    }
+
+    /**
+     * Validate a property value using the validator of a slot.
+     * <p>The outcome of a {@link MemoizedPropertyValidator} is looked up in the memo of this plan first. Only
+     * values of properties which are not secret get here, so secrets are never remembered.</p>
+     * @param slot slot index
+     * @param propertyValue converted property value
+     * @return true if property value is valid, false otherwise
+     */
+    boolean validate(final int slot, final Object propertyValue) {
+        PropertyValidationEvent validationEvent = BindingEvents.AVAILABLE ? PropertyValidationEvent.start() : null;
+        ConfigPropertyValidator validator = validators[slot];
+        boolean valid = (validator instanceof MemoizedPropertyValidator) ? validationMemo.isValid(validator, propertyValue)
+                                                                          : validator.isValid(propertyValue);
+        if (validationEvent != null) {
+            validationEvent.commit(configInterface, layout.getPropertyName(slot), validators[slot].getClass());
+        }
+
+        return valid;
+    }
+
+    /**
+     * Check a property value against the built-in constraints of a slot.
+     * @param slot slot index
+     * @param propertyValue converted property value
+     * @return true if property value satisfies every constraint or slot is not constrained, false otherwise
+     */
+    private boolean satisfies(final int slot, final Object propertyValue) {
+        ConstraintCheck constraintCheck = constraintChecks[slot];
+        return constraintCheck == null || constraintCheck.isSatisfied(propertyValue);
+    }
+
+    /**
+     * Decrypt, convert and validate the value of a secret property.
+     * <p>Problems are reported without the property value, so that neither encrypted nor decrypted value ends up in
+     * logs.</p>
+     * @param slot slot index
+     * @param encryptedValue encrypted property value
+     * @return decrypted property value
+     * @throws ConfigurationException if property value can't be decrypted, converted or is invalid
+     */
+    Object decrypt(final int slot, final String encryptedValue) {
+        String propertyName = layout.getPropertyName(slot);
+        String decryptedValue;
+        try {
+            decryptedValue = decryptors[slot].decrypt(encryptedValue);
+        } catch (RuntimeException ex) {
+            throw new ConfigurationException(String.format("Failed to decrypt secret property \"%s\"", propertyName), ex);
+        }
+
+        Object propertyValue = (decryptedValue == null) ? null : convert(slot, decryptedValue);
+        if (propertyValue == null) {
+            throw new ConfigurationException(String.format("Failed to convert secret property \"%s\" into %s type", propertyName, layout.getConfigProperty(slot).getPropertyClass()));
+        }
+
+        if (!satisfies(slot, propertyValue) || !validators[slot].isValid(propertyValue)) {
+            throw new ConfigurationException(String.format("Secret property \"%s\" value is invalid", propertyName));
+        }
+
+        return propertyValue;
+    }
+
+    /**
+     * Convert a property value using the converter of a slot.
+     * @param slot slot index
+     * @param propertyValue property value in string
+     * @return converted property value or null if property value can't be converted
+     */
+    private Object convert(final int slot, final String propertyValue) {
+        ConfigPropertyConverter converter = converters[slot];
+        if (converter instanceof CheckedPropertyConverter) {
+            return ((CheckedPropertyConverter) converter).isConvertible(propertyValue) ? converter.convertFromString(propertyValue) : null;
+        }
+
+        try {
+            return converter.convertFromString(propertyValue);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Map each constructor argument onto the slot of its property.
+     * @param layout layout of the configuration record or class
+     * @param constructor constructor of the configuration record or class
+     * @return slot of each constructor argument
+     */
+    private static int[] argumentSlotsOf(final ConfigLayout layout, final ConfigConstructor constructor) {
+        String[] parameterNames = constructor.getParameterNames();
+        int[] slots = new int[parameterNames.length];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = layout.slotOf(parameterNames[i]);
+        }
+
+        return slots;
+    }
+
+    /**
+     * Map each constructor argument accessor onto the slot of its property.
+     * @param layout layout of the configuration record or class
+     * @param argumentSlots slot of each constructor argument
+     * @param constructor constructor of the configuration record or class
+     * @return accessor of each slot, null if slot has no accessor
+     */
+    private static MethodHandle[] accessorsOf(final ConfigLayout layout, final int[] argumentSlots,
+                                              final ConfigConstructor constructor) {
+        MethodHandle[] argumentAccessors = constructor.resolveAccessors();
+        MethodHandle[] accessors = new MethodHandle[layout.size()];
+        for (int i = 0; i < argumentSlots.length; i++) {
+            accessors[argumentSlots[i]] = argumentAccessors[i];
+        }
+
+        return accessors;
+    }
+
+    /**
+     * Report a binding problem.
+     * @param problems list collecting binding problems, or null to throw the problem
+     * @param problem binding problem
+     * @throws ConfigurationException if no problem list is given
+     */
+    private static void report(final List<BindingProblem> problems, final BindingProblem problem) {
+        if (problems == null) {
+            throw new ConfigurationException(problem.getMessage());
+        }
+
+        problems.add(problem);
+    }
+}
@@ -28,6 +28,8 @@
 package com.ehxnv.util.config;
 
 import com.ehxnv.util.config.converter.*;
+import com.ehxnv.util.config.decryptor.ConfigPropertyDecryptor;
+import com.ehxnv.util.config.supplier.ConfigPropertySupplier;
 import com.ehxnv.util.config.validator.*;
 
 import java.util.Collections;
@@ -39,8 +41,12 @@ import java.util.List;
  * <ul>
  *     <li>original method name this property from</li>
  *     <li>property name in words</li>
- *     <li>property type</li>
+ *     <li>property type, along with the enum class of an enum property</li>
  *     <li>property validator to be used</li>
+ *     <li>property default value and whether property is optional</li>
+ *     <li>property decryptor, if property is secret</li>
+ *     <li>property supplier and time to live, if property is dynamic</li>
+ *     <li>property built-in constraints</li>
  * </ul>
  *
  * @author Eka Lie
@@ -53,18 +59,43 @@ public final class ConfigProperty {
     private List<Word> nameInWords;
     /** Property type. **/
     private Type type;
+    /** Enum class of an enum property, null for any other type. **/
+    private Class<? extends Enum> enumClass;
     /** Property validator. **/
     private Class<? extends ConfigPropertyValidator> validator;
+    /** Property default value (in string), null if none. **/
+    private String defaultValue;
+    /** Whether property may be missing. **/
+    private boolean optional;
+    /** Property decryptor, null if property is not secret. **/
+    private Class<? extends ConfigPropertyDecryptor> decryptor;
+    /** Property supplier, null if property is not dynamic. **/
+    private Class<? extends ConfigPropertySupplier> supplier;
+    /** Time to live of a supplied property value in milliseconds, 0 if property is not dynamic. **/
+    private long ttlMillis;
+    /** Property built-in constraints. **/
+    private PropertyConstraints constraints;
 
     /**
      * Constructor.
      * @param methodName original method name this property from
      * @param nameInWords property name in words
      * @param type property type
+     * @param enumClass enum class of an {@link Type#ENUM} property, ignored for any other type
      * @param validator property validator
+     * @param defaultValue property default value (in string), null if none
+     * @param optional whether property may be missing
+     * @param decryptor property decryptor, null if property is not secret
+     * @param supplier property supplier, null if property is not dynamic
+     * @param ttlMillis time to live of a supplied property value in milliseconds, ignored if property is not dynamic
+     * @param constraints property built-in constraints
      */
-    public ConfigProperty(final String methodName, final List<Word> nameInWords, final Type type,
-                          final Class<? extends ConfigPropertyValidator> validator) {
+    ConfigProperty(final String methodName, final List<Word> nameInWords, final Type type,
+                   final Class<? extends Enum> enumClass,
+                   final Class<? extends ConfigPropertyValidator> validator, final String defaultValue,
+                   final boolean optional, final Class<? extends ConfigPropertyDecryptor> decryptor,
+                   final Class<? extends ConfigPropertySupplier> supplier, final long ttlMillis,
+                   final PropertyConstraints constraints) {
         if (methodName == null) {
             throw new IllegalArgumentException("methodName can't be null");
         }
@@ -77,14 +108,41 @@ public final class ConfigProperty {
             throw new IllegalArgumentException("type can't be null");
         }
 
+        if (type == Type.ENUM && (enumClass == null || !enumClass.isEnum())) {
+            throw new IllegalArgumentException("enumClass must be an enum for ENUM type");
+        }
+
         if (validator == null) {
             throw new IllegalArgumentException("validator can't be null");
         }
 
+        if (constraints == null) {
+            throw new IllegalArgumentException("constraints can't be null");
+        }
+
         this.methodName = methodName;
         this.nameInWords = nameInWords;
         this.type = type;
+        this.enumClass = (type == Type.ENUM) ? enumClass : null;
         this.validator = validator;
+        this.defaultValue = defaultValue;
+        this.optional = optional;
+        this.decryptor = decryptor;
+        this.supplier = supplier;
+        this.ttlMillis = (supplier == null) ? 0L : ttlMillis;
+        this.constraints = constraints;
+    }
+
+    /**
+     * Constructor (required property without default value).
+     * @param methodName original method name this property from
+     * @param nameInWords property name in words
+     * @param type property type
+     * @param validator property validator
+     */
+    public ConfigProperty(final String methodName, final List<Word> nameInWords, final Type type,
+                          final Class<? extends ConfigPropertyValidator> validator) {
+        this(methodName, nameInWords, type, null, validator, null, false, null, null, 0L, PropertyConstraints.NONE);
     }
 
     /**
@@ -121,6 +179,14 @@ public final class ConfigProperty {
         return type;
     }
 
+    /**
+     * Get Java class of property values, which is the enum class itself for an enum property.
+     * @return property class
+     */
+    public Class<?> getPropertyClass() {
+        return (enumClass != null) ? enumClass : type.getClazz();
+    }
+
     /**
      * Get property validator.
      * @return property validator
@@ -129,6 +195,70 @@ public final class ConfigProperty {
         return validator;
     }
 
+    /**
+     * Get property default value.
+     * @return property default value (in string) or null if property has no default value
+     */
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * Determine if property may be missing, in which case its method returns null.
+     * @return true if property is optional, false otherwise
+     */
+    public boolean isOptional() {
+        return optional;
+    }
+
+    /**
+     * Get property decryptor.
+     * @return property decryptor or null if property is not secret
+     */
+    public Class<? extends ConfigPropertyDecryptor> getDecryptor() {
+        return decryptor;
+    }
+
+    /**
+     * Determine if property value is encrypted in configuration source.
+     * @return true if property is secret, false otherwise
+     */
+    public boolean isSecret() {
+        return decryptor != null;
+    }
+
+    /**
+     * Get property supplier.
+     * @return property supplier or null if property is not dynamic
+     */
+    public Class<? extends ConfigPropertySupplier> getSupplier() {
+        return supplier;
+    }
+
+    /**
+     * Get time to live of a supplied property value.
+     * @return time to live in milliseconds, 0 if property is not dynamic
+     */
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Determine if property value is supplied by a {@link ConfigPropertySupplier} and refreshed periodically.
+     * @return true if property is dynamic, false otherwise
+     */
+    public boolean isDynamic() {
+        return supplier != null;
+    }
+
+    /**
+     * Get property built-in constraints.
+     * @return property constraints, {@link PropertyConstraints#NONE} if property is not constrained
+     */
+    public PropertyConstraints getConstraints() {
+        return constraints;
+    }
+
     /**
      * Convenient method to get property converter.
      * Property converter returned will be based on the type of the property
@@ -148,7 +278,14 @@ public final class ConfigProperty {
         int result = methodName.hashCode();
         result = 31 * result + nameInWords.hashCode();
         result = 31 * result + type.hashCode();
+        result = 31 * result + (enumClass != null ? enumClass.hashCode() : 0);
         result = 31 * result + validator.hashCode();
+        result = 31 * result + (defaultValue != null ? defaultValue.hashCode() : 0);
+        result = 31 * result + (optional ? 1 : 0);
+        result = 31 * result + (decryptor != null ? decryptor.hashCode() : 0);
+        result = 31 * result + (supplier != null ? supplier.hashCode() : 0);
+        result = 31 * result + (int) (ttlMillis ^ (ttlMillis >>> 32));
+        result = 31 * result + constraints.hashCode();
         return result;
     }
 
@@ -165,7 +302,14 @@ public final class ConfigProperty {
         if (!methodName.equals(that.methodName)) return false;
         if (!nameInWords.equals(that.nameInWords)) return false;
         if (type != that.type) return false;
+        if (enumClass != null ? !enumClass.equals(that.enumClass) : that.enumClass != null) return false;
         if (!validator.equals(that.validator)) return false;
+        if (defaultValue != null ? !defaultValue.equals(that.defaultValue) : that.defaultValue != null) return false;
+        if (optional != that.optional) return false;
+        if (decryptor != null ? !decryptor.equals(that.decryptor) : that.decryptor != null) return false;
+        if (supplier != null ? !supplier.equals(that.supplier) : that.supplier != null) return false;
+        if (ttlMillis != that.ttlMillis) return false;
+        if (!constraints.equals(that.constraints)) return false;
 
         return true;
     }
@@ -262,7 +406,13 @@ public final class ConfigProperty {
               CharacterPropertyConverter.class),
         STRING (String.class,
                 IgnorantPropertyValidator.class,
-                StringPropertyConverter.class);
+                StringPropertyConverter.class),
+        ROLLOUT (Rollout.class,
+                 IgnorantPropertyValidator.class,
+                 RolloutPropertyConverter.class),
+        ENUM (Enum.class,
+              IgnorantPropertyValidator.class,
+              EnumPropertyConverter.class);
 
         /** Java class representation of the type. **/
         private Class clazz;
@@ -311,11 +461,21 @@ public final class ConfigProperty {
 
         /**
          * Return a suitable type from given Java class.
+         * <p>Any enum class is an {@link #ENUM}, whose converter is specific to the enum class, see
+         * {@link EnumPropertyConverter}.</p>
          * @param typeClazz given Java class type
          * @return matching type or null if no matches
          */
         public static Type fromClazz(final Class typeClazz) {
+            if (typeClazz.isEnum()) {
+                return ENUM;
+            }
+
             for (Type type : values()) {
+                if (type == ENUM) {
+                    continue;
+                }
+
                 if (type.getClazz().equals(typeClazz)) {
                     return type;
                 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Rule;
+import com.ehxnv.util.config.validator.ConfigValidator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds the {@link Rule rules} of a configuration interface, compiled once per {@link ConfigPlan}.
+ * <p>The properties each rule depends on are resolved to slots up front, so that a rebinding which only touched
+ * some slots checks only the rules depending on one of them.</p>
+ *
+ * @author Eka Lie
+ */
+final class ConfigRules {
+
+    /** No rule at all. **/
+    static final ConfigRules NONE = new ConfigRules(null, new ConfigValidator[0], new int[0][], new String[0]);
+
+    /** Configuration interface. **/
+    private final Class<?> configInterface;
+    /** Validator of each rule. **/
+    private final ConfigValidator[] validators;
+    /** Slots each rule depends on, in ascending order, null if rule depends on every slot. **/
+    private final int[][] dependencySlots;
+    /** Readable description of each rule. **/
+    private final String[] descriptions;
+
+    /**
+     * Constructor.
+     * @param configInterface configuration interface
+     * @param validators validator of each rule
+     * @param dependencySlots slots each rule depends on, null if rule depends on every slot
+     * @param descriptions readable description of each rule
+     */
+    private ConfigRules(final Class<?> configInterface, final ConfigValidator[] validators, final int[][] dependencySlots,
+                        final String[] descriptions) {
+        this.configInterface = configInterface;
+        this.validators = validators;
+        this.dependencySlots = dependencySlots;
+        this.descriptions = descriptions;
+    }
+
+    /**
+     * Compile rules of a configuration interface.
+     * @param configInterface configuration interface
+     * @param rules rule annotations of the configuration interface
+     * @param layout layout of the configuration interface
+     * @return compiled rules
+     * @throws ConfigurationException if a rule depends on an unknown property
+     */
+    static ConfigRules of(final Class<?> configInterface, final Rule[] rules, final ConfigLayout layout) {
+        if (rules.length == 0) {
+            return NONE;
+        }
+
+        ConfigValidator[] validators = new ConfigValidator[rules.length];
+        int[][] dependencySlots = new int[rules.length][];
+        String[] descriptions = new String[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            String[] dependsOn = rules[i].dependsOn();
+            List<String> propertyNames = new ArrayList<String>(dependsOn.length);
+            if (dependsOn.length > 0) {
+                dependencySlots[i] = new int[dependsOn.length];
+                for (int j = 0; j < dependsOn.length; j++) {
+                    int slot = layout.slotOf(dependsOn[j]);
+                    if (slot < 0) {
+                        throw new ConfigurationException(String.format("Rule %s depends on unknown property %s", rules[i].validator().getName(), dependsOn[j]));
+                    }
+
+                    dependencySlots[i][j] = slot;
+                    propertyNames.add(layout.getPropertyName(slot));
+                }
+                Arrays.sort(dependencySlots[i]);
+            }
+
+            validators[i] = ClassUtil.newInstance(rules[i].validator());
+            descriptions[i] = propertyNames.isEmpty() ? rules[i].validator().getSimpleName()
+                                                      : rules[i].validator().getSimpleName() + " of " + propertyNames;
+        }
+
+        return new ConfigRules(configInterface, validators, dependencySlots, descriptions);
+    }
+
+    /**
+     * Determine if there is no rule at all.
+     * @return true if there is no rule, false otherwise
+     */
+    boolean isEmpty() {
+        return validators.length == 0;
+    }
+
+    /**
+     * Check the rules depending on some slots against a configuration object.
+     * @param config configuration object
+     * @param slots slots which were bound, in ascending order, or null to check every rule
+     * @param problems list collecting violated rules, or null to throw at the first violated rule
+     * @throws ConfigurationException if no problem list is given and a rule is violated
+     */
+    void check(final Object config, final int[] slots, final List<BindingProblem> problems) {
+        for (int i = 0; i < validators.length; i++) {
+            if (slots != null && !dependsOnAny(i, slots)) {
+                continue;
+            }
+
+            if (!validators[i].isValid(config)) {
+                BindingProblem problem = new BindingProblem(BindingProblem.Kind.VIOLATED, null, configInterface, null,
+                                                            String.format("Rule %s is violated", descriptions[i]));
+                if (problems == null) {
+                    throw new ConfigurationException(problem.getMessage());
+                }
+                problems.add(problem);
+            }
+        }
+    }
+
+    /**
+     * Determine if a rule depends on any of given slots.
+     * @param rule rule index
+     * @param slots slots in ascending order
+     * @return true if rule depends on any of the slots, false otherwise
+     */
+    private boolean dependsOnAny(final int rule, final int[] slots) {
+        if (dependencySlots[rule] == null) {
+            return slots.length > 0;
+        }
+
+        for (int slot : dependencySlots[rule]) {
+            if (Arrays.binarySearch(slots, slot) >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
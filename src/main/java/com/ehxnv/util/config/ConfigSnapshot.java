@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import java.util.Properties;
+
+/**
+ * Represents one immutable, validated version of a {@link ReloadableConfig} values.
+ *
+ * @author Eka Lie
+ */
+final class ConfigSnapshot {
+
+    /** Property values. **/
+    private final ConfigValues values;
+    /** Interpolated properties the values were bound from. **/
+    private final InterpolatedProperties properties;
+    /** Configuration object created from the values, null for configuration interface. **/
+    private final Object config;
+    /** Snapshot version, starting from 1 and incremented on each reload. **/
+    private final long version;
+
+    /**
+     * Constructor.
+     * @param values property values
+     * @param properties interpolated properties the values were bound from
+     * @param config configuration object created from the values, null for configuration interface
+     * @param version snapshot version
+     */
+    ConfigSnapshot(final ConfigValues values, final InterpolatedProperties properties, final Object config,
+                   final long version) {
+        this.values = values;
+        this.properties = properties;
+        this.config = config;
+        this.version = version;
+    }
+
+    /**
+     * Get property values.
+     * @return property values
+     */
+    ConfigValues getValues() {
+        return values;
+    }
+
+    /**
+     * Get properties the values were bound from.
+     * @return source properties, which must not be modified
+     */
+    Properties getSource() {
+        return properties.getSource();
+    }
+
+    /**
+     * Get interpolated properties the values were bound from, whose memoized resolutions a reload can reuse.
+     * @return interpolated properties
+     */
+    InterpolatedProperties getProperties() {
+        return properties;
+    }
+
+    /**
+     * Get configuration record or class object created from the values.
+     * @return configuration object or null for configuration interface
+     */
+    Object getConfig() {
+        return config;
+    }
+
+    /**
+     * Get snapshot version.
+     * @return snapshot version
+     */
+    long getVersion() {
+        return version;
+    }
+
+}
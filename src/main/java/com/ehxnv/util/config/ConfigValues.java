@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+/**
+ * Holds property values of a single configuration object, packed according to a shared {@link ConfigLayout}.
+ * <p>Values are stored as converted, one per slot, so reading a property returns the stored object without
+ * allocating.</p>
+ *
+ * @author Eka Lie
+ */
+final class ConfigValues {
+
+    /** Shared empty value array. **/
+    private static final Object[] NO_VALUES = new Object[0];
+
+    /** Layout shared by all configuration objects of the same configuration interface. **/
+    private final ConfigLayout layout;
+    /** Value of each slot. **/
+    private final Object[] values;
+    /** Configuration object created from these values, null if none yet. **/
+    private Object config;
+
+    /**
+     * Constructor.
+     * @param layout layout of the configuration interface
+     */
+    ConfigValues(final ConfigLayout layout) {
+        this.layout = layout;
+        this.values = (layout.size() == 0) ? NO_VALUES : new Object[layout.size()];
+    }
+
+    /**
+     * Constructor (copies values of a template e.g. values holding property default values).
+     * @param template values to copy
+     */
+    ConfigValues(final ConfigValues template) {
+        this.layout = template.layout;
+        this.values = (template.values.length == 0) ? NO_VALUES : template.values.clone();
+    }
+
+    /**
+     * Get layout of these values.
+     * @return layout
+     */
+    ConfigLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Get configuration object created from these values, so that it is created once only.
+     * <p>Values are only ever handed to another thread along with a happens-before edge (a future or a volatile
+     * snapshot), so a plain field is enough.</p>
+     * @return configuration object or null if none created yet
+     */
+    Object getConfig() {
+        return config;
+    }
+
+    /**
+     * Set configuration object created from these values.
+     * @param config configuration object
+     */
+    void setConfig(final Object config) {
+        this.config = config;
+    }
+
+    /**
+     * Store a property value into its slot.
+     * @param slot slot index
+     * @param value property value, already converted into the property type
+     */
+    void set(final int slot, final Object value) {
+        values[slot] = value;
+    }
+
+    /**
+     * Read a property value from its slot.
+     * @param slot slot index
+     * <p>A secret property is decrypted on its first read.</p>
+     * @return property value
+     * @throws ConfigurationException if a secret property value can't be decrypted, converted or is invalid
+     */
+    Object get(final int slot) {
+        Object value = values[slot];
+        return (value instanceof SecretValue) ? ((SecretValue) value).get() : value;
+    }
+
+    /**
+     * Copy the stored value of a slot from other values of the same layout, as is.
+     * @param source values to copy from
+     * @param slot slot index
+     */
+    void copy(final ConfigValues source, final int slot) {
+        values[slot] = source.values[slot];
+    }
+
+    /**
+     * Determine if a slot holds the same value as in other values of the same layout, without decrypting it.
+     * @param other values to compare with
+     * @param slot slot index
+     * @return true if both values are equal, false otherwise
+     */
+    boolean hasSameValue(final ConfigValues other, final int slot) {
+        Object value = values[slot];
+        return value == other.values[slot] || (value != null && value.equals(other.values[slot]));
+    }
+
+    /**
+     * Clear every cached decrypted secret property value, so that they don't linger in memory once these values
+     * are no longer current.
+     */
+    void clearSecrets() {
+        for (Object value : values) {
+            if (value instanceof SecretValue) {
+                ((SecretValue) value).clear();
+            }
+        }
+    }
+}
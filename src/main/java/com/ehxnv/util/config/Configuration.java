@@ -27,28 +27,79 @@
 
 package com.ehxnv.util.config;
 
+import com.ehxnv.util.config.annotation.ConfigIndexProcessor;
 import com.ehxnv.util.config.converter.ConfigPropertyConverter;
+import com.ehxnv.util.config.converter.EnumPropertyConverter;
+import com.ehxnv.util.config.decryptor.ConfigPropertyDecryptor;
+import com.ehxnv.util.config.supplier.ConfigPropertySupplier;
 import com.ehxnv.util.config.translator.ConfigPropertyNameTranslator;
 import com.ehxnv.util.config.validator.ConfigPropertyValidator;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
-import java.util.HashMap;
-import java.util.Map;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Allow user to access configuration through POJO created automatically from a given configuration interface.
+ * <p>Configuration can also be bound to a record, or a class with a single public constructor, which is then
+ * created through its constructor with one argument per property instead of being proxied.</p>
+ * <p>A configuration object can be projected onto a narrower interface whose methods are a subset of its own, see
+ * {@link #project(Object, Class)}.</p>
  *
  * @author Eka Lie
  */
 public class Configuration {
 
+    /** Number of bulk binding tasks per available processor, so that uneven sources still spread across threads. **/
+    private static final int TASKS_PER_PROCESSOR = 4;
+
     /** Caches of converter by converter class. **/
-    private static final Map<Class, ConfigPropertyValidator> VALIDATOR_CACHES = new HashMap<Class, ConfigPropertyValidator>();
+    private static final ConcurrentMap<Class, ConfigPropertyValidator> VALIDATOR_CACHES = new ConcurrentHashMap<Class, ConfigPropertyValidator>();
     /** Caches of validator by validator class. **/
-    private static final Map<Class, ConfigPropertyConverter> CONVERTER_CACHES = new HashMap<Class, ConfigPropertyConverter>();
+    private static final ConcurrentMap<Class, ConfigPropertyConverter> CONVERTER_CACHES = new ConcurrentHashMap<Class, ConfigPropertyConverter>();
+    /** Caches of enum converter by enum class. **/
+    private static final ConcurrentMap<Class, ConfigPropertyConverter> ENUM_CONVERTER_CACHES = new ConcurrentHashMap<Class, ConfigPropertyConverter>();
+    /** Caches of decryptor by decryptor class. **/
+    private static final ConcurrentMap<Class, ConfigPropertyDecryptor> DECRYPTOR_CACHES = new ConcurrentHashMap<Class, ConfigPropertyDecryptor>();
+    /** Caches of supplier by supplier class. **/
+    private static final ConcurrentMap<Class, ConfigPropertySupplier> SUPPLIER_CACHES = new ConcurrentHashMap<Class, ConfigPropertySupplier>();
+    /** Caches of plan by configuration interface. **/
+    private static final ConcurrentMap<Class, ConfigPlan> PLAN_CACHES = new ConcurrentHashMap<Class, ConfigPlan>();
+    /** Type of a proxy constructor, see {@link #proxyConstructorOf(Class, Object)}. **/
+    private static final MethodType PROXY_CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, InvocationHandler.class);
+
+    /** Executor running bulk binding tasks when none is given, created on first use. **/
+    private static volatile ExecutorService bindingExecutor;
 
     /**
      * Creates a configuration object which conforms to given configuration interface.
@@ -58,51 +109,527 @@ public class Configuration {
      * @return configuration object which can be used to access the configuration properties
      */
     public static <T> T fromProperties(final Properties properties, final Class<T> configInterface) {
-        // make sure we're given an interface, not a class
-        if(!configInterface.isInterface()) {
-            throw new IllegalArgumentException("configInterface must be an interface");
+        checkConfigInterface(configInterface);
+
+        ConfigPlan configPlan = createPlan(configInterface);
+        return newConfig(configPlan, configInterface, configPlan.bind(properties));
+    }
+
+    /**
+     * Creates a holder of a configuration object which conforms to given configuration interface and can be reloaded
+     * later on.
+     * @param properties properties that represents the initial configuration
+     * @param configInterface configuration interface
+     * @param <T> configuration interface type
+     * @return reloadable configuration holding the configuration object
+     */
+    public static <T> ReloadableConfig<T> reloadableFromProperties(final Properties properties, final Class<T> configInterface) {
+        checkConfigInterface(configInterface);
+
+        return new ReloadableConfig<T>(configInterface, createPlan(configInterface), properties);
+    }
+
+    /**
+     * Creates a holder of a configuration object which conforms to given configuration interface, whose
+     * {@link com.ehxnv.util.config.annotation.Dynamic dynamic properties} are supplied and kept fresh in the
+     * background.
+     * <p>Every dynamic property is supplied once before binding, concurrently on given scheduler, and its supplied
+     * value takes precedence over the one in given properties, which is only used if supplying it fails. Each
+     * property is then supplied again ahead of its expiry, see {@link DynamicPropertyRefresher}, so that reading it
+     * never waits for its supplier.</p>
+     * @param properties properties that represents the initial configuration
+     * @param configInterface configuration interface
+     * @param scheduler scheduler which runs the suppliers
+     * @param <T> configuration interface type
+     * @return reloadable configuration holding the configuration object, see {@link ReloadableConfig#getRefresher()}
+     */
+    public static <T> ReloadableConfig<T> reloadableFromProperties(final Properties properties, final Class<T> configInterface,
+                                                                   final ScheduledExecutorService scheduler) {
+        checkConfigInterface(configInterface);
+
+        ConfigPlan configPlan = createPlan(configInterface);
+        DynamicPropertyRefresher refresher = new DynamicPropertyRefresher(configPlan, scheduler);
+        refresher.supplyAll();
+
+        ReloadableConfig<T> reloadableConfig = new ReloadableConfig<T>(configInterface, configPlan, properties, refresher);
+        refresher.start(reloadableConfig);
+        return reloadableConfig;
+    }
+
+    /**
+     * Tries to create a configuration object which conforms to given configuration interface.
+     * <p>Unlike {@link #fromProperties(Properties, Class)}, binding doesn't stop at the first missing, unconvertible
+     * or invalid property and no exception is thrown for them. Instead, the returned result lists every problem
+     * found in given properties.</p>
+     * @param properties properties that represents a configuration
+     * @param configInterface configuration interface
+     * @param <T> configuration interface type
+     * @return binding result holding either the configuration object or every binding problem
+     */
+    public static <T> BindingResult<T> tryBind(final Properties properties, final Class<T> configInterface) {
+        checkConfigInterface(configInterface);
+
+        return tryBind(createPlan(configInterface), properties, configInterface);
+    }
+
+    /**
+     * Creates a configuration object for each of given properties, binding them in parallel with a thread pool sized
+     * to the number of available processors.
+     * <p>The thread pool is created on first use and shared by every bulk binding afterwards. Its threads are
+     * daemon threads which time out once idle, so it is never shut down. It's a pool of its own rather than
+     * {@link java.util.concurrent.ForkJoinPool#commonPool()}, as binding tasks block waiting for asynchronous
+     * validations.</p>
+     * @param sources properties that each represents a configuration
+     * @param configInterface configuration interface
+     * @param <T> configuration interface type
+     * @return binding result of each properties, in the same order as given
+     * @see #fromProperties(Collection, Class, ExecutorService)
+     */
+    public static <T> BulkBindingResult<T> fromProperties(final Collection<? extends Properties> sources,
+                                                          final Class<T> configInterface) {
+        return fromProperties(sources, configInterface, getBindingExecutor());
+    }
+
+    /**
+     * Creates a configuration object for each of given properties, binding them in parallel on given executor.
+     * <p>All sources share the same compiled plan of the configuration interface. A source which fails to bind
+     * doesn't stop the others, its problems are reported in its {@link BindingResult} instead.</p>
+     * @param sources properties that each represents a configuration
+     * @param configInterface configuration interface
+     * @param executor executor which runs the binding tasks
+     * @param <T> configuration interface type
+     * @return binding result of each properties, in the same order as given
+     */
+    public static <T> BulkBindingResult<T> fromProperties(final Collection<? extends Properties> sources,
+                                                          final Class<T> configInterface,
+                                                          final ExecutorService executor) {
+        checkConfigInterface(configInterface);
+
+        long startTime = System.nanoTime();
+        final ConfigPlan configPlan = createPlan(configInterface);
+        final Properties[] items = sources.toArray(new Properties[sources.size()]);
+        final BindingResult<T>[] results = new BindingResult[items.length];
+
+        // split sources into contiguous ranges so that each task binds many sources
+        int taskCount = Math.min(items.length, Runtime.getRuntime().availableProcessors() * TASKS_PER_PROCESSOR);
+        List<Future<?>> futures = new ArrayList<Future<?>>(taskCount);
+        for (int task = 0; task < taskCount; task++) {
+            final int from = (int) ((long) items.length * task / taskCount);
+            final int to = (int) ((long) items.length * (task + 1) / taskCount);
+
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = from; i < to; i++) {
+                        results[i] = tryBind(configPlan, items[i], configInterface);
+                    }
+                }
+            }));
         }
 
-        JavaBeanMetadataResolver<T> configMetadataResolver = new JavaBeanMetadataResolver<T>();
-        ConfigMetadata configMetadata = configMetadataResolver.resolveMetadata(configInterface);
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ConfigurationException("Interrupted while binding properties", ex);
+            } catch (ExecutionException ex) {
+                throw new ConfigurationException("Failed to bind properties", ex.getCause());
+            }
+        }
 
-        ConfigPropertyNameTranslator configPropertyNameTranslator = ClassUtil.newInstance(configMetadata.getTranslator());
-        Map<String, Object> mappedProperties = new HashMap<String, Object>();
+        return new BulkBindingResult<T>(Arrays.asList(results), System.nanoTime() - startTime);
+    }
 
-        for (ConfigProperty configProperty : configMetadata.getConfigProperties()) {
-            // translate property name based on translation strategy
-            String propertyName = configPropertyNameTranslator.translatePropertyNameIntoReadablePropertyName(configProperty.getNameInWords());
+    /**
+     * Sets executor running {@link com.ehxnv.util.config.validator.AsyncPropertyValidator asynchronous validators}.
+     * <p>By default they run on virtual threads when the JVM has them, or on a bounded pool of daemon threads
+     * otherwise. A bounded executor shouldn't also be the one binding, e.g. given to
+     * {@link #fromProperties(Collection, Class, ExecutorService)}, as binding waits for validations.</p>
+     * @param executor validation executor, or null to go back to the default one
+     */
+    public static void setValidationExecutor(final Executor executor) {
+        AsyncValidation.setExecutor(executor);
+    }
 
-            // TODO: check if we have optional config here...
-            if (!properties.containsKey(propertyName)) {
-                throw new ConfigurationException(String.format("No property \"%s\" found in given properties", propertyName));
+    /**
+     * Sets how many outcomes of {@link com.ehxnv.util.config.validator.MemoizedPropertyValidator memoized validators}
+     * are remembered per configuration interface, 4096 by default. Outcomes remembered so far are forgotten.
+     * @param capacity number of remembered outcomes, 0 to remember none
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public static void setValidationMemoCapacity(final int capacity) {
+        ValidationMemo.setCapacity(capacity);
+        for (ConfigPlan configPlan : PLAN_CACHES.values()) {
+            configPlan.getValidationMemo().clear();
+        }
+    }
+
+    /**
+     * Creates a typed key of a property of given configuration interface, to read the property by name.
+     * @param configInterface configuration interface, record or class
+     * @param propertyName translated (readable) property name, e.g. {@code max-connections}
+     * @param type property type, which the property values must be assignable to
+     * @param <T> property type
+     * @return property key, resolved to the slot of the property
+     * @throws IllegalArgumentException if there's no such property or its values aren't of given type
+     * @see ConfigKey#get(Object)
+     * @see ReloadableConfig#get(ConfigKey)
+     */
+    public static <T> ConfigKey<T> key(final Class<?> configInterface, final String propertyName, final Class<T> type) {
+        checkConfigInterface(configInterface);
+
+        return ConfigKey.of(createPlan(configInterface), propertyName, type);
+    }
+
+    /**
+     * Creates a configuration object of a narrower interface which reads the properties of an existing one.
+     * <p>Each method of the projection interface must have the same name as a property method of the configuration
+     * interface, and a return type its values can be assigned to. Nothing is parsed or converted: the projection
+     * shares the property values of the configuration object, and projecting a configuration object of a
+     * {@link ReloadableConfig} gives one which follows its reloads as well. Methods are checked once per pair of
+     * interfaces, afterwards a projection only costs the allocation of its proxy.</p>
+     * @param config configuration object created by this class from a configuration interface
+     * @param projection projection interface
+     * @param <S> projection interface type
+     * @return configuration object of the projection interface
+     * @throws IllegalArgumentException if the configuration object wasn't created from a configuration interface by
+     * this class, or if a method of the projection interface doesn't match a property
+     */
+    public static <S> S project(final Object config, final Class<S> projection) {
+        if (!projection.isInterface()) {
+            throw new IllegalArgumentException("projection must be an interface");
+        }
+
+        InvocationHandler invocationHandler = Proxy.isProxyClass(config.getClass()) ? Proxy.getInvocationHandler(config) : null;
+        if (!(invocationHandler instanceof ConfigInvocationHandler)) {
+            throw new IllegalArgumentException("config must be created from a configuration interface");
+        }
+
+        // a projection of a projection is checked against the original configuration interface
+        ConfigPlan configPlan = ((ConfigInvocationHandler) invocationHandler).getPlan();
+        MethodHandle proxyConstructor = configPlan.getProjectionConstructor(projection);
+        if (proxyConstructor == null) {
+            proxyConstructor = configPlan.addProjection(projection, proxyConstructorOf(projection, config));
+        }
+
+        try {
+            return projection.cast((Object) proxyConstructor.invokeExact(invocationHandler));
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new ConfigurationException(String.format("Failed to project %s", projection.getName()), ex);
+        }
+    }
+
+    /**
+     * Resolves metadata, compiles the plan and binds given properties for every configuration interface listed in
+     * the classpath index, in parallel with a thread pool sized to the number of available processors.
+     * @param properties properties that represents the configuration of every configuration interface
+     * @return warm-up entry of each indexed configuration interface
+     * @see #warmUp(Properties, ClassLoader, ExecutorService)
+     */
+    public static WarmUpResult warmUp(final Properties properties) {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return warmUp(properties, Thread.currentThread().getContextClassLoader(), executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Resolves metadata, compiles the plan and binds given properties for every configuration interface listed in
+     * the index, in parallel on given executor.
+     * <p>Configuration interfaces are read from every {@value ConfigIndexProcessor#INDEX_RESOURCE} visible to given
+     * class loader, which {@link ConfigIndexProcessor} writes at build time, so no classpath scanning is needed.
+     * Compiled plans stay cached, so configuration objects created after warm-up skip straight to binding. An
+     * interface which fails to warm up doesn't stop the others, its failure is reported in its entry instead.</p>
+     * @param properties properties that represents the configuration of every configuration interface
+     * @param classLoader class loader to read the index from and load configuration interfaces with
+     * @param executor executor which runs the warm-up tasks
+     * @return warm-up entry of each indexed configuration interface, in the same order as the index
+     */
+    public static WarmUpResult warmUp(final Properties properties, final ClassLoader classLoader,
+                                      final ExecutorService executor) {
+        long startTime = System.nanoTime();
+        Set<String> classNames = readIndex(classLoader);
+
+        // one task per interface as plan compilation dwarfs the cost of scheduling it
+        List<Future<WarmUpResult.Entry>> futures = new ArrayList<Future<WarmUpResult.Entry>>(classNames.size());
+        for (final String className : classNames) {
+            futures.add(executor.submit(new Callable<WarmUpResult.Entry>() {
+                @Override
+                public WarmUpResult.Entry call() {
+                    return warmUp(className, properties, classLoader);
+                }
+            }));
+        }
+
+        List<WarmUpResult.Entry> entries = new ArrayList<WarmUpResult.Entry>(futures.size());
+        for (Future<WarmUpResult.Entry> future : futures) {
+            try {
+                entries.add(future.get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ConfigurationException("Interrupted while warming up configuration", ex);
+            } catch (ExecutionException ex) {
+                throw new ConfigurationException("Failed to warm up configuration", ex.getCause());
             }
+        }
 
-            Object propertyValue = properties.get(propertyName);
-            boolean typeMatched = configProperty.getType().getClazz().isAssignableFrom(propertyValue.getClass());
-            if (!typeMatched) {
-                // convert property value using each property converter
-                ConfigPropertyConverter configPropertyConverter = createConverter(configProperty.getConverter());
+        return new WarmUpResult(entries, System.nanoTime() - startTime);
+    }
 
+    /**
+     * Read binary names of configuration interfaces from every index visible to given class loader.
+     * @param classLoader class loader to read the index from
+     * @return class names, without duplicates and in the order found
+     */
+    private static Set<String> readIndex(final ClassLoader classLoader) {
+        Set<String> classNames = new LinkedHashSet<String>();
+        try {
+            Enumeration<URL> indexes = classLoader.getResources(ConfigIndexProcessor.INDEX_RESOURCE);
+            while (indexes.hasMoreElements()) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(indexes.nextElement().openStream(), "UTF-8"));
                 try {
-                    propertyValue = configPropertyConverter.convertFromString(propertyValue.toString());
-                } catch (RuntimeException ex) {
-                    throw new ConfigurationException(String.format("Failed to convert \"%s\" into %s type", propertyValue.toString(), configProperty.getType().getClazz()));
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        String className = line.trim();
+                        if (className.length() > 0 && !className.startsWith("#")) {
+                            classNames.add(className);
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+        } catch (IOException ex) {
+            throw new ConfigurationException("Failed to read " + ConfigIndexProcessor.INDEX_RESOURCE, ex);
+        }
+
+        return classNames;
+    }
+
+    /**
+     * Warm up a single configuration interface, timing plan compilation and binding separately.
+     * @param className binary name of the configuration interface
+     * @param properties properties that represents a configuration
+     * @param classLoader class loader to load the configuration interface with
+     * @return warm-up entry
+     */
+    private static WarmUpResult.Entry warmUp(final String className, final Properties properties,
+                                             final ClassLoader classLoader) {
+        long startTime = System.nanoTime();
+        Class<?> configInterface = null;
+        ConfigPlan configPlan;
+        try {
+            configInterface = Class.forName(className, false, classLoader);
+            checkConfigInterface(configInterface);
+            configPlan = createPlan(configInterface);
+        } catch (ClassNotFoundException ex) {
+            ConfigurationException failure = new ConfigurationException(String.format("Failed to load %s", className), ex);
+            return new WarmUpResult.Entry(className, null, null, failure, System.nanoTime() - startTime, 0L);
+        } catch (RuntimeException ex) {
+            ConfigurationException failure = new ConfigurationException(
+                    String.format("Failed to compile plan of %s: %s", className, ex.getMessage()), ex);
+            return new WarmUpResult.Entry(className, configInterface, null, failure, System.nanoTime() - startTime, 0L);
+        }
+
+        long planNanos = System.nanoTime() - startTime;
+        BindingResult<?> result = tryBind(configPlan, properties, configInterface);
+        return new WarmUpResult.Entry(className, configInterface, result, null, planNanos,
+                                      System.nanoTime() - startTime - planNanos);
+    }
+
+    /**
+     * Get executor running bulk binding tasks when none is given, creating it if needed: a pool of daemon threads
+     * sized to the number of available processors.
+     * @return binding executor
+     */
+    private static ExecutorService getBindingExecutor() {
+        ExecutorService executor = bindingExecutor;
+        if (executor == null) {
+            synchronized (Configuration.class) {
+                if (bindingExecutor == null) {
+                    int threads = Runtime.getRuntime().availableProcessors();
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 1L, TimeUnit.MINUTES,
+                                                                     new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(final Runnable runnable) {
+                            Thread thread = new Thread(runnable, "pojo-config-binding");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                    pool.allowCoreThreadTimeOut(true);
+                    bindingExecutor = pool;
+                }
+                executor = bindingExecutor;
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * Bind a single source, collecting every binding problem into the result instead of throwing.
+     * @param configPlan plan of the configuration interface
+     * @param properties properties that represents a configuration
+     * @param configInterface configuration interface
+     * @param <T> configuration interface type
+     * @return binding result
+     */
+    private static <T> BindingResult<T> tryBind(final ConfigPlan configPlan, final Properties properties,
+                                                final Class<T> configInterface) {
+        List<BindingProblem> problems = new ArrayList<BindingProblem>(0);
+        ConfigValues configValues = configPlan.bind(properties, problems);
+        if (!problems.isEmpty()) {
+            return BindingResult.failure(problems);
+        }
+
+        try {
+            return BindingResult.success(newConfig(configPlan, configInterface, configValues));
+        } catch (ConfigurationException ex) {
+            // only a configuration record or class constructor may fail here
+            problems.add(new BindingProblem(BindingProblem.Kind.REJECTED, null, configInterface, null, ex.getMessage()));
+            return BindingResult.failure(problems);
+        }
+    }
+
+    /**
+     * Make sure we're given an interface, or a record or class we can create through its constructor.
+     * @param configInterface configuration interface, record or class
+     */
+    private static void checkConfigInterface(final Class<?> configInterface) {
+        if (configInterface.isInterface()) {
+            return;
+        }
+
+        if (configInterface.isPrimitive() || configInterface.isArray() || configInterface.isEnum()
+            || Modifier.isAbstract(configInterface.getModifiers())) {
+            throw new IllegalArgumentException("configInterface must be an interface, a record or a concrete class");
+        }
+    }
+
+    /**
+     * Create configuration object backed by given property values: a proxy for a configuration interface, or a new
+     * object for a configuration record or class.
+     * <p>The object is created once per values, e.g. checking rules while binding creates the object binding then
+     * returns, see {@link ConfigValues#getConfig()}.</p>
+     * @param configPlan plan of the configuration interface
+     * @param configInterface configuration interface, record or class
+     * @param configValues property values
+     * @param <T> configuration interface type
+     * @return the dang configuration object
+     */
+    static <T> T newConfig(final ConfigPlan configPlan, final Class<T> configInterface, final ConfigValues configValues) {
+        Object existingConfig = configValues.getConfig();
+        if (existingConfig != null) {
+            return configInterface.cast(existingConfig);
+        }
+
+        T config = configPlan.isConstructorBound() ? configInterface.cast(configPlan.newInstance(configValues))
+                                                   : newProxy(configInterface, new SlottedInvocationHandler(configPlan, configValues));
+        configValues.setConfig(config);
+        return config;
+    }
+
+    /**
+     * Create configuration proxy which delegates method calls to given invocation handler.
+     * @param configInterface configuration interface
+     * @param invocationHandler invocation handler
+     * @param <T> configuration interface type
+     * @return configuration proxy
+     */
+    static <T> T newProxy(final Class<T> configInterface, final InvocationHandler invocationHandler) {
+        ConfigCreationEvent creationEvent = BindingEvents.AVAILABLE ? ConfigCreationEvent.start() : null;
+        T config = (T) Proxy.newProxyInstance(Configuration.class.getClassLoader(), new Class[] {configInterface},
+                                                invocationHandler);
+        if (creationEvent != null) {
+            creationEvent.commit(configInterface);
+        }
+
+        return config;
+    }
+
+    /**
+     * Resolve constructor of the proxy class of a projection interface, so that creating a projection skips the
+     * proxy class lookup of {@link Proxy#newProxyInstance(ClassLoader, Class[], InvocationHandler)}.
+     * @param projection projection interface
+     * @param config configuration object being projected, only used to create the first proxy
+     * @return method handle taking an {@link InvocationHandler} and returning the proxy
+     */
+    private static MethodHandle proxyConstructorOf(final Class<?> projection, final Object config) {
+        Class<?> proxyClass = newProxy(projection, Proxy.getInvocationHandler(config)).getClass();
+        try {
+            Constructor<?> constructor = proxyClass.getConstructor(InvocationHandler.class);
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(PROXY_CONSTRUCTOR_TYPE);
+        } catch (ReflectiveOperationException ex) {
+            // fall back to the proxy class lookup below
+        } catch (RuntimeException ex) {
+            // proxy class of a module we can't access, same as above
+        }
+
+        try {
+            MethodHandle newProxyInstance = MethodHandles.lookup().findStatic(Proxy.class, "newProxyInstance",
+                    MethodType.methodType(Object.class, ClassLoader.class, Class[].class, InvocationHandler.class));
+            return MethodHandles.insertArguments(newProxyInstance, 0, Configuration.class.getClassLoader(), new Class[] {projection});
+        } catch (ReflectiveOperationException ex) {
+            throw new ConfigurationException(String.format("Failed to project %s", projection.getName()), ex);
+        }
+    }
+
+    /**
+     * Create plan of a configuration interface or use the one in cache if available.
+     * <p>The plan is shared by every configuration object of the interface, so metadata resolution, property
+     * name translation and converter/validator lookups only happen once per interface.</p>
+     * @param configInterface configuration interface
+     * @param <T> configuration interface type
+     * @return configuration plan
+     */
+    private static <T> ConfigPlan createPlan(final Class<T> configInterface) {
+        ConfigPlan configPlan = PLAN_CACHES.get(configInterface);
+        if (configPlan == null) {
+            MetadataResolutionEvent resolutionEvent = BindingEvents.AVAILABLE ? MetadataResolutionEvent.start() : null;
+            JavaBeanMetadataResolver<T> configMetadataResolver = new JavaBeanMetadataResolver<T>();
+            ConfigMetadata configMetadata = configMetadataResolver.resolveMetadata(configInterface);
+            ConfigPropertyNameTranslator configPropertyNameTranslator = ClassUtil.newInstance(configMetadata.getTranslator());
+            ConfigLayout configLayout = new ConfigLayout(configMetadata, configPropertyNameTranslator);
+
+            ConfigPropertyConverter[] converters = new ConfigPropertyConverter[configLayout.size()];
+            ConfigPropertyValidator[] validators = new ConfigPropertyValidator[configLayout.size()];
+            ConfigPropertyDecryptor[] decryptors = new ConfigPropertyDecryptor[configLayout.size()];
+            ConfigPropertySupplier[] suppliers = new ConfigPropertySupplier[configLayout.size()];
+            for (int slot = 0; slot < configLayout.size(); slot++) {
+                ConfigProperty configProperty = configLayout.getConfigProperty(slot);
+                converters[slot] = (configProperty.getType() == ConfigProperty.Type.ENUM)
+                                   ? createEnumConverter(configProperty.getPropertyClass())
+                                   : createConverter(configProperty.getConverter());
+                validators[slot] = createValidator(configProperty.getValidator());
+                if (configProperty.isSecret()) {
+                    decryptors[slot] = createDecryptor(configProperty.getDecryptor());
+                }
+                if (configProperty.isDynamic()) {
+                    suppliers[slot] = createSupplier(configProperty.getSupplier());
                 }
             }
 
-            // validate property value using each property validator
-            ConfigPropertyValidator configPropertyValidator = createValidator(configProperty.getValidator());
-            if (!configPropertyValidator.isValid(propertyValue)) {
-                throw new ConfigurationException(String.format("Property \"%s\" value is invalid (value is %s)", propertyName, propertyValue));
+            configPlan = new ConfigPlan(configInterface, configLayout, converters, validators, decryptors, suppliers,
+                                        ConfigRules.of(configInterface, configMetadata.getRules(), configLayout),
+                                        configMetadata.getConstructor());
+            if (resolutionEvent != null) {
+                resolutionEvent.commit(configInterface, configLayout.size());
             }
 
-            mappedProperties.put(configProperty.getMethodName(), propertyValue);
+            // another thread may have compiled the same plan meanwhile, in which case we use theirs
+            ConfigPlan existingPlan = PLAN_CACHES.putIfAbsent(configInterface, configPlan);
+            if (existingPlan != null) {
+                configPlan = existingPlan;
+            }
         }
 
-        // return the dang configuration proxy
-        return (T) Proxy.newProxyInstance(Configuration.class.getClassLoader(), new Class[] {configInterface},
-                                            new MappedInvocationHandler(mappedProperties));
+        return configPlan;
     }
 
     /**
@@ -112,12 +639,30 @@ public class Configuration {
      */
     private static ConfigPropertyConverter createConverter(final Class<? extends ConfigPropertyConverter> converterClass) {
         if (!CONVERTER_CACHES.containsKey(converterClass)) {
-            CONVERTER_CACHES.put(converterClass, ClassUtil.newInstance(converterClass));
+            CONVERTER_CACHES.putIfAbsent(converterClass, ClassUtil.newInstance(converterClass));
         }
 
         return CONVERTER_CACHES.get(converterClass);
     }
 
+    /**
+     * Create converter of an enum or use the one in cache if available, so its lookup table is only built once.
+     * @param enumClass enum class
+     * @return enum property converter instance
+     * @throws ConfigurationException if an alias of the enum matches several constants
+     */
+    private static ConfigPropertyConverter createEnumConverter(final Class enumClass) {
+        if (!ENUM_CONVERTER_CACHES.containsKey(enumClass)) {
+            try {
+                ENUM_CONVERTER_CACHES.putIfAbsent(enumClass, new EnumPropertyConverter(enumClass));
+            } catch (IllegalArgumentException ex) {
+                throw new ConfigurationException(ex.getMessage(), ex);
+            }
+        }
+
+        return ENUM_CONVERTER_CACHES.get(enumClass);
+    }
+
     /**
      * Create property validator by class name or use the one in cache if available.
      * @param validatorClass property validator class
@@ -125,25 +670,90 @@ public class Configuration {
      */
     private static ConfigPropertyValidator createValidator(final Class<? extends ConfigPropertyValidator> validatorClass) {
         if (!VALIDATOR_CACHES.containsKey(validatorClass)) {
-            VALIDATOR_CACHES.put(validatorClass, ClassUtil.newInstance(validatorClass));
+            VALIDATOR_CACHES.putIfAbsent(validatorClass, ClassUtil.newInstance(validatorClass));
         }
 
         return VALIDATOR_CACHES.get(validatorClass);
     }
 
     /**
-     * An {@link InvocationHandler} which uses map<key, value> in which the
-     * key is a method name, mapped to method result.
+     * Create property decryptor by class name or use the one in cache if available.
+     * @param decryptorClass property decryptor class
+     * @return property decryptor instance
+     */
+    private static ConfigPropertyDecryptor createDecryptor(final Class<? extends ConfigPropertyDecryptor> decryptorClass) {
+        if (!DECRYPTOR_CACHES.containsKey(decryptorClass)) {
+            DECRYPTOR_CACHES.putIfAbsent(decryptorClass, ClassUtil.newInstance(decryptorClass));
+        }
+
+        return DECRYPTOR_CACHES.get(decryptorClass);
+    }
+
+    /**
+     * Create property supplier by class name or use the one in cache if available.
+     * @param supplierClass property supplier class
+     * @return property supplier instance
+     */
+    private static ConfigPropertySupplier createSupplier(final Class<? extends ConfigPropertySupplier> supplierClass) {
+        if (!SUPPLIER_CACHES.containsKey(supplierClass)) {
+            SUPPLIER_CACHES.putIfAbsent(supplierClass, ClassUtil.newInstance(supplierClass));
+        }
+
+        return SUPPLIER_CACHES.get(supplierClass);
+    }
+
+    /**
+     * An {@link InvocationHandler} of configuration objects, which reads method result from a slot found by method
+     * name, so that it can serve projections of the configuration interface as well.
      */
-    private static class MappedInvocationHandler implements InvocationHandler {
-        private Map<String, Object> mappedValues;
+    interface ConfigInvocationHandler extends InvocationHandler {
 
         /**
-         * Construcor.
-         * @param mappedValues a map of method name <-> method result
+         * Get plan of the configuration interface.
+         * @return configuration plan
          */
-        private MappedInvocationHandler(final Map<String, Object> mappedValues) {
-            this.mappedValues = mappedValues;
+        ConfigPlan getPlan();
+
+        /**
+         * Read a property value of the configuration object.
+         * @param slot slot index
+         * @return property value
+         */
+        Object get(int slot);
+    }
+
+    /**
+     * An {@link InvocationHandler} which reads method result from the slot of {@link ConfigValues}
+     * assigned to the method.
+     */
+    private static class SlottedInvocationHandler implements ConfigInvocationHandler {
+        private final ConfigPlan configPlan;
+        private final ConfigValues configValues;
+
+        /**
+         * Constructor.
+         * @param configPlan plan of the configuration interface
+         * @param configValues property values of the configuration object
+         */
+        private SlottedInvocationHandler(final ConfigPlan configPlan, final ConfigValues configValues) {
+            this.configPlan = configPlan;
+            this.configValues = configValues;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigPlan getPlan() {
+            return configPlan;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object get(final int slot) {
+            return configValues.get(slot);
         }
 
         /**
@@ -151,7 +761,48 @@ public class Configuration {
          */
         @Override
         public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
-            return mappedValues.get(method.getName());
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeObjectMethod(proxy, method, args, configPlan, configValues);
+            }
+
+            int slot = configValues.getLayout().slotOf(method.getName());
+            return (slot < 0) ? null : configValues.get(slot);
         }
     }
+
+    /**
+     * Invoke a {@link Object} method on a configuration proxy: {@code equals} and {@code hashCode} are based on
+     * identity, and {@code toString} lists property values with secret property values masked.
+     * @param proxy configuration proxy
+     * @param method {@code equals}, {@code hashCode} or {@code toString}
+     * @param args method arguments
+     * @param configPlan plan of the configuration interface
+     * @param configValues property values the proxy reads
+     * @return method result
+     */
+    static Object invokeObjectMethod(final Object proxy, final Method method, final Object[] args,
+                                     final ConfigPlan configPlan, final ConfigValues configValues) {
+        String methodName = method.getName();
+        if ("equals".equals(methodName)) {
+            return Boolean.valueOf(proxy == args[0]);
+        }
+
+        if ("hashCode".equals(methodName)) {
+            return Integer.valueOf(System.identityHashCode(proxy));
+        }
+
+        ConfigLayout layout = configValues.getLayout();
+        StringBuilder builder = new StringBuilder(configPlan.getConfigInterface().getSimpleName()).append('{');
+        for (int slot = 0; slot < layout.size(); slot++) {
+            if (slot > 0) {
+                builder.append(", ");
+            }
+
+            // secret values are masked rather than decrypted
+            Object value = layout.getConfigProperty(slot).isSecret() ? "****" : configValues.get(slot);
+            builder.append(layout.getPropertyName(slot)).append('=').append(value);
+        }
+
+        return builder.append('}').toString();
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Checks the {@link PropertyConstraints} of a single property, compiled once per {@link ConfigPlan}.
+ * <p>Bounds only apply to integral types, and are compared against the {@code long} value of the converted property
+ * value, without converting it again. The regular expression is compiled up front. Being a final class rather than a
+ * {@link com.ehxnv.util.config.validator.ConfigPropertyValidator}, every check is a direct call which the JIT can
+ * inline into the binding loop.</p>
+ *
+ * @author Eka Lie
+ */
+final class ConstraintCheck {
+
+    /** Lowest valid value, inclusive. **/
+    private final long min;
+    /** Greatest valid value, inclusive. **/
+    private final long max;
+    /** Whether value is bounded. **/
+    private final boolean bounded;
+    /** Whether value must not be empty. **/
+    private final boolean notEmpty;
+    /** Compiled regular expression, null if none. **/
+    private final Pattern pattern;
+
+    /**
+     * Constructor.
+     * @param constraints property constraints
+     * @param pattern compiled regular expression, null if none
+     */
+    private ConstraintCheck(final PropertyConstraints constraints, final Pattern pattern) {
+        this.min = constraints.getMin();
+        this.max = constraints.getMax();
+        this.bounded = constraints.isBounded();
+        this.notEmpty = constraints.isNotEmpty();
+        this.pattern = pattern;
+    }
+
+    /**
+     * Compile the constraints of a property.
+     * @param configProperty configuration property
+     * @return constraint check or null if property is not constrained
+     * @throws ConfigurationException if a constraint doesn't apply to property type or its regular expression is
+     *                                invalid
+     */
+    static ConstraintCheck of(final ConfigProperty configProperty) {
+        PropertyConstraints constraints = configProperty.getConstraints();
+        if (!constraints.isConstrained()) {
+            return null;
+        }
+
+        ConfigProperty.Type type = configProperty.getType();
+        // bounds are whole numbers, which can't express floating point bounds such as 0.5
+        boolean integral = Number.class.isAssignableFrom(type.getClazz())
+                           && type != ConfigProperty.Type.FLOAT && type != ConfigProperty.Type.DOUBLE;
+        if (constraints.isBounded() && !integral) {
+            throw new ConfigurationException(String.format("Property %s of type %s can't be bounded", configProperty.getMethodName(), type.getClazz().getName()));
+        }
+
+        if ((constraints.isNotEmpty() || constraints.getPattern() != null) && type != ConfigProperty.Type.STRING) {
+            throw new ConfigurationException(String.format("Property %s of type %s can't be checked for emptiness or pattern", configProperty.getMethodName(), type.getClazz().getName()));
+        }
+
+        Pattern pattern = null;
+        if (constraints.getPattern() != null) {
+            try {
+                pattern = Pattern.compile(constraints.getPattern());
+            } catch (PatternSyntaxException ex) {
+                throw new ConfigurationException(String.format("Property %s has an invalid pattern", configProperty.getMethodName()), ex);
+            }
+        }
+
+        return new ConstraintCheck(constraints, pattern);
+    }
+
+    /**
+     * Determine if a property value satisfies every constraint.
+     * @param propertyValue converted property value
+     * @return true if property value satisfies every constraint, false otherwise
+     */
+    boolean isSatisfied(final Object propertyValue) {
+        if (bounded) {
+            long value = ((Number) propertyValue).longValue();
+            if (value < min || value > max) {
+                return false;
+            }
+        }
+
+        if (notEmpty && ((String) propertyValue).isEmpty()) {
+            return false;
+        }
+
+        return pattern == null || pattern.matcher((String) propertyValue).matches();
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link com.ehxnv.util.config.annotation.Dynamic dynamic properties} of a {@link ReloadableConfig}
+ * fresh by supplying them again, in the background, before they expire.
+ * <p>Each dynamic property is supplied again once three quarters of its time to live have passed (or a quarter,
+ * after a failure), so that a new value is usually in place before the current one expires. A changed value is
+ * converted and validated like any other value, then applied to that property alone rather than through a reload,
+ * see {@link ReloadableConfig#getVersion()}. Readers never wait for a supplier: they keep reading the current value,
+ * however stale, until a new one is in place. Refresh latency and staleness of each property are available for
+ * monitoring.</p>
+ *
+ * @author Eka Lie
+ * @see Configuration#reloadableFromProperties(java.util.Properties, Class, ScheduledExecutorService)
+ */
+public final class DynamicPropertyRefresher implements Closeable {
+
+    /** Share of the time to live after which a supplied value is supplied again. **/
+    private static final double REFRESH_AHEAD_RATIO = 0.75d;
+    /** Share of the time to live after which a failed refresh is retried. **/
+    private static final double RETRY_RATIO = 0.25d;
+
+    /** Plan of the configuration interface. **/
+    private final ConfigPlan plan;
+    /** Scheduler which runs the suppliers. **/
+    private final ScheduledExecutorService scheduler;
+    /** Refresh state of each dynamic property by readable property name. **/
+    private final Map<String, Refresh> refreshes = new LinkedHashMap<String, Refresh>();
+    /** Last successfully supplied and applied value of each dynamic property. **/
+    private final ConcurrentMap<String, String> suppliedValues = new ConcurrentHashMap<String, String>();
+    /** Configuration whose dynamic properties are refreshed, null until started. **/
+    private volatile ReloadableConfig<?> config;
+    /** Whether refreshing stopped. **/
+    private volatile boolean closed;
+
+    /**
+     * Constructor.
+     * @param plan plan of the configuration interface
+     * @param scheduler scheduler which runs the suppliers
+     */
+    DynamicPropertyRefresher(final ConfigPlan plan, final ScheduledExecutorService scheduler) {
+        this.plan = plan;
+        this.scheduler = scheduler;
+
+        ConfigLayout layout = plan.getLayout();
+        for (int slot = 0; slot < layout.size(); slot++) {
+            if (layout.getConfigProperty(slot).isDynamic()) {
+                refreshes.put(layout.getPropertyName(slot), new Refresh(slot));
+            }
+        }
+    }
+
+    /**
+     * Supply every dynamic property once, concurrently, waiting for all of them.
+     * <p>A property which fails to be supplied is left to the configuration source.</p>
+     * @throws ConfigurationException if interrupted while waiting
+     */
+    void supplyAll() {
+        List<Future<?>> futures = new ArrayList<Future<?>>(refreshes.size());
+        for (final Refresh refresh : refreshes.values()) {
+            futures.add(scheduler.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    String propertyValue = refresh.supply();
+                    if (propertyValue != null) {
+                        suppliedValues.put(refresh.propertyName, propertyValue);
+                        refresh.succeeded();
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ConfigurationException("Interrupted while supplying dynamic properties", ex);
+            } catch (ExecutionException ex) {
+                throw new ConfigurationException("Failed to supply dynamic properties", ex.getCause());
+            }
+        }
+    }
+
+    /**
+     * Start refreshing dynamic properties of a configuration in the background.
+     * @param reloadableConfig configuration bound with the values supplied by {@link #supplyAll()}
+     */
+    void start(final ReloadableConfig<?> reloadableConfig) {
+        this.config = reloadableConfig;
+        for (Refresh refresh : refreshes.values()) {
+            refresh.schedule(refresh.supplied);
+        }
+    }
+
+    /**
+     * Get last successfully supplied and applied value of each dynamic property.
+     * @return property values by readable property name
+     */
+    Map<String, String> getSuppliedValues() {
+        return suppliedValues;
+    }
+
+    /**
+     * Get readable names of the dynamic properties.
+     * @return property names
+     */
+    public Set<String> getPropertyNames() {
+        return Collections.unmodifiableSet(refreshes.keySet());
+    }
+
+    /**
+     * Get how long the last attempt to supply a property took, whether it succeeded or not.
+     * @param propertyName readable property name
+     * @return latency in nanoseconds, 0 if never attempted
+     * @throws IllegalArgumentException if property is not dynamic
+     */
+    public long getLastRefreshLatencyNanos(final String propertyName) {
+        return refreshOf(propertyName).lastLatencyNanos;
+    }
+
+    /**
+     * Get how long ago the current value of a property was supplied.
+     * @param propertyName readable property name
+     * @return staleness in nanoseconds, or -1 if the property was never supplied
+     * @throws IllegalArgumentException if property is not dynamic
+     */
+    public long getStalenessNanos(final String propertyName) {
+        Refresh refresh = refreshOf(propertyName);
+        return refresh.supplied ? System.nanoTime() - refresh.lastSuppliedNanoTime : -1L;
+    }
+
+    /**
+     * Determine if the current value of a property outlived its time to live, i.e. refreshing it kept failing.
+     * @param propertyName readable property name
+     * @return true if the property was never supplied or is older than its time to live, false otherwise
+     * @throws IllegalArgumentException if property is not dynamic
+     */
+    public boolean isExpired(final String propertyName) {
+        long stalenessNanos = getStalenessNanos(propertyName);
+        return stalenessNanos < 0L || stalenessNanos > refreshOf(propertyName).ttlNanos;
+    }
+
+    /**
+     * Get number of times a property was supplied successfully.
+     * @param propertyName readable property name
+     * @return number of successful refreshes, including the initial one
+     * @throws IllegalArgumentException if property is not dynamic
+     */
+    public long getRefreshCount(final String propertyName) {
+        return refreshOf(propertyName).refreshCount;
+    }
+
+    /**
+     * Get number of times a property failed to be supplied, or its supplied value was rejected.
+     * @param propertyName readable property name
+     * @return number of failed refreshes
+     * @throws IllegalArgumentException if property is not dynamic
+     */
+    public long getFailedRefreshCount(final String propertyName) {
+        return refreshOf(propertyName).failedRefreshCount;
+    }
+
+    /**
+     * Stop refreshing dynamic properties; the configuration keeps their current values.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Refresh refresh : refreshes.values()) {
+            refresh.cancel();
+        }
+    }
+
+    /**
+     * Get refresh state of a dynamic property.
+     * @param propertyName readable property name
+     * @return refresh state
+     * @throws IllegalArgumentException if property is not dynamic
+     */
+    private Refresh refreshOf(final String propertyName) {
+        Refresh refresh = refreshes.get(propertyName);
+        if (refresh == null) {
+            throw new IllegalArgumentException(String.format("\"%s\" is not a dynamic property of %s", propertyName, plan.getConfigInterface().getName()));
+        }
+
+        return refresh;
+    }
+
+    /**
+     * Refresh state of a single dynamic property, which reschedules itself after each refresh so that a slow
+     * supplier never has two refreshes running.
+     */
+    private final class Refresh implements Runnable {
+        /** Slot of the property. **/
+        private final int slot;
+        /** Readable property name. **/
+        private final String propertyName;
+        /** Time to live of a supplied value, in nanoseconds. **/
+        private final long ttlNanos;
+        /** Whether the property was supplied at least once. **/
+        private volatile boolean supplied;
+        /** When the current value was supplied, see {@link System#nanoTime()}. **/
+        private volatile long lastSuppliedNanoTime;
+        /** How long the last attempt to supply took. **/
+        private volatile long lastLatencyNanos;
+        /** Number of successful refreshes, only written by the refresh itself. **/
+        private volatile long refreshCount;
+        /** Number of failed refreshes, only written by the refresh itself. **/
+        private volatile long failedRefreshCount;
+        /** Next scheduled refresh. **/
+        private volatile ScheduledFuture<?> next;
+
+        /**
+         * Constructor.
+         * @param slot slot of the property
+         */
+        private Refresh(final int slot) {
+            this.slot = slot;
+            this.propertyName = plan.getLayout().getPropertyName(slot);
+            this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(plan.getLayout().getConfigProperty(slot).getTtlMillis());
+        }
+
+        /**
+         * Call the supplier of the property, timing it.
+         * @return supplied value, or null if supplier failed or had no value
+         */
+        private String supply() {
+            long startTime = System.nanoTime();
+            String propertyValue;
+            try {
+                propertyValue = plan.getSupplier(slot).supply(propertyName);
+            } catch (RuntimeException ex) {
+                propertyValue = null;
+            }
+
+            lastLatencyNanos = System.nanoTime() - startTime;
+            if (propertyValue == null) {
+                failedRefreshCount++;
+            }
+            return propertyValue;
+        }
+
+        /**
+         * Record a supplied value as the current one.
+         */
+        private void succeeded() {
+            lastSuppliedNanoTime = System.nanoTime();
+            supplied = true;
+            refreshCount++;
+        }
+
+        /**
+         * Supply the property again and apply its value if it changed.
+         */
+        @Override
+        public void run() {
+            if (closed) {
+                return;
+            }
+
+            String propertyValue = supply();
+            boolean applied = (propertyValue != null) && apply(propertyValue);
+            if (applied) {
+                succeeded();
+            } else if (propertyValue != null) {
+                failedRefreshCount++;
+            }
+
+            schedule(applied);
+        }
+
+        /**
+         * Apply a supplied value to the configuration, unless it's the current one already.
+         * @param propertyValue supplied value
+         * @return true if the value is now current, false if the configuration rejected it
+         */
+        private boolean apply(final String propertyValue) {
+            // reloads overlay supplied values, so the new value is recorded first and reverted if rejected
+            synchronized (config) {
+                String previousValue = suppliedValues.put(propertyName, propertyValue);
+                if (propertyValue.equals(previousValue)) {
+                    return true;
+                }
+
+                try {
+                    config.refresh(propertyName, propertyValue);
+                    return true;
+                } catch (ConfigurationException ex) {
+                    if (previousValue == null) {
+                        suppliedValues.remove(propertyName);
+                    } else {
+                        suppliedValues.put(propertyName, previousValue);
+                    }
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Schedule the next refresh, earlier if the last one failed.
+         * @param succeeded whether the last refresh succeeded
+         */
+        private void schedule(final boolean succeeded) {
+            if (!closed) {
+                double ratio = succeeded ? REFRESH_AHEAD_RATIO : RETRY_RATIO;
+                next = scheduler.schedule(this, Math.max(1L, (long) (ttlNanos * ratio)), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * Cancel the next refresh, if any.
+         */
+        private void cancel() {
+            ScheduledFuture<?> scheduled = next;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
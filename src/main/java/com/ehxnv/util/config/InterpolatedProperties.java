@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Represents configuration source properties whose values may reference other properties as {@code ${other.key}}.
+ * <p>References are resolved lazily, when a property is asked for, by walking the graph of property references
+ * depth first. Every resolved property is memoized together with the properties it references directly, so each
+ * property is resolved at most once no matter how many others reference it. A reference cycle or a reference to an
+ * undefined property makes every property depending on it unresolvable.</p>
+ *
+ * <p>{@link #update(Properties)} carries memoized properties over to newer source properties, dropping only those
+ * which are downstream of a changed property, so updating a large interpolated source only costs as much as the
+ * change. The keys whose resolved value may have changed are kept, see {@link #getStaleKeys()}, so that only the
+ * properties bound from them need to be bound again.</p>
+ *
+ * <p>An instance is not thread safe and is meant to be confined to the thread binding it.</p>
+ *
+ * @author Eka Lie
+ */
+final class InterpolatedProperties {
+
+    /** Prefix of a property reference. **/
+    private static final String REFERENCE_PREFIX = "${";
+    /** Suffix of a property reference. **/
+    private static final String REFERENCE_SUFFIX = "}";
+    /** Empty references. **/
+    private static final String[] NO_REFERENCES = new String[0];
+
+    /** Source properties. **/
+    private final Properties source;
+    /** Memoized resolution by property key. **/
+    private final Map<String, Resolution> resolutions;
+    /** Keys whose resolved value may differ from the properties these were updated from, null if not updated. **/
+    private final Set<String> staleKeys;
+    /** Index of source keys by normalized key, built on first use. **/
+    private RelaxedKeyIndex relaxedKeyIndex;
+
+    /**
+     * Constructor.
+     * @param source source properties, which must not be modified afterwards
+     */
+    InterpolatedProperties(final Properties source) {
+        this(source, new HashMap<String, Resolution>(), null);
+    }
+
+    /**
+     * Constructor.
+     * @param source source properties, which must not be modified afterwards
+     * @param resolutions memoized resolutions still valid for source properties
+     * @param staleKeys keys whose resolved value may differ from the properties these were updated from, or null
+     */
+    private InterpolatedProperties(final Properties source, final Map<String, Resolution> resolutions,
+                                   final Set<String> staleKeys) {
+        this.source = source;
+        this.resolutions = resolutions;
+        this.staleKeys = staleKeys;
+    }
+
+    /**
+     * Get source properties.
+     * @return source properties, which must not be modified
+     */
+    Properties getSource() {
+        return source;
+    }
+
+    /**
+     * Get keys whose resolved value may differ from the interpolated properties these were updated from: changed,
+     * added and removed keys along with every key referencing them, directly or not.
+     * @return stale keys, or null if these weren't updated from other interpolated properties
+     */
+    Set<String> getStaleKeys() {
+        return staleKeys;
+    }
+
+    /**
+     * Get index of source keys by normalized key, building it on first use.
+     * @return relaxed key index of source properties
+     */
+    RelaxedKeyIndex getRelaxedKeyIndex() {
+        if (relaxedKeyIndex == null) {
+            relaxedKeyIndex = new RelaxedKeyIndex(source);
+        }
+
+        return relaxedKeyIndex;
+    }
+
+    /**
+     * Get property value with every reference resolved.
+     * @param key property key
+     * @return property value or null if property is not found or can't be resolved
+     */
+    Object get(final String key) {
+        Object value = source.get(key);
+        if (!isInterpolated(value)) {
+            return value;
+        }
+
+        return resolve(key, new LinkedHashSet<String>()).value;
+    }
+
+    /**
+     * Get the reason why a property can't be resolved.
+     * @param key property key
+     * @return reason or null if property is resolvable or not found
+     */
+    String getFailure(final String key) {
+        if (!isInterpolated(source.get(key))) {
+            return null;
+        }
+
+        return resolve(key, new LinkedHashSet<String>()).failure;
+    }
+
+    /**
+     * Check whether a property resolution is memoized.
+     * @param key property key
+     * @return true if memoized, false otherwise
+     */
+    boolean isMemoized(final String key) {
+        return resolutions.containsKey(key);
+    }
+
+    /**
+     * Create interpolated properties of newer source properties, keeping every memoized resolution which doesn't
+     * depend on a changed property.
+     * @param newSource newer source properties, which must not be modified afterwards
+     * @return interpolated properties of newer source properties
+     */
+    InterpolatedProperties update(final Properties newSource) {
+        Set<String> changedKeys = new HashSet<String>();
+        collectChangedKeys(source, newSource, changedKeys);
+        collectChangedKeys(newSource, source, changedKeys);
+
+        Map<String, Resolution> validResolutions = new HashMap<String, Resolution>(resolutions);
+        Set<String> staleKeys = changedKeys;
+        if (!changedKeys.isEmpty()) {
+            // invert the memoized reference graph, then drop everything reachable from a changed property
+            Map<String, List<String>> dependents = new HashMap<String, List<String>>();
+            for (Map.Entry<String, Resolution> entry : resolutions.entrySet()) {
+                for (String reference : entry.getValue().references) {
+                    List<String> referenceDependents = dependents.get(reference);
+                    if (referenceDependents == null) {
+                        referenceDependents = new ArrayList<String>();
+                        dependents.put(reference, referenceDependents);
+                    }
+                    referenceDependents.add(entry.getKey());
+                }
+            }
+
+            staleKeys = new HashSet<String>(changedKeys);
+            Deque<String> pendingKeys = new ArrayDeque<String>(changedKeys);
+            while (!pendingKeys.isEmpty()) {
+                List<String> keyDependents = dependents.get(pendingKeys.poll());
+                if (keyDependents != null) {
+                    for (String dependent : keyDependents) {
+                        if (staleKeys.add(dependent)) {
+                            pendingKeys.add(dependent);
+                        }
+                    }
+                }
+            }
+
+            validResolutions.keySet().removeAll(staleKeys);
+        }
+
+        return new InterpolatedProperties(newSource, validResolutions, staleKeys);
+    }
+
+    /**
+     * Resolve every reference of a property.
+     * @param key property key
+     * @param path keys being resolved, from the first asked for to the one referencing this property
+     * @return property resolution
+     */
+    private Resolution resolve(final String key, final Set<String> path) {
+        Resolution resolution = resolutions.get(key);
+        if (resolution != null) {
+            return resolution;
+        }
+
+        // the cycle itself isn't memoized here, every property on it memoizes its own failure on the way back
+        if (!path.add(key)) {
+            StringBuilder cycle = new StringBuilder();
+            boolean inCycle = false;
+            for (String pathKey : path) {
+                inCycle = inCycle || pathKey.equals(key);
+                if (inCycle) {
+                    cycle.append(pathKey).append(" -> ");
+                }
+            }
+            return new Resolution(null, NO_REFERENCES, String.format("reference cycle %s%s", cycle, key));
+        }
+
+        String value = source.get(key).toString();
+        List<String> references = new ArrayList<String>();
+        StringBuilder resolvedValue = new StringBuilder(value.length());
+        String failure = null;
+
+        int position = 0;
+        int referenceStart = value.indexOf(REFERENCE_PREFIX);
+        while (referenceStart >= 0) {
+            int referenceEnd = value.indexOf(REFERENCE_SUFFIX, referenceStart + REFERENCE_PREFIX.length());
+            if (referenceEnd < 0) {
+                // unterminated reference is taken literally
+                break;
+            }
+
+            String reference = value.substring(referenceStart + REFERENCE_PREFIX.length(), referenceEnd);
+            references.add(reference);
+            resolvedValue.append(value, position, referenceStart);
+
+            if (failure == null) {
+                Object referencedValue = source.get(reference);
+                if (referencedValue == null) {
+                    failure = String.format("undefined property \"%s\"", reference);
+                } else if (!isInterpolated(referencedValue)) {
+                    resolvedValue.append(referencedValue);
+                } else {
+                    Resolution referencedResolution = resolve(reference, path);
+                    if (referencedResolution.value != null) {
+                        resolvedValue.append(referencedResolution.value);
+                    } else {
+                        failure = referencedResolution.failure;
+                    }
+                }
+            }
+
+            position = referenceEnd + REFERENCE_SUFFIX.length();
+            referenceStart = value.indexOf(REFERENCE_PREFIX, position);
+        }
+        resolvedValue.append(value, position, value.length());
+        path.remove(key);
+
+        resolution = new Resolution((failure == null) ? resolvedValue.toString() : null,
+                                    references.toArray(new String[references.size()]), failure);
+        resolutions.put(key, resolution);
+        return resolution;
+    }
+
+    /**
+     * Check whether a property value contains a reference.
+     * @param value property value
+     * @return true if it contains a reference, false otherwise
+     */
+    private static boolean isInterpolated(final Object value) {
+        return (value instanceof String) && ((String) value).contains(REFERENCE_PREFIX);
+    }
+
+    /**
+     * Add keys whose value in given properties differs from their value in other properties.
+     * @param properties properties whose keys are checked
+     * @param otherProperties properties compared against
+     * @param changedKeys set collecting changed keys
+     */
+    private static void collectChangedKeys(final Properties properties, final Properties otherProperties,
+                                           final Set<String> changedKeys) {
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            if (!entry.getValue().equals(otherProperties.get(entry.getKey()))) {
+                changedKeys.add(entry.getKey().toString());
+            }
+        }
+    }
+
+    /**
+     * Represents a memoized property resolution.
+     */
+    private static final class Resolution {
+        /** Resolved value, null if property can't be resolved. **/
+        private final String value;
+        /** Keys referenced directly by the property. **/
+        private final String[] references;
+        /** Reason why property can't be resolved, null if resolved. **/
+        private final String failure;
+
+        /**
+         * Constructor.
+         * @param value resolved value, null if property can't be resolved
+         * @param references keys referenced directly by the property
+         * @param failure reason why property can't be resolved, null if resolved
+         */
+        private Resolution(final String value, final String[] references, final String failure) {
+            this.value = value;
+            this.references = references;
+            this.failure = failure;
+        }
+    }
+}
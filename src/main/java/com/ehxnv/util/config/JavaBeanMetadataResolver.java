@@ -28,14 +28,27 @@
 package com.ehxnv.util.config;
 
 import com.ehxnv.util.config.annotation.Config;
+import com.ehxnv.util.config.annotation.Matches;
+import com.ehxnv.util.config.annotation.Max;
+import com.ehxnv.util.config.annotation.Min;
+import com.ehxnv.util.config.annotation.NotEmpty;
 import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.annotation.Dynamic;
+import com.ehxnv.util.config.annotation.Range;
+import com.ehxnv.util.config.annotation.Rule;
+import com.ehxnv.util.config.annotation.Secret;
 import com.ehxnv.util.config.extractor.ConfigPropertyNameExtractor;
 import com.ehxnv.util.config.extractor.JavaBeanPropertyNameExtractor;
 import com.ehxnv.util.config.translator.ConfigPropertyNameTranslator;
 import com.ehxnv.util.config.translator.HypenedPropertyNameTranslator;
+import com.ehxnv.util.config.validator.ConfigPropertyValidator;
 
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -53,13 +66,16 @@ final class JavaBeanMetadataResolver<T> {
 
     /**
      * Resolve {@link ConfigMetadata} from given configuration interface.
-     * @param configInterface configuration interface
+     * <p>A configuration record or class is resolved from its constructor instead, see
+     * {@link ConfigConstructor}.</p>
+     * @param configInterface configuration interface, record or class
      * @return configuration metadata for the interface
      */
     public ConfigMetadata resolveMetadata(final Class<T> configInterface) {
         Set<ConfigProperty> configProperties = new HashSet<ConfigProperty>();
         Class<? extends ConfigPropertyNameExtractor> configPropertyNameExtractorClass = DEFAULT_EXTRACTOR_CLASS;
         Class<? extends ConfigPropertyNameTranslator> configPropertyNameTranslatorClass = DEFAULT_TRANSLATOR_CLASS;
+        boolean relaxedKeys = false;
 
         // check if configuration interface annotated with @Config annotation
         Config configAnnotation = configInterface.getAnnotation(Config.class);
@@ -67,6 +83,12 @@ final class JavaBeanMetadataResolver<T> {
             // use the extraction and translation strategies if given
             configPropertyNameExtractorClass = configAnnotation.extractor();
             configPropertyNameTranslatorClass = configAnnotation.translator();
+            relaxedKeys = configAnnotation.relaxedKeys();
+        }
+
+        if (!configInterface.isInterface()) {
+            return resolveConstructorMetadata(configInterface, configPropertyNameTranslatorClass, relaxedKeys,
+                                              configInterface.getAnnotationsByType(Rule.class));
         }
 
         ConfigPropertyNameExtractor configPropertyNameExtractor = ClassUtil.newInstance(configPropertyNameExtractorClass);
@@ -78,18 +100,142 @@ final class JavaBeanMetadataResolver<T> {
 
             if (configPropertyNameExtractor.isValidMethodForExtraction(method)) {
 
-                // check if custom validator is passed through @Property annotation
-                Property propertyAnnotation = method.getAnnotation(Property.class);
-                if (propertyAnnotation == null) {
-                    configProperties.add(new ConfigProperty(methodName, configPropertyNameExtractor.extractPropertyNameFromMethodName(methodName),
-                            ConfigProperty.Type.fromClazz(methodReturnType)));
-                } else {
-                    configProperties.add(new ConfigProperty(methodName, configPropertyNameExtractor.extractPropertyNameFromMethodName(methodName),
-                            ConfigProperty.Type.fromClazz(methodReturnType), propertyAnnotation.validator()));
-                }
+                // check if custom validator or default value is passed through @Property annotation, if property
+                // is encrypted through @Secret annotation, if it is supplied through @Dynamic annotation and its
+                // built-in constraints
+                configProperties.add(createConfigProperty(methodName, configPropertyNameExtractor.extractPropertyNameFromMethodName(methodName),
+                        methodReturnType, method));
             }
         }
 
-        return new ConfigMetadata(configPropertyNameTranslatorClass, configProperties);
+        return new ConfigMetadata(configPropertyNameTranslatorClass, configProperties, relaxedKeys, null,
+                                  configInterface.getAnnotationsByType(Rule.class));
+    }
+
+    /**
+     * Resolve {@link ConfigMetadata} from the constructor of a configuration record or class.
+     * <p>Each constructor parameter is a property named after the parameter, split into words like the name of its
+     * getter by the default extraction strategy, so the extraction strategy of {@link Config} doesn't apply;
+     * {@link Property}, {@link Secret} and {@link Dynamic} annotations are read from the parameters (record component annotations
+     * are carried over to the canonical constructor parameters).</p>
+     * <p>A constructor parameter can't be {@link Secret}: its value would be decrypted as soon as the object is
+     * created and kept in clear text, where e.g. the {@code toString} of a record prints it.</p>
+     * @param configClass configuration record or class
+     * @param configPropertyNameTranslatorClass translation strategy
+     * @param relaxedKeys whether configuration source keys are matched relaxed
+     * @param rules rules spanning several properties
+     * @return configuration metadata for the record or class
+     * @throws ConfigurationException if a constructor parameter type is not supported or a parameter is secret
+     */
+    private ConfigMetadata resolveConstructorMetadata(final Class<T> configClass,
+                                                      final Class<? extends ConfigPropertyNameTranslator> configPropertyNameTranslatorClass,
+                                                      final boolean relaxedKeys, final Rule[] rules) {
+        ConfigConstructor configConstructor = ConfigConstructor.of(configClass);
+        Parameter[] parameters = configConstructor.getParameters();
+        String[] parameterNames = configConstructor.getParameterNames();
+
+        ConfigPropertyNameExtractor configPropertyNameExtractor = ClassUtil.newInstance(DEFAULT_EXTRACTOR_CLASS);
+        Set<ConfigProperty> configProperties = new HashSet<ConfigProperty>();
+        for (int i = 0; i < parameters.length; i++) {
+            // primitive parameters are bound from their wrapper type
+            Class<?> parameterType = MethodType.methodType(parameters[i].getType()).wrap().returnType();
+            if (ConfigProperty.Type.fromClazz(parameterType) == null) {
+                throw new ConfigurationException(String.format("Constructor parameter %s of %s has unsupported type %s", parameterNames[i], configClass.getName(), parameters[i].getType().getName()));
+            }
+
+            if (parameters[i].isAnnotationPresent(Secret.class)) {
+                throw new ConfigurationException(String.format("Constructor parameter %s of %s can't be secret, declare secret properties on a configuration interface instead", parameterNames[i], configClass.getName()));
+            }
+
+            String getterName = "get" + Character.toUpperCase(parameterNames[i].charAt(0)) + parameterNames[i].substring(1);
+            ConfigProperty configProperty = createConfigProperty(parameterNames[i],
+                    configPropertyNameExtractor.extractPropertyNameFromMethodName(getterName), parameterType, parameters[i]);
+            if (parameters[i].getType().isPrimitive() && configProperty.isOptional() && configProperty.getDefaultValue() == null) {
+                throw new ConfigurationException(String.format("Constructor parameter %s of %s is primitive, it can't be optional without default value", parameterNames[i], configClass.getName()));
+            }
+
+            configProperties.add(configProperty);
+        }
+
+        return new ConfigMetadata(configPropertyNameTranslatorClass, configProperties, relaxedKeys, configConstructor, rules);
+    }
+
+    /**
+     * Create a configuration property out of its annotations.
+     * @param methodName method (or constructor parameter) name this property from
+     * @param nameInWords property name in words
+     * @param propertyClass property type class
+     * @param annotatedElement method (or constructor parameter) carrying the property annotations
+     * @return configuration property
+     * @throws ConfigurationException if a dynamic property ttl is not positive or its constraints contradict each
+     *                                other
+     */
+    private static ConfigProperty createConfigProperty(final String methodName, final List<ConfigProperty.Word> nameInWords,
+                                                       final Class<?> propertyClass, final AnnotatedElement annotatedElement) {
+        ConfigProperty.Type type = ConfigProperty.Type.fromClazz(propertyClass);
+        Property propertyAnnotation = annotatedElement.getAnnotation(Property.class);
+        Secret secretAnnotation = annotatedElement.getAnnotation(Secret.class);
+        Dynamic dynamicAnnotation = annotatedElement.getAnnotation(Dynamic.class);
+        PropertyConstraints constraints = createConstraints(methodName, annotatedElement);
+        if (propertyAnnotation == null && secretAnnotation == null && dynamicAnnotation == null && !constraints.isConstrained()
+                && type != ConfigProperty.Type.ENUM) {
+            return new ConfigProperty(methodName, nameInWords, type);
+        }
+
+        if (dynamicAnnotation != null && dynamicAnnotation.ttl() <= 0L) {
+            throw new ConfigurationException(String.format("Dynamic property %s must have a positive ttl", methodName));
+        }
+
+        Class<? extends ConfigPropertyValidator> validator = type.getDefaultValidator();
+        String defaultValue = null;
+        boolean optional = false;
+        if (propertyAnnotation != null) {
+            validator = propertyAnnotation.validator();
+            defaultValue = Property.NO_DEFAULT_VALUE.equals(propertyAnnotation.defaultValue()) ? null : propertyAnnotation.defaultValue();
+            optional = propertyAnnotation.optional();
+        }
+
+        Class<? extends Enum> enumClass = (type == ConfigProperty.Type.ENUM) ? propertyClass.asSubclass(Enum.class) : null;
+        return new ConfigProperty(methodName, nameInWords, type, enumClass, validator, defaultValue, optional,
+                (secretAnnotation == null) ? null : secretAnnotation.decryptor(),
+                (dynamicAnnotation == null) ? null : dynamicAnnotation.supplier(),
+                (dynamicAnnotation == null) ? 0L : dynamicAnnotation.unit().toMillis(dynamicAnnotation.ttl()),
+                constraints);
+    }
+
+    /**
+     * Create the built-in constraints of a configuration property out of its annotations.
+     * <p>{@link Min}, {@link Max} and {@link Range} may be combined, in which case the narrowest bounds apply.</p>
+     * @param methodName method (or constructor parameter) name this property from
+     * @param annotatedElement method (or constructor parameter) carrying the property annotations
+     * @return property constraints
+     * @throws ConfigurationException if minimum is greater than maximum
+     */
+    private static PropertyConstraints createConstraints(final String methodName, final AnnotatedElement annotatedElement) {
+        Min minAnnotation = annotatedElement.getAnnotation(Min.class);
+        Max maxAnnotation = annotatedElement.getAnnotation(Max.class);
+        Range rangeAnnotation = annotatedElement.getAnnotation(Range.class);
+        NotEmpty notEmptyAnnotation = annotatedElement.getAnnotation(NotEmpty.class);
+        Matches matchesAnnotation = annotatedElement.getAnnotation(Matches.class);
+        if (minAnnotation == null && maxAnnotation == null && rangeAnnotation == null && notEmptyAnnotation == null
+                && matchesAnnotation == null) {
+            return PropertyConstraints.NONE;
+        }
+
+        long min = (rangeAnnotation == null) ? Long.MIN_VALUE : rangeAnnotation.min();
+        long max = (rangeAnnotation == null) ? Long.MAX_VALUE : rangeAnnotation.max();
+        if (minAnnotation != null) {
+            min = Math.max(min, minAnnotation.value());
+        }
+        if (maxAnnotation != null) {
+            max = Math.min(max, maxAnnotation.value());
+        }
+
+        if (min > max) {
+            throw new ConfigurationException(String.format("Property %s minimum %d is greater than its maximum %d", methodName, min, max));
+        }
+
+        return new PropertyConstraints(min, max, notEmptyAnnotation != null,
+                (matchesAnnotation == null) ? null : matchesAnnotation.value());
     }
 }
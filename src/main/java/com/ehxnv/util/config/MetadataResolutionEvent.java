@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event reporting metadata resolution and plan compilation of a configuration interface,
+ * which happens once per interface.
+ * <p>Only create this event when {@link BindingEvents#AVAILABLE} is true.</p>
+ *
+ * @author Eka Lie
+ */
+@Name("com.ehxnv.util.config.MetadataResolution")
+@Label("Config Metadata Resolution")
+@Category("pojo-config")
+@Description("Metadata resolution and plan compilation of a configuration interface")
+final class MetadataResolutionEvent extends Event {
+
+    /** Configuration interface. **/
+    @Label("Configuration Interface")
+    private Class<?> configInterface;
+    /** Number of properties found in configuration interface. **/
+    @Label("Property Count")
+    private int propertyCount;
+
+    /**
+     * Create and begin an event.
+     * @return event
+     */
+    static MetadataResolutionEvent start() {
+        MetadataResolutionEvent event = new MetadataResolutionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End event and commit it if it should be recorded.
+     * @param configInterface configuration interface
+     * @param propertyCount number of properties found in configuration interface
+     */
+    void commit(final Class<?> configInterface, final int propertyCount) {
+        end();
+        if (shouldCommit()) {
+            this.configInterface = configInterface;
+            this.propertyCount = propertyCount;
+            commit();
+        }
+    }
+}
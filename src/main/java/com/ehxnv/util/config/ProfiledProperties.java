@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Represents a chain of profile layers (e.g. {@code app.properties}, {@code app-prod.properties} and
+ * {@code app-prod-eu.properties}) resolved into a single flat table of properties.
+ * <p>A profile overrides every property of the profiles before it in the chain. The chain of an active profile is
+ * derived from its name: profile {@code prod-eu} is layered on top of profile {@code prod}, which is layered on top
+ * of the {@link #DEFAULT_PROFILE}.</p>
+ *
+ * <p>The flat table is resolved once, so binding reads it like any other {@link Properties}. Replacing a layer or
+ * switching to another profile chain only resolves again the keys of the layers which differ; every other key is
+ * carried over as is. The resolved table is shared with the instance it's derived from, and only the keys resolved
+ * again are kept aside as overrides, so deriving an instance costs as much as the keys it touches. Overrides are
+ * folded into a new table once they outnumber half of it, which keeps lookups direct and the amortized cost per
+ * touched key constant. Instances are immutable: layers are copied when given and every table is copied when
+ * returned.</p>
+ *
+ * @author Eka Lie
+ */
+public final class ProfiledProperties {
+
+    /** Name of the profile every chain starts from. **/
+    public static final String DEFAULT_PROFILE = "default";
+
+    /** Separator between profile names, in an active profile name as well as in file names. **/
+    private static final char PROFILE_SEPARATOR = '-';
+    /** Extension of profile files. **/
+    private static final String FILE_EXTENSION = ".properties";
+    /** Override of a property removed from the shared table. **/
+    private static final Object REMOVED = new Object();
+
+    /** Profile names, from the default profile to the active one. **/
+    private final List<String> profiles;
+    /** Properties of each profile. **/
+    private final List<Properties> layers;
+    /** Flat table of resolved properties, shared with the instances derived from this one and never modified. **/
+    private final Properties properties;
+    /** Resolved properties differing from the shared table, {@link #REMOVED} for those missing. **/
+    private final Map<Object, Object> overrides;
+
+    /**
+     * Constructor.
+     * @param profiles profile names, from the default profile to the active one
+     * @param layers properties of each profile
+     * @throws IllegalArgumentException if there isn't exactly one layer per profile
+     */
+    public ProfiledProperties(final List<String> profiles, final List<? extends Properties> layers) {
+        this(checkLayers(profiles, layers), copyOf(layers), new Properties(), Collections.<Object, Object>emptyMap());
+
+        for (Properties layer : this.layers) {
+            properties.putAll(layer);
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param profiles profile names, from the default profile to the active one
+     * @param layers properties of each profile, which are not shared with any caller
+     * @param properties flat table of resolved properties, which is not shared with any caller
+     * @param overrides resolved properties differing from the flat table, which are not shared with any caller
+     */
+    private ProfiledProperties(final List<String> profiles, final List<Properties> layers, final Properties properties,
+                               final Map<Object, Object> overrides) {
+        this.profiles = Collections.unmodifiableList(new ArrayList<String>(profiles));
+        this.layers = Collections.unmodifiableList(layers);
+        this.properties = properties;
+        this.overrides = overrides;
+    }
+
+    /**
+     * Load the profile chain of an active profile from profile files in a directory.
+     * <p>Profile files are named after the base name followed by each profile name in the chain e.g.
+     * {@code app.properties}, {@code app-prod.properties} and {@code app-prod-eu.properties} for base name
+     * {@code app} and active profile {@code prod-eu}. A missing profile file is taken as an empty layer.</p>
+     * @param directory directory containing profile files
+     * @param baseName base name of profile files
+     * @param activeProfile active profile name, null or {@link #DEFAULT_PROFILE} for the default profile only
+     * @return resolved profile chain
+     * @throws ConfigurationException if a profile file can't be read
+     */
+    public static ProfiledProperties load(final File directory, final String baseName, final String activeProfile) {
+        List<String> profiles = profileChain(activeProfile);
+        return new ProfiledProperties(profiles, loadLayers(directory, baseName, profiles));
+    }
+
+    /**
+     * Get profile chain of an active profile.
+     * @param activeProfile active profile name, null or {@link #DEFAULT_PROFILE} for the default profile only
+     * @return profile names, from the default profile to the active one e.g. {@code [default, prod, prod-eu]} for
+     *         active profile {@code prod-eu}
+     */
+    public static List<String> profileChain(final String activeProfile) {
+        List<String> profiles = new ArrayList<String>();
+        profiles.add(DEFAULT_PROFILE);
+
+        if (activeProfile != null && !DEFAULT_PROFILE.equals(activeProfile)) {
+            int separatorIndex = activeProfile.indexOf(PROFILE_SEPARATOR);
+            while (separatorIndex >= 0) {
+                profiles.add(activeProfile.substring(0, separatorIndex));
+                separatorIndex = activeProfile.indexOf(PROFILE_SEPARATOR, separatorIndex + 1);
+            }
+            profiles.add(activeProfile);
+        }
+
+        return profiles;
+    }
+
+    /**
+     * Get profile names.
+     * @return profile names, from the default profile to the active one
+     */
+    public List<String> getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * Get properties of a profile.
+     * @param profile profile name
+     * @return copy of the properties of the profile or null if profile is not in the chain
+     */
+    public Properties getLayer(final String profile) {
+        int index = profiles.indexOf(profile);
+        return (index < 0) ? null : copyOf(layers.get(index));
+    }
+
+    /**
+     * Get flat table of resolved properties, to be bound e.g. through
+     * {@link Configuration#fromProperties(Properties, Class)}.
+     * @return copy of the resolved properties
+     */
+    public Properties getProperties() {
+        Properties copy = copyOf(properties);
+        applyOverrides(copy, overrides);
+        return copy;
+    }
+
+    /**
+     * Get number of resolved properties kept aside from the shared flat table.
+     * @return number of overrides
+     */
+    int getOverrideCount() {
+        return overrides.size();
+    }
+
+    /**
+     * Load again the profile chain of an active profile from profile files in a directory.
+     * <p>Only the keys of the profile files which changed, or which are not in both chains, are resolved again.</p>
+     * @param directory directory containing profile files
+     * @param baseName base name of profile files
+     * @param activeProfile active profile name, null or {@link #DEFAULT_PROFILE} for the default profile only
+     * @return resolved profile chain
+     * @throws ConfigurationException if a profile file can't be read
+     * @see #load(File, String, String)
+     */
+    public ProfiledProperties reload(final File directory, final String baseName, final String activeProfile) {
+        List<String> newProfiles = profileChain(activeProfile);
+        return withOwnedLayers(newProfiles, loadLayers(directory, baseName, newProfiles));
+    }
+
+    /**
+     * Replace the properties of a profile in the chain.
+     * <p>Only the keys found in the replaced or the new properties are resolved again.</p>
+     * @param profile profile name
+     * @param layer new properties of the profile
+     * @return resolved profile chain
+     * @throws IllegalArgumentException if profile is not in the chain
+     */
+    public ProfiledProperties withLayer(final String profile, final Properties layer) {
+        int index = profiles.indexOf(profile);
+        if (index < 0) {
+            throw new IllegalArgumentException(String.format("Profile %s is not in profile chain %s", profile, profiles));
+        }
+
+        // the other layers are owned already, only the replacing one needs a copy
+        List<Properties> newLayers = new ArrayList<Properties>(layers);
+        newLayers.set(index, copyOf(layer));
+        return withOwnedLayers(profiles, newLayers);
+    }
+
+    /**
+     * Switch to another profile chain.
+     * <p>Only the keys of the layers which differ between both chains are resolved again.</p>
+     * @param newProfiles profile names, from the default profile to the active one
+     * @param newLayers properties of each profile
+     * @return resolved profile chain
+     * @throws IllegalArgumentException if there isn't exactly one layer per profile
+     */
+    public ProfiledProperties withLayers(final List<String> newProfiles, final List<? extends Properties> newLayers) {
+        return withOwnedLayers(checkLayers(newProfiles, newLayers), copyOf(newLayers));
+    }
+
+    /**
+     * Switch to another profile chain, whose layers are not shared with any caller.
+     * @param newProfiles profile names, from the default profile to the active one
+     * @param copiedLayers properties of each profile, one per profile
+     * @return resolved profile chain
+     */
+    private ProfiledProperties withOwnedLayers(final List<String> newProfiles, final List<Properties> copiedLayers) {
+        Set<Object> affectedKeys = new HashSet<Object>();
+        for (int index = 0; index < Math.max(layers.size(), copiedLayers.size()); index++) {
+            Properties layer = (index < layers.size()) ? layers.get(index) : null;
+            Properties newLayer = (index < copiedLayers.size()) ? copiedLayers.get(index) : null;
+
+            boolean unchanged = (layer != null) && (newLayer != null) && profiles.get(index).equals(newProfiles.get(index))
+                                && layer.equals(newLayer);
+            if (!unchanged) {
+                if (layer != null) {
+                    affectedKeys.addAll(layer.keySet());
+                }
+                if (newLayer != null) {
+                    affectedKeys.addAll(newLayer.keySet());
+                }
+            }
+        }
+
+        if (affectedKeys.isEmpty()) {
+            return new ProfiledProperties(newProfiles, copiedLayers, properties, overrides);
+        }
+
+        Map<Object, Object> newOverrides = new HashMap<Object, Object>(overrides);
+        for (Object key : affectedKeys) {
+            // the last layer having a key wins, just like applying every layer in order
+            Object value = null;
+            for (int index = copiedLayers.size() - 1; index >= 0 && value == null; index--) {
+                value = copiedLayers.get(index).get(key);
+            }
+
+            Object sharedValue = properties.get(key);
+            if (value == null ? sharedValue == null : value.equals(sharedValue)) {
+                newOverrides.remove(key);
+            } else {
+                newOverrides.put(key, (value == null) ? REMOVED : value);
+            }
+        }
+
+        if (newOverrides.size() <= properties.size() / 2) {
+            return new ProfiledProperties(newProfiles, copiedLayers, properties, newOverrides);
+        }
+
+        Properties newProperties = copyOf(properties);
+        applyOverrides(newProperties, newOverrides);
+        return new ProfiledProperties(newProfiles, copiedLayers, newProperties, Collections.<Object, Object>emptyMap());
+    }
+
+    /**
+     * Apply overrides to a flat table of resolved properties.
+     * @param properties flat table to apply to
+     * @param overrides resolved properties, {@link #REMOVED} for those missing
+     */
+    private static void applyOverrides(final Properties properties, final Map<Object, Object> overrides) {
+        for (Map.Entry<Object, Object> override : overrides.entrySet()) {
+            if (override.getValue() == REMOVED) {
+                properties.remove(override.getKey());
+            } else {
+                properties.put(override.getKey(), override.getValue());
+            }
+        }
+    }
+
+    /**
+     * Copy properties, so that callers can't modify the ones of an instance.
+     * @param properties properties to copy
+     * @return copied properties
+     */
+    private static Properties copyOf(final Properties properties) {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
+    }
+
+    /**
+     * Copy each layer, so that callers can't modify the ones of an instance.
+     * @param layers properties of each profile
+     * @return copied properties of each profile
+     */
+    private static List<Properties> copyOf(final List<? extends Properties> layers) {
+        List<Properties> copies = new ArrayList<Properties>(layers.size());
+        for (Properties layer : layers) {
+            copies.add(copyOf(layer));
+        }
+
+        return copies;
+    }
+
+    /**
+     * Check that there is exactly one layer per profile.
+     * @param profiles profile names
+     * @param layers properties of each profile
+     * @return profile names
+     * @throws IllegalArgumentException if there isn't exactly one layer per profile
+     */
+    private static List<String> checkLayers(final List<String> profiles, final List<? extends Properties> layers) {
+        if (profiles.size() != layers.size()) {
+            throw new IllegalArgumentException(String.format("Expected %d layers for profiles %s but got %d", profiles.size(), profiles, layers.size()));
+        }
+
+        return profiles;
+    }
+
+    /**
+     * Load the layer of each profile from profile files in a directory.
+     * @param directory directory containing profile files
+     * @param baseName base name of profile files
+     * @param profiles profile names
+     * @return properties of each profile
+     * @throws ConfigurationException if a profile file can't be read
+     */
+    private static List<Properties> loadLayers(final File directory, final String baseName, final List<String> profiles) {
+        List<Properties> layers = new ArrayList<Properties>(profiles.size());
+        for (String profile : profiles) {
+            String fileName = DEFAULT_PROFILE.equals(profile) ? baseName : baseName + PROFILE_SEPARATOR + profile;
+            layers.add(loadLayer(new File(directory, fileName + FILE_EXTENSION)));
+        }
+
+        return layers;
+    }
+
+    /**
+     * Load the layer of a profile from its profile file.
+     * @param file profile file
+     * @return properties of the profile, empty if profile file doesn't exist
+     * @throws ConfigurationException if profile file can't be read
+     */
+    private static Properties loadLayer(final File file) {
+        Properties layer = new Properties();
+        if (!file.isFile()) {
+            return layer;
+        }
+
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(file);
+            layer.load(inputStream);
+        } catch (IOException ex) {
+            throw new ConfigurationException("Failed to load profile file " + file, ex);
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException ex) {
+                    // nothing else to do, properties are loaded already
+                }
+            }
+        }
+
+        return layer;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+/**
+ * Represents the built-in constraints of a single configuration property, as declared by
+ * {@link com.ehxnv.util.config.annotation.Min}, {@link com.ehxnv.util.config.annotation.Max},
+ * {@link com.ehxnv.util.config.annotation.Range}, {@link com.ehxnv.util.config.annotation.NotEmpty} and
+ * {@link com.ehxnv.util.config.annotation.Matches}.
+ * <p>Bounds only apply to integral (neither float nor double) properties, emptiness and regular expression only to string properties.</p>
+ *
+ * @author Eka Lie
+ */
+public final class PropertyConstraints {
+
+    /** No constraint at all. **/
+    public static final PropertyConstraints NONE = new PropertyConstraints(Long.MIN_VALUE, Long.MAX_VALUE, false, null);
+
+    /** Lowest valid value, inclusive. **/
+    private final long min;
+    /** Greatest valid value, inclusive. **/
+    private final long max;
+    /** Whether value must not be empty. **/
+    private final boolean notEmpty;
+    /** Regular expression value must match, null if none. **/
+    private final String pattern;
+
+    /**
+     * Constructor.
+     * @param min lowest valid value, inclusive, {@link Long#MIN_VALUE} if unbounded
+     * @param max greatest valid value, inclusive, {@link Long#MAX_VALUE} if unbounded
+     * @param notEmpty whether value must not be empty
+     * @param pattern regular expression value must match, null if none
+     * @throws IllegalArgumentException if min is greater than max
+     */
+    public PropertyConstraints(final long min, final long max, final boolean notEmpty, final String pattern) {
+        if (min > max) {
+            throw new IllegalArgumentException(String.format("min %d can't be greater than max %d", min, max));
+        }
+
+        this.min = min;
+        this.max = max;
+        this.notEmpty = notEmpty;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Get lowest valid value.
+     * @return minimum value, inclusive, {@link Long#MIN_VALUE} if unbounded
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * Get greatest valid value.
+     * @return maximum value, inclusive, {@link Long#MAX_VALUE} if unbounded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Determine if value is bounded.
+     * @return true if value has a minimum or a maximum, false otherwise
+     */
+    public boolean isBounded() {
+        return min != Long.MIN_VALUE || max != Long.MAX_VALUE;
+    }
+
+    /**
+     * Determine if value must not be empty.
+     * @return true if value must not be empty, false otherwise
+     */
+    public boolean isNotEmpty() {
+        return notEmpty;
+    }
+
+    /**
+     * Get regular expression value must match.
+     * @return regular expression or null if none
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Determine if there is any constraint at all.
+     * @return true if value is constrained, false otherwise
+     */
+    public boolean isConstrained() {
+        return isBounded() || notEmpty || pattern != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = (int) (min ^ (min >>> 32));
+        result = 31 * result + (int) (max ^ (max >>> 32));
+        result = 31 * result + (notEmpty ? 1 : 0);
+        result = 31 * result + (pattern != null ? pattern.hashCode() : 0);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PropertyConstraints that = (PropertyConstraints) o;
+
+        if (min != that.min) return false;
+        if (max != that.max) return false;
+        if (notEmpty != that.notEmpty) return false;
+        if (pattern != null ? !pattern.equals(that.pattern) : that.pattern != null) return false;
+
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event reporting validation of a single property value by its property validator.
+ * <p>Only validations slower than 1 ms are recorded by default, lower the threshold in recording settings to see
+ * every validation. Only create this event when {@link BindingEvents#AVAILABLE} is true.</p>
+ *
+ * @author Eka Lie
+ */
+@Name("com.ehxnv.util.config.PropertyValidation")
+@Label("Config Property Validation")
+@Category("pojo-config")
+@Description("Validation of a property value by its property validator")
+@Threshold("1 ms")
+@StackTrace(false)
+final class PropertyValidationEvent extends Event {
+
+    /** Configuration interface. **/
+    @Label("Configuration Interface")
+    private Class<?> configInterface;
+    /** Readable property name. **/
+    @Label("Property Name")
+    private String propertyName;
+    /** Property validator class. **/
+    @Label("Validator")
+    private Class<?> validator;
+
+    /**
+     * Create and begin an event.
+     * @return event
+     */
+    static PropertyValidationEvent start() {
+        PropertyValidationEvent event = new PropertyValidationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End event and commit it if it should be recorded.
+     * @param configInterface configuration interface
+     * @param propertyName readable property name
+     * @param validator property validator class
+     */
+    void commit(final Class<?> configInterface, final String propertyName, final Class<?> validator) {
+        end();
+        if (shouldCommit()) {
+            this.configInterface = configInterface;
+            this.propertyName = propertyName;
+            this.validator = validator;
+            commit();
+        }
+    }
+}
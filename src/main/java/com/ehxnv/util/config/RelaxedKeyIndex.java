@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Index of configuration source keys by their normalized form, used to bind configuration interfaces with relaxed
+ * key matching.
+ * <p>A key is normalized by dropping every separator ({@code -}, {@code _} and {@code .}) and lower casing the
+ * rest, so {@code ENGINE_THRESHOLD}, {@code engine_threshold}, {@code engine.threshold}, {@code engineThreshold}
+ * and {@code engine-threshold} are all the same key. The index is built once per configuration source, after which
+ * each property is found with a single lookup.</p>
+ *
+ * <p>When several source keys have the same normalized form, a key which is already lower case wins, then the
+ * smallest key in natural order, so the outcome doesn't depend on iteration order of the source.</p>
+ *
+ * @author Eka Lie
+ * @see com.ehxnv.util.config.annotation.Config#relaxedKeys()
+ */
+final class RelaxedKeyIndex {
+
+    /** Source key by normalized key. **/
+    private final Map<String, String> keysByNormalizedKey;
+
+    /**
+     * Constructor.
+     * @param properties configuration source to index
+     */
+    RelaxedKeyIndex(final Properties properties) {
+        this.keysByNormalizedKey = new HashMap<String, String>(properties.size() * 4 / 3 + 1);
+
+        for (Object key : properties.keySet()) {
+            String sourceKey = key.toString();
+            String normalizedKey = normalize(sourceKey);
+            String existingKey = keysByNormalizedKey.get(normalizedKey);
+            if (existingKey == null || isPreferred(sourceKey, existingKey)) {
+                keysByNormalizedKey.put(normalizedKey, sourceKey);
+            }
+        }
+    }
+
+    /**
+     * Get source key of a normalized key.
+     * @param normalizedKey normalized key, see {@link #normalize(String)}
+     * @return source key or null if no source key has this normalized form
+     */
+    String keyOf(final String normalizedKey) {
+        return keysByNormalizedKey.get(normalizedKey);
+    }
+
+    /**
+     * Normalize a key by dropping separators and lower casing it.
+     * @param key key to normalize
+     * @return normalized key
+     */
+    static String normalize(final String key) {
+        StringBuilder normalizedKey = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '-' && c != '_' && c != '.') {
+                normalizedKey.append(Character.toLowerCase(c));
+            }
+        }
+
+        return normalizedKey.toString();
+    }
+
+    /**
+     * Determine if a source key is preferred over another one having the same normalized form.
+     * @param key source key
+     * @param otherKey other source key
+     * @return true if key is preferred, false otherwise
+     */
+    private static boolean isPreferred(final String key, final String otherKey) {
+        boolean lowerCase = key.equals(key.toLowerCase());
+        boolean otherLowerCase = otherKey.equals(otherKey.toLowerCase());
+        if (lowerCase != otherLowerCase) {
+            return lowerCase;
+        }
+
+        return key.compareTo(otherKey) < 0;
+    }
+}
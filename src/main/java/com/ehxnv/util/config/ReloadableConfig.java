@@ -0,0 +1,626 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.SwitchPoint;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Holds a configuration object whose values can be reloaded while the application is running.
+ * <p>The configuration object returned by {@link #get()} always reads the current snapshot of values. A reload binds
+ * the new properties into a new snapshot and swaps it in atomically; if binding fails the current snapshot is
+ * kept.</p>
+ *
+ * <p>Properties which gate very hot code can additionally be read through {@link #constantGetter(String)}. The
+ * returned {@link MethodHandle} is backed by a call site whose target is the current value guarded by a
+ * {@link SwitchPoint} of the property. When the handle is kept in a {@code static final} field, the JIT treats the
+ * value as a constant and folds it into compiled code; a reload which changes the property invalidates its switch
+ * point, which deoptimizes such code and relinks the call site against the new value on its next call. Constant
+ * getters of properties left unchanged stay linked.</p>
+ *
+ * <p>The snapshots of the last reloads are retained in a bounded history, see {@link #setHistorySize(int)}, and any of
+ * them can be published again through {@link #rollback(long)} without parsing, converting or validating anything
+ * but the dynamic properties supplied since.</p>
+ *
+ * <p>A reloadable configuration can also be registered as a {@link ReloadableConfigMXBean}, see
+ * {@link #registerMBean()}, to inspect its values and reload statistics and to apply overrides at runtime.</p>
+ *
+ * @author Eka Lie
+ * @param <T> configuration interface type
+ * @see Configuration#reloadableFromProperties(Properties, Class)
+ */
+public final class ReloadableConfig<T> {
+
+    /** Default number of replaced snapshots retained for rollback. **/
+    public static final int DEFAULT_HISTORY_SIZE = 8;
+
+    /** Method handle of {@link ConstantGetter#relink()}. **/
+    private static final MethodHandle RELINK;
+
+    static {
+        try {
+            RELINK = MethodHandles.lookup().findVirtual(ReloadableConfig.ConstantGetter.class, "relink", MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    /** Configuration interface. **/
+    private final Class<T> configInterface;
+    /** Plan of the configuration interface. **/
+    private final ConfigPlan plan;
+    /** Configuration object reading the current snapshot, null for configuration record or class. **/
+    private final T config;
+    /** Constant getter by method name. **/
+    private final ConcurrentMap<String, MethodHandle> constantGetters = new ConcurrentHashMap<String, MethodHandle>();
+    /** Current snapshot. **/
+    private volatile ConfigSnapshot snapshot;
+    /** Switch point of each slot, invalidated and replaced once the value of the slot changes. **/
+    private final AtomicReferenceArray<SwitchPoint> switchPoints;
+    /** Number of successful reloads. **/
+    private volatile long reloadCount;
+    /** Number of failed reloads. **/
+    private volatile long failedReloadCount;
+    /** Duration of the last reload, successful or not. **/
+    private volatile long lastReloadDurationNanos;
+    /** Access counter of each slot, only counted once registered as MBean. **/
+    private volatile LongAdder[] accessCounters;
+    /** Refresher of dynamic properties, null if they are not refreshed. **/
+    private final DynamicPropertyRefresher refresher;
+    /** Name this configuration is registered as MBean under, null if not registered. **/
+    private ObjectName objectName;
+    /** Replaced snapshots retained for rollback, as a ring buffer whose empty entries are null. **/
+    private ConfigSnapshot[] history = new ConfigSnapshot[DEFAULT_HISTORY_SIZE];
+    /** Index of the history entry the next replaced snapshot is retained at. **/
+    private int historyIndex;
+    /** Snapshot last published by a reload or a rollback, which is retained in history once replaced by another. **/
+    private ConfigSnapshot lastReloaded;
+
+    /**
+     * Constructor.
+     * @param configInterface configuration interface
+     * @param plan plan of the configuration interface
+     * @param properties initial properties
+     * @throws ConfigurationException if a property is missing, can't be converted or is invalid
+     */
+    ReloadableConfig(final Class<T> configInterface, final ConfigPlan plan, final Properties properties) {
+        this(configInterface, plan, properties, null);
+    }
+
+    /**
+     * Constructor.
+     * @param configInterface configuration interface
+     * @param plan plan of the configuration interface
+     * @param properties initial properties
+     * @param refresher refresher of dynamic properties, whose supplied values override given properties, or null
+     * @throws ConfigurationException if a property is missing, can't be converted or is invalid
+     */
+    ReloadableConfig(final Class<T> configInterface, final ConfigPlan plan, final Properties properties,
+                     final DynamicPropertyRefresher refresher) {
+        this.refresher = refresher;
+        InterpolatedProperties source = new InterpolatedProperties(withSuppliedValues(properties));
+
+        this.configInterface = configInterface;
+        this.plan = plan;
+        this.snapshot = newSnapshot(plan.bind(source), source, 1L);
+        this.lastReloaded = snapshot;
+        this.switchPoints = new AtomicReferenceArray<SwitchPoint>(plan.getLayout().size());
+        for (int slot = 0; slot < plan.getLayout().size(); slot++) {
+            switchPoints.set(slot, new SwitchPoint());
+        }
+        this.config = plan.isConstructorBound() ? null : Configuration.newProxy(configInterface, new SnapshotInvocationHandler());
+    }
+
+    /**
+     * Get configuration object, which always reads the current snapshot.
+     * <p>A configuration record or class object can't change, so it is the object of the current snapshot which is
+     * returned instead, and it should be asked for again rather than kept.</p>
+     * @return configuration object
+     */
+    public T get() {
+        return (config != null) ? config : configInterface.cast(snapshot.getConfig());
+    }
+
+    /**
+     * Get current snapshot version.
+     * @return snapshot version, starting from 1 and incremented on each successful reload, but not when the
+     * {@link #getRefresher() refresher} applies a dynamic property
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * Reload configuration from given properties.
+     * <p>Properties are converted and validated before being swapped in, so a failed reload leaves the current
+     * snapshot untouched. Reading configuration values never waits for a reload.</p>
+     * <p>Property references ({@code ${other.key}}) resolved by the current snapshot are reused, only those
+     * depending on a changed property are resolved again. Likewise, only the properties whose resolved value may
+     * have changed are converted and validated again, the others are carried over from the current snapshot, so a
+     * reload costs as much as the change rather than the whole configuration. Decrypted secret values of the
+     * current snapshot are cleared, and secrets of the new snapshot are decrypted on their first read.</p>
+     * <p>Values of dynamic properties last supplied by the {@link #getRefresher() refresher} take precedence over
+     * given properties.</p>
+     * @param properties properties that represents a configuration
+     * @throws ConfigurationException if a property is missing, can't be converted or is invalid
+     */
+    public synchronized void reload(final Properties properties) {
+        reload(properties, true);
+    }
+
+    /**
+     * Reload configuration from given properties.
+     * @param properties properties that represents a configuration
+     * @param retained whether the new snapshot is retained in history once replaced by a later reload
+     * @throws ConfigurationException if a property is missing, can't be converted or is invalid
+     */
+    private void reload(final Properties properties, final boolean retained) {
+        long startTime = System.nanoTime();
+        try {
+            ConfigSnapshot previousSnapshot = snapshot;
+            InterpolatedProperties source = previousSnapshot.getProperties().update(withSuppliedValues(properties));
+            ConfigValues values = plan.rebind(previousSnapshot.getValues(), source);
+
+            publish(newSnapshot(values, source, previousSnapshot.getVersion() + 1), retained);
+            reloadCount++;
+        } catch (ConfigurationException ex) {
+            failedReloadCount++;
+            throw ex;
+        } finally {
+            lastReloadDurationNanos = System.nanoTime() - startTime;
+        }
+    }
+
+    /**
+     * Publish a retained snapshot again, undoing the reloads made since.
+     * <p>Values of the retained snapshot were validated when it was first published, so they are swapped in as they
+     * are, under a new version. Values of dynamic properties last supplied by the {@link #getRefresher() refresher}
+     * still take precedence, so only the properties they affect are bound again. The last reloaded snapshot is
+     * retained in turn, so a rollback can itself be rolled back.</p>
+     * @param version version of a retained snapshot, see {@link #getHistoryVersions()}
+     * @throws IllegalArgumentException if no snapshot of given version is retained
+     */
+    public synchronized void rollback(final long version) {
+        for (int i = 0; i < history.length; i++) {
+            ConfigSnapshot retainedSnapshot = history[i];
+            if (retainedSnapshot != null && retainedSnapshot.getVersion() == version) {
+                InterpolatedProperties source = retainedSnapshot.getProperties().update(
+                        withSuppliedValues(retainedSnapshot.getSource()));
+                ConfigValues values = plan.rebind(retainedSnapshot.getValues(), source);
+                history[i] = null;
+                publish(newSnapshot(values, source, snapshot.getVersion() + 1), true);
+                return;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Version %d of %s is not retained", version, configInterface.getName()));
+    }
+
+    /**
+     * Get versions of the retained snapshots which can be rolled back to.
+     * <p>Only snapshots published by {@link #reload(Properties)} or {@link #rollback(long)} are retained, those
+     * published by {@link #override(Map)} or by the {@link #getRefresher() refresher} are not.</p>
+     * @return snapshot versions, most recently replaced first
+     */
+    public synchronized long[] getHistoryVersions() {
+        long[] versions = new long[history.length];
+        int count = 0;
+        for (int i = 1; i <= history.length; i++) {
+            ConfigSnapshot retainedSnapshot = history[(historyIndex - i + history.length) % history.length];
+            if (retainedSnapshot != null) {
+                versions[count++] = retainedSnapshot.getVersion();
+            }
+        }
+
+        return Arrays.copyOf(versions, count);
+    }
+
+    /**
+     * Set number of replaced snapshots retained for rollback, {@link #DEFAULT_HISTORY_SIZE} by default.
+     * <p>The most recently replaced snapshots are kept when shrinking the history.</p>
+     * @param historySize number of retained snapshots, 0 to retain none
+     * @throws IllegalArgumentException if history size is negative
+     */
+    public synchronized void setHistorySize(final int historySize) {
+        if (historySize < 0) {
+            throw new IllegalArgumentException("History size must not be negative: " + historySize);
+        }
+
+        ConfigSnapshot[] resizedHistory = new ConfigSnapshot[historySize];
+        for (int i = 1; i <= Math.min(history.length, historySize); i++) {
+            resizedHistory[historySize - i] = history[(historyIndex - i + history.length) % history.length];
+        }
+
+        history = resizedHistory;
+        historyIndex = 0;
+    }
+
+    /**
+     * Reload configuration from the properties of the current snapshot with some of them overridden.
+     * <p>Overrides go through the same path as {@link #reload(Properties)}, so they are applied atomically or not
+     * at all, but the overridden snapshot isn't retained in history, so overrides don't evict reloads from it.</p>
+     * @param overrides property values by readable property name
+     * @throws ConfigurationException if an overridden property can't be converted or is invalid
+     */
+    public synchronized void override(final Map<String, ?> overrides) {
+        Properties properties = copyOf(snapshot.getSource());
+        properties.putAll(overrides);
+        reload(properties, false);
+    }
+
+    /**
+     * Apply a value supplied for a dynamic property by the {@link #getRefresher() refresher}.
+     * <p>Only the property and the properties referencing it are bound again. Unlike a reload, the new snapshot keeps
+     * the version of the current one, the replaced snapshot isn't retained in history and nothing is counted as a
+     * reload, so a property with a short time to live neither floods the history nor the reload statistics. Only the
+     * constant getters of the properties which changed are relinked.</p>
+     * @param propertyName readable property name
+     * @param propertyValue supplied value
+     * @throws ConfigurationException if supplied value can't be converted or is invalid
+     */
+    synchronized void refresh(final String propertyName, final String propertyValue) {
+        ConfigSnapshot currentSnapshot = snapshot;
+        Properties properties = copyOf(currentSnapshot.getSource());
+        properties.put(propertyName, propertyValue);
+
+        InterpolatedProperties source = currentSnapshot.getProperties().update(properties);
+        ConfigValues values = plan.rebind(currentSnapshot.getValues(), source);
+        publish(newSnapshot(values, source, currentSnapshot.getVersion()), false);
+    }
+
+    /**
+     * Register this configuration as {@link ReloadableConfigMXBean} in the platform MBean server, under
+     * {@code com.ehxnv.util.config:type=ReloadableConfig,name=<configuration interface name>}.
+     * <p>Registering also starts counting accesses of each property.</p>
+     * @return name the MBean is registered under
+     * @throws ConfigurationException if MBean can't be registered e.g. another configuration of the same
+     *                                configuration interface is already registered
+     */
+    public synchronized ObjectName registerMBean() {
+        if (objectName == null) {
+            try {
+                ObjectName name = new ObjectName(String.format("com.ehxnv.util.config:type=ReloadableConfig,name=%s", configInterface.getName()));
+                LongAdder[] counters = new LongAdder[plan.getLayout().size()];
+                for (int slot = 0; slot < counters.length; slot++) {
+                    counters[slot] = new LongAdder();
+                }
+
+                accessCounters = counters;
+                ManagementFactory.getPlatformMBeanServer().registerMBean(
+                        new StandardMBean(new ReloadableConfigMonitor(this), ReloadableConfigMXBean.class, true), name);
+                objectName = name;
+            } catch (MalformedObjectNameException ex) {
+                throw new ConfigurationException("Failed to register MBean of " + configInterface.getName(), ex);
+            } catch (JMException ex) {
+                accessCounters = null;
+                throw new ConfigurationException("Failed to register MBean of " + configInterface.getName(), ex);
+            }
+        }
+
+        return objectName;
+    }
+
+    /**
+     * Unregister this configuration from the platform MBean server, if registered.
+     */
+    public synchronized void unregisterMBean() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException ex) {
+                throw new ConfigurationException("Failed to unregister MBean of " + configInterface.getName(), ex);
+            } finally {
+                objectName = null;
+                accessCounters = null;
+            }
+        }
+    }
+
+    /**
+     * Get current value of a property through its key.
+     * <p>This works for configuration records and classes as well, as it reads the current snapshot rather than the
+     * configuration object.</p>
+     * @param key property key of the configuration interface
+     * @param <V> property type
+     * @return property value, which may be null for an optional property
+     * @throws IllegalArgumentException if key is not one of the configuration interface
+     * @see Configuration#key(Class, String, Class)
+     */
+    public <V> V get(final ConfigKey<V> key) {
+        if (key.getPlan() != plan) {
+            throw new IllegalArgumentException(String.format("%s is not a property of %s", key, configInterface.getName()));
+        }
+
+        return key.getType().cast(read(snapshot.getValues(), key.getSlot()));
+    }
+
+    /**
+     * Get a method handle returning the current value of a property, which the JIT can fold into a constant.
+     * <p>The handle takes no argument and returns the property type, so it should be invoked as
+     * {@code (Integer) handle.invokeExact()} for an {@link Integer} property. Keep it in a {@code static final}
+     * field for the value to be constant folded.</p>
+     * @param methodName method name of the property in configuration interface
+     * @return method handle returning the property value
+     * @throws IllegalArgumentException if method is not a configuration property
+     */
+    public MethodHandle constantGetter(final String methodName) {
+        MethodHandle constantGetter = constantGetters.get(methodName);
+        if (constantGetter == null) {
+            int slot = plan.getLayout().slotOf(methodName);
+            if (slot < 0) {
+                throw new IllegalArgumentException(String.format("%s is not a property of %s", methodName, configInterface.getName()));
+            }
+
+            constantGetter = new ConstantGetter(slot).callSite.dynamicInvoker();
+            MethodHandle existingGetter = constantGetters.putIfAbsent(methodName, constantGetter);
+            if (existingGetter != null) {
+                constantGetter = existingGetter;
+            }
+        }
+
+        return constantGetter;
+    }
+
+    /**
+     * Read a property value, counting the access once registered as MBean.
+     * @param values property values to read from
+     * @param slot slot index
+     * @return property value
+     */
+    private Object read(final ConfigValues values, final int slot) {
+        // striped counters, so that threads reading the same property don't contend
+        LongAdder[] counters = accessCounters;
+        if (counters != null) {
+            counters[slot].increment();
+        }
+
+        return values.get(slot);
+    }
+
+    /**
+     * Get refresher of dynamic properties.
+     * @return refresher, or null if dynamic properties are not refreshed, see
+     * {@link Configuration#reloadableFromProperties(Properties, Class, java.util.concurrent.ScheduledExecutorService)}
+     */
+    public DynamicPropertyRefresher getRefresher() {
+        return refresher;
+    }
+
+    /**
+     * Get current snapshot.
+     * @return current snapshot
+     */
+    ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get configuration interface.
+     * @return configuration interface
+     */
+    Class<T> getConfigInterface() {
+        return configInterface;
+    }
+
+    /**
+     * Get number of successful reloads.
+     * @return number of successful reloads
+     */
+    long getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Get number of failed reloads.
+     * @return number of failed reloads
+     */
+    long getFailedReloadCount() {
+        return failedReloadCount;
+    }
+
+    /**
+     * Get duration of the last reload, successful or not.
+     * @return duration in nanoseconds, 0 if never reloaded
+     */
+    long getLastReloadDurationNanos() {
+        return lastReloadDurationNanos;
+    }
+
+    /**
+     * Get access counter of each slot.
+     * @return access counters or null if accesses are not counted
+     */
+    LongAdder[] getAccessCounters() {
+        return accessCounters;
+    }
+
+    /**
+     * Create a snapshot, along with its configuration object for a configuration record or class.
+     * @param values property values
+     * @param source interpolated properties the values were bound from
+     * @param version snapshot version
+     * @return snapshot
+     * @throws ConfigurationException if configuration record or class constructor rejects the values
+     */
+    private ConfigSnapshot newSnapshot(final ConfigValues values, final InterpolatedProperties source, final long version) {
+        // a configuration record or class may have been created already while checking rules
+        Object snapshotConfig = plan.isConstructorBound() ? Configuration.newConfig(plan, configInterface, values) : null;
+        return new ConfigSnapshot(values, source, snapshotConfig, version);
+    }
+
+    /**
+     * Swap in given snapshot, invalidating the switch points of the slots whose value changed.
+     * @param newSnapshot snapshot to swap in
+     * @param retained whether the snapshot is published by a reload or a rollback, replacing the last reloaded
+     *                 snapshot which is then retained in history
+     */
+    private void publish(final ConfigSnapshot newSnapshot, final boolean retained) {
+        ConfigSnapshot previousSnapshot = snapshot;
+        snapshot = newSnapshot;
+
+        // switch points are replaced after the snapshot, so a getter linking meanwhile is invalidated right away
+        List<SwitchPoint> changedSwitchPoints = new ArrayList<SwitchPoint>();
+        for (int slot = 0; slot < switchPoints.length(); slot++) {
+            if (!newSnapshot.getValues().hasSameValue(previousSnapshot.getValues(), slot)) {
+                changedSwitchPoints.add(switchPoints.getAndSet(slot, new SwitchPoint()));
+            }
+        }
+        if (!changedSwitchPoints.isEmpty()) {
+            SwitchPoint.invalidateAll(changedSwitchPoints.toArray(new SwitchPoint[changedSwitchPoints.size()]));
+        }
+
+        // secrets are decrypted again on first read should the snapshot be rolled back to
+        previousSnapshot.getValues().clearSecrets();
+
+        if (retained) {
+            if (history.length > 0) {
+                history[historyIndex] = lastReloaded;
+                historyIndex = (historyIndex + 1) % history.length;
+            }
+            lastReloaded = newSnapshot;
+        }
+    }
+
+    /**
+     * Copy given properties, with the values last supplied for dynamic properties on top.
+     * @param properties properties to copy
+     * @return copied properties
+     */
+    private Properties withSuppliedValues(final Properties properties) {
+        Properties copy = copyOf(properties);
+        if (refresher != null) {
+            copy.putAll(refresher.getSuppliedValues());
+        }
+        return copy;
+    }
+
+    /**
+     * Copy given properties so that later changes by the caller don't affect a snapshot.
+     * @param properties properties to copy
+     * @return copied properties
+     */
+    private static Properties copyOf(final Properties properties) {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
+    }
+
+    /**
+     * A call site returning the value of a property in the current snapshot as a constant.
+     */
+    private final class ConstantGetter {
+        /** Slot of the property. **/
+        private final int slot;
+        /** Property type. **/
+        private final Class<?> type;
+        /** Call site linked to the current value. **/
+        private final MutableCallSite callSite;
+        /** Fallback taken once the linked value is stale. **/
+        private final MethodHandle fallback;
+
+        /**
+         * Constructor.
+         * @param slot slot of the property
+         */
+        private ConstantGetter(final int slot) {
+            this.slot = slot;
+            this.type = plan.getLayout().getConfigProperty(slot).getPropertyClass();
+            this.callSite = new MutableCallSite(MethodType.methodType(type));
+            this.fallback = RELINK.bindTo(this).asType(callSite.type());
+            relink();
+        }
+
+        /**
+         * Link call site to the value of the current snapshot.
+         * @return value of the current snapshot
+         */
+        Object relink() {
+            // switch point first: if the value changes meanwhile, the guard fails right away and we simply relink again
+            SwitchPoint switchPoint = switchPoints.get(slot);
+            Object value = snapshot.getValues().get(slot);
+
+            callSite.setTarget(switchPoint.guardWithTest(MethodHandles.constant(type, value), fallback));
+            return value;
+        }
+    }
+
+    /**
+     * An {@link InvocationHandler} which reads method result from the current snapshot.
+     */
+    private final class SnapshotInvocationHandler implements Configuration.ConfigInvocationHandler {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ConfigPlan getPlan() {
+            return plan;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object get(final int slot) {
+            return read(snapshot.getValues(), slot);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            ConfigValues values = snapshot.getValues();
+            if (method.getDeclaringClass() == Object.class) {
+                return Configuration.invokeObjectMethod(proxy, method, args, plan, values);
+            }
+
+            int slot = values.getLayout().slotOf(method.getName());
+            return (slot < 0) ? null : read(values, slot);
+        }
+    }
+}
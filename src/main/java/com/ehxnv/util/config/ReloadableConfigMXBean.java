@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import java.util.Map;
+
+/**
+ * Management interface of a {@link ReloadableConfig}, see {@link ReloadableConfig#registerMBean()}.
+ * <p>Reading attributes never blocks configuration objects nor reloads.</p>
+ *
+ * @author Eka Lie
+ */
+public interface ReloadableConfigMXBean {
+
+    /**
+     * Get configuration interface name.
+     * @return configuration interface name
+     */
+    String getConfigInterface();
+
+    /**
+     * Get current snapshot version.
+     * @return snapshot version
+     */
+    long getVersion();
+
+    /**
+     * Get current property values, with secret property values masked.
+     * @return property values (in string) by readable property name
+     */
+    Map<String, String> getValues();
+
+    /**
+     * Get number of successful reloads.
+     * @return number of successful reloads
+     */
+    long getReloadCount();
+
+    /**
+     * Get number of failed reloads.
+     * @return number of failed reloads
+     */
+    long getFailedReloadCount();
+
+    /**
+     * Get duration of the last reload, successful or not.
+     * @return duration in nanoseconds
+     */
+    long getLastReloadDurationNanos();
+
+    /**
+     * Get number of times each property has been read since the MBean was registered.
+     * @return access count by readable property name
+     */
+    Map<String, Long> getAccessCounts();
+
+    /**
+     * Atomically reload configuration with some property values overridden.
+     * @param overrides property values (in string) by readable property name
+     */
+    void applyOverrides(Map<String, String> overrides);
+
+    /**
+     * Atomically reload configuration with a single property value overridden.
+     * @param propertyName readable property name
+     * @param propertyValue property value in string
+     */
+    void applyOverride(String propertyName, String propertyValue);
+
+    /**
+     * Get versions of the retained snapshots which can be rolled back to.
+     * @return snapshot versions, most recently replaced first
+     */
+    long[] getHistoryVersions();
+
+    /**
+     * Atomically publish a retained snapshot again.
+     * @param version version of a retained snapshot
+     */
+    void rollback(long version);
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@link ReloadableConfigMXBean} exposing a single {@link ReloadableConfig}.
+ *
+ * @author Eka Lie
+ */
+final class ReloadableConfigMonitor implements ReloadableConfigMXBean {
+
+    /** Monitored configuration. **/
+    private final ReloadableConfig<?> reloadableConfig;
+
+    /**
+     * Constructor.
+     * @param reloadableConfig monitored configuration
+     */
+    ReloadableConfigMonitor(final ReloadableConfig<?> reloadableConfig) {
+        this.reloadableConfig = reloadableConfig;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getConfigInterface() {
+        return reloadableConfig.getConfigInterface().getName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getVersion() {
+        return reloadableConfig.getVersion();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, String> getValues() {
+        ConfigValues values = reloadableConfig.getSnapshot().getValues();
+        ConfigLayout layout = values.getLayout();
+
+        Map<String, String> valuesByName = new TreeMap<String, String>();
+        for (int slot = 0; slot < layout.size(); slot++) {
+            // secret values are masked rather than decrypted
+            Object value = layout.getConfigProperty(slot).isSecret() ? "****" : values.get(slot);
+            valuesByName.put(layout.getPropertyName(slot), String.valueOf(value));
+        }
+
+        return valuesByName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getReloadCount() {
+        return reloadableConfig.getReloadCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFailedReloadCount() {
+        return reloadableConfig.getFailedReloadCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLastReloadDurationNanos() {
+        return reloadableConfig.getLastReloadDurationNanos();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getAccessCounts() {
+        LongAdder[] counters = reloadableConfig.getAccessCounters();
+        ConfigLayout layout = reloadableConfig.getSnapshot().getValues().getLayout();
+
+        Map<String, Long> countsByName = new TreeMap<String, Long>();
+        for (int slot = 0; counters != null && slot < layout.size(); slot++) {
+            countsByName.put(layout.getPropertyName(slot), counters[slot].sum());
+        }
+
+        return countsByName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void applyOverrides(final Map<String, String> overrides) {
+        override(overrides);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void applyOverride(final String propertyName, final String propertyValue) {
+        override(Collections.singletonMap(propertyName, propertyValue));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getHistoryVersions() {
+        return reloadableConfig.getHistoryVersions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rollback(final long version) {
+        reloadableConfig.rollback(version);
+    }
+
+    /**
+     * Override property values of the monitored configuration.
+     * <p>Binding failure is rethrown as {@link IllegalArgumentException}, which JMX clients can deserialize
+     * without having this library on their classpath.</p>
+     * @param overrides property values (in string) by readable property name
+     */
+    private void override(final Map<String, String> overrides) {
+        try {
+            reloadableConfig.override(overrides);
+        } catch (ConfigurationException ex) {
+            throw new IllegalArgumentException(ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+/**
+ * Represents a gradual rollout, enabled for a deterministic share of ids or keys (e.g. users).
+ * <p>Ids are hashed into one of {@value #BUCKETS} buckets, and a rollout is enabled for the ids whose bucket falls in
+ * its bucket range. The same id always lands in the same bucket, so raising a rollout from {@code 5%} to
+ * {@code 10%} keeps it enabled for the first 5%. Rollouts with a different salt bucket ids independently, so two
+ * features at {@code 5%} are not enabled for the same users.</p>
+ *
+ * <p>A rollout is written as:</p>
+ * <ul>
+ *     <li>{@code 5%}: the first 5% of buckets</li>
+ *     <li>{@code 10%-15%}: from 10% up to (excluding) 15% of buckets, e.g. for a second cohort</li>
+ *     <li>{@code 5%@new-checkout}: bucketed with salt {@code new-checkout}</li>
+ *     <li>{@code true} or {@code false}: enabled for everyone or no one</li>
+ * </ul>
+ * <p>Percentages have up to two decimals, and the {@code %} sign is optional.</p>
+ *
+ * <p>Hashing is a non-cryptographic 64-bit mix and allocates nothing, so a rollout can be evaluated on every
+ * request. Rollouts are immutable.</p>
+ *
+ * @author Eka Lie
+ */
+public final class Rollout {
+
+    /** Number of buckets, so that a rollout can be set in steps of 0.01%. **/
+    public static final int BUCKETS = 10000;
+
+    /** Separator of the salt. **/
+    private static final char SALT_SEPARATOR = '@';
+    /** Separator of the range bounds. **/
+    private static final char RANGE_SEPARATOR = '-';
+    /** Basis of the character hash (FNV-1a offset basis). **/
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    /** Prime of the character hash (FNV-1a prime). **/
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** First bucket the rollout is enabled for. **/
+    private final int from;
+    /** Bucket after the last one the rollout is enabled for. **/
+    private final int to;
+    /** Salt, empty if none. **/
+    private final String salt;
+    /** Hash seed derived from the salt. **/
+    private final long seed;
+
+    /**
+     * Constructor.
+     * @param from first bucket the rollout is enabled for
+     * @param to bucket after the last one the rollout is enabled for
+     * @param salt salt, empty if none
+     */
+    private Rollout(final int from, final int to, final String salt) {
+        this.from = from;
+        this.to = to;
+        this.salt = salt;
+        this.seed = salt.isEmpty() ? 0L : mix(hashChars(salt, FNV_OFFSET_BASIS));
+    }
+
+    /**
+     * Parse a rollout.
+     * @param value rollout in string e.g. {@code 5%}, {@code 10%-15%} or {@code 5%@new-checkout}
+     * @return parsed rollout
+     * @throws IllegalArgumentException if value is not a rollout
+     */
+    public static Rollout valueOf(final String value) {
+        Rollout rollout = parse(value);
+        if (rollout == null) {
+            throw new IllegalArgumentException(String.format("\"%s\" is not a rollout", value));
+        }
+
+        return rollout;
+    }
+
+    /**
+     * Determine if a value can be parsed into a rollout.
+     * @param value rollout in string
+     * @return true if value is a rollout, false otherwise
+     */
+    public static boolean isRollout(final String value) {
+        return parse(value) != null;
+    }
+
+    /**
+     * Determine if the rollout is enabled for an id.
+     * @param id id e.g. user id
+     * @return true if enabled, false otherwise
+     */
+    public boolean isEnabledFor(final long id) {
+        if (from == to) {
+            return false;
+        }
+
+        int bucket = bucketOf(mix(id ^ seed));
+        return bucket >= from && bucket < to;
+    }
+
+    /**
+     * Determine if the rollout is enabled for a key.
+     * @param key key e.g. user name
+     * @return true if enabled, false otherwise
+     */
+    public boolean isEnabledFor(final CharSequence key) {
+        if (from == to) {
+            return false;
+        }
+
+        int bucket = bucketOf(mix(hashChars(key, FNV_OFFSET_BASIS ^ seed)));
+        return bucket >= from && bucket < to;
+    }
+
+    /**
+     * Get first bucket the rollout is enabled for.
+     * @return first bucket, from 0 to {@value #BUCKETS}
+     */
+    public int getFrom() {
+        return from;
+    }
+
+    /**
+     * Get bucket after the last one the rollout is enabled for.
+     * @return bucket after the last one, from 0 to {@value #BUCKETS}
+     */
+    public int getTo() {
+        return to;
+    }
+
+    /**
+     * Get share of ids the rollout is enabled for.
+     * @return percentage from 0 to 100
+     */
+    public double getPercentage() {
+        return (to - from) * 100.0d / BUCKETS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Rollout that = (Rollout) o;
+
+        return from == that.from && to == that.to && salt.equals(that.salt);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = from;
+        result = 31 * result + to;
+        result = 31 * result + salt.hashCode();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder value = new StringBuilder();
+        if (from > 0) {
+            appendPercentage(value, from).append(RANGE_SEPARATOR);
+        }
+        appendPercentage(value, to);
+
+        if (!salt.isEmpty()) {
+            value.append(SALT_SEPARATOR).append(salt);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Parse a rollout.
+     * @param value rollout in string
+     * @return parsed rollout or null if value is not a rollout
+     */
+    private static Rollout parse(final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        String range = value.trim();
+        String salt = "";
+        int saltIndex = range.indexOf(SALT_SEPARATOR);
+        if (saltIndex >= 0) {
+            salt = range.substring(saltIndex + 1).trim();
+            range = range.substring(0, saltIndex).trim();
+        }
+
+        if ("true".equalsIgnoreCase(range)) {
+            return new Rollout(0, BUCKETS, salt);
+        }
+        if ("false".equalsIgnoreCase(range)) {
+            return new Rollout(0, 0, salt);
+        }
+
+        int rangeIndex = range.indexOf(RANGE_SEPARATOR);
+        int from = (rangeIndex < 0) ? 0 : parseBuckets(range.substring(0, rangeIndex));
+        int to = parseBuckets(range.substring(rangeIndex + 1));
+        if (from < 0 || to < 0 || from > to) {
+            return null;
+        }
+
+        return new Rollout(from, to, salt);
+    }
+
+    /**
+     * Parse a percentage into a number of buckets.
+     * @param percentage percentage with up to two decimals and an optional {@code %} sign
+     * @return number of buckets or -1 if percentage is malformed or above 100
+     */
+    private static int parseBuckets(final String percentage) {
+        String number = percentage.trim();
+        if (number.endsWith("%")) {
+            number = number.substring(0, number.length() - 1).trim();
+        }
+
+        int buckets = 0;
+        int decimals = -1;
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c == '.' && decimals < 0 && i > 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && decimals < 2 && buckets <= BUCKETS) {
+                buckets = buckets * 10 + (c - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                return -1;
+            }
+        }
+
+        if (number.isEmpty() || decimals == 0) {
+            return -1;
+        }
+
+        for (int i = Math.max(decimals, 0); i < 2; i++) {
+            buckets *= 10;
+        }
+        return (buckets > BUCKETS) ? -1 : buckets;
+    }
+
+    /**
+     * Append a number of buckets as percentage.
+     * @param value string being built
+     * @param buckets number of buckets
+     * @return string being built
+     */
+    private static StringBuilder appendPercentage(final StringBuilder value, final int buckets) {
+        value.append(buckets / 100);
+        if (buckets % 100 != 0) {
+            value.append('.').append(buckets % 100 / 10);
+            if (buckets % 10 != 0) {
+                value.append(buckets % 10);
+            }
+        }
+        return value.append('%');
+    }
+
+    /**
+     * Hash the characters of a key (FNV-1a over UTF-16 code units).
+     * @param key key to hash
+     * @param basis hash basis
+     * @return hash of the key
+     */
+    private static long hashChars(final CharSequence key, final long basis) {
+        long hash = basis;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Mix the bits of a hash so that close inputs land in unrelated buckets (MurmurHash3 finalizer).
+     * @param hash hash to mix
+     * @return mixed hash
+     */
+    private static long mix(final long hash) {
+        long mixed = hash;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xff51afd7ed558ccdL;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return mixed ^ (mixed >>> 33);
+    }
+
+    /**
+     * Map a mixed hash onto a bucket, using its upper bits so that every bucket is equally likely.
+     * @param hash mixed hash
+     * @return bucket from 0 (inclusive) to {@value #BUCKETS} (exclusive)
+     */
+    private static int bucketOf(final long hash) {
+        return (int) (((hash >>> 32) * BUCKETS) >>> 32);
+    }
+}
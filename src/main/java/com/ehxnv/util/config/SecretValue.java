@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+/**
+ * Holds the encrypted value of a secret property, decrypting it on first read and caching the result.
+ * <p>Decryption, conversion and validation happen at most once per holder unless the cache is cleared, in which case
+ * the next read simply pays for them again. The string representation never shows the decrypted value.</p>
+ *
+ * @author Eka Lie
+ */
+final class SecretValue {
+
+    /** Plan knowing how to decrypt the value. **/
+    private final ConfigPlan plan;
+    /** Slot of the secret property. **/
+    private final int slot;
+    /** Encrypted value as found in configuration source. **/
+    private final String encryptedValue;
+    /** Decrypted, converted and validated value, null until first read or once cleared. **/
+    private volatile Object value;
+
+    /**
+     * Constructor.
+     * @param plan plan knowing how to decrypt the value
+     * @param slot slot of the secret property
+     * @param encryptedValue encrypted value as found in configuration source
+     */
+    SecretValue(final ConfigPlan plan, final int slot, final String encryptedValue) {
+        this.plan = plan;
+        this.slot = slot;
+        this.encryptedValue = encryptedValue;
+    }
+
+    /**
+     * Get decrypted value, decrypting it if not cached yet.
+     * @return decrypted property value
+     * @throws ConfigurationException if property value can't be decrypted, converted or is invalid
+     */
+    Object get() {
+        Object decryptedValue = value;
+        if (decryptedValue == null) {
+            // racing readers may both decrypt, which is harmless as they get equal values
+            decryptedValue = plan.decrypt(slot, encryptedValue);
+            value = decryptedValue;
+        }
+
+        return decryptedValue;
+    }
+
+    /**
+     * Clear the cached decrypted value.
+     */
+    void clear() {
+        value = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "****";
+    }
+}
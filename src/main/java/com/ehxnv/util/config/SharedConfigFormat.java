@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Layout of a shared configuration file, written by {@link SharedConfigPublisher} and read by
+ * {@link SharedConfigSubscriber}.
+ * <p>The file starts with a {@value #HEADER_SIZE} bytes header:</p>
+ * <ul>
+ *     <li>offset 0: magic number (int)</li>
+ *     <li>offset 4: format version (int)</li>
+ *     <li>offset 8: sequence number (long), odd while a version is being written and even once it is complete;
+ *         the published version is half of it</li>
+ *     <li>offset 16: data length (int)</li>
+ * </ul>
+ * <p>Data follows the header: the number of properties (int), then each property sorted by key as key length
+ * (int), key in UTF-8, value length (int) and value in UTF-8.</p>
+ *
+ * @author Eka Lie
+ */
+final class SharedConfigFormat {
+
+    /** Magic number identifying a shared configuration file. **/
+    static final int MAGIC = 0x504F4A43;
+    /** Format version. **/
+    static final int FORMAT_VERSION = 1;
+    /** Offset of the magic number. **/
+    static final int MAGIC_OFFSET = 0;
+    /** Offset of the format version. **/
+    static final int FORMAT_VERSION_OFFSET = 4;
+    /** Offset of the sequence number. **/
+    static final int SEQUENCE_OFFSET = 8;
+    /** Offset of the data length. **/
+    static final int DATA_LENGTH_OFFSET = 16;
+    /** Header size, which is also the offset of data. **/
+    static final int HEADER_SIZE = 64;
+
+    /** Volatile view of the sequence number, mapped buffers being page aligned. **/
+    static final VarHandle SEQUENCE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /** Charset of keys and values. **/
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Constructor.
+     */
+    private SharedConfigFormat() {
+    }
+
+    /**
+     * Encode properties into data.
+     * @param properties properties to encode
+     * @return encoded data
+     */
+    static byte[] encode(final Properties properties) {
+        List<String> keys = new ArrayList<String>();
+        for (Object key : properties.keySet()) {
+            keys.add(key.toString());
+        }
+        Collections.sort(keys);
+
+        byte[][] encodedKeys = new byte[keys.size()][];
+        byte[][] encodedValues = new byte[keys.size()][];
+        int length = 4;
+        for (int i = 0; i < keys.size(); i++) {
+            encodedKeys[i] = keys.get(i).getBytes(UTF_8);
+            encodedValues[i] = properties.get(keys.get(i)).toString().getBytes(UTF_8);
+            length += 8 + encodedKeys[i].length + encodedValues[i].length;
+        }
+
+        ByteBuffer data = ByteBuffer.allocate(length);
+        data.putInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            data.putInt(encodedKeys[i].length).put(encodedKeys[i]);
+            data.putInt(encodedValues[i].length).put(encodedValues[i]);
+        }
+
+        return data.array();
+    }
+
+    /**
+     * Decode data into properties.
+     * @param data encoded data
+     * @return decoded properties
+     */
+    static Properties decode(final byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        Properties properties = new Properties();
+
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            String key = decodeString(buffer);
+            properties.put(key, decodeString(buffer));
+        }
+
+        return properties;
+    }
+
+    /**
+     * Decode a length prefixed string.
+     * @param buffer buffer positioned at the string length
+     * @return decoded string
+     */
+    private static String decodeString(final ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value = new String(buffer.array(), buffer.position(), length, UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
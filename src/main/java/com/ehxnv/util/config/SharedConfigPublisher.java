@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Properties;
+
+/**
+ * Publishes configuration properties into a memory-mapped file shared by every JVM on the host, which read it
+ * through {@link SharedConfigSubscriber}.
+ * <p>Each publication is a new version written under a seqlock: the sequence number in the file header turns odd
+ * before the data is written and even again once it is complete, so readers never wait for the publisher and simply
+ * retry when they see a version being written. The file has a fixed capacity, which readers map once.</p>
+ *
+ * <p>There is a single publisher per file, enforced by an exclusive file lock held until the publisher is
+ * closed.</p>
+ *
+ * @author Eka Lie
+ * @see SharedConfigFormat
+ */
+public final class SharedConfigPublisher implements Closeable {
+
+    /** Shared file. **/
+    private final File file;
+    /** Shared file access. **/
+    private final RandomAccessFile randomAccessFile;
+    /** Exclusive lock of the shared file. **/
+    private final FileLock fileLock;
+    /** Mapped shared file. **/
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Constructor.
+     * @param file shared file, created if it doesn't exist
+     * @param capacity maximum size of published data in bytes
+     * @throws ConfigurationException if shared file can't be mapped or is already published by another publisher
+     */
+    public SharedConfigPublisher(final File file, final int capacity) {
+        this.file = file;
+        try {
+            this.randomAccessFile = new RandomAccessFile(file, "rw");
+        } catch (IOException ex) {
+            throw new ConfigurationException("Failed to open shared configuration file " + file, ex);
+        }
+
+        FileLock lock = null;
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException ex) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new ConfigurationException("Shared configuration file " + file + " is already published by another publisher");
+            }
+
+            // keep the sequence number of an existing file, so that subscribers see versions keep increasing
+            boolean existing = randomAccessFile.length() >= SharedConfigFormat.HEADER_SIZE
+                               && randomAccessFile.readInt() == SharedConfigFormat.MAGIC;
+            long size = Math.max(randomAccessFile.length(), (long) SharedConfigFormat.HEADER_SIZE + capacity);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.fileLock = lock;
+
+            if (!existing) {
+                buffer.putInt(SharedConfigFormat.FORMAT_VERSION_OFFSET, SharedConfigFormat.FORMAT_VERSION);
+                buffer.putInt(SharedConfigFormat.DATA_LENGTH_OFFSET, -1);
+                SharedConfigFormat.SEQUENCE.setVolatile(buffer, SharedConfigFormat.SEQUENCE_OFFSET, 0L);
+                buffer.putInt(SharedConfigFormat.MAGIC_OFFSET, SharedConfigFormat.MAGIC);
+            }
+        } catch (IOException ex) {
+            closeQuietly(lock, randomAccessFile);
+            throw new ConfigurationException("Failed to map shared configuration file " + file, ex);
+        } catch (RuntimeException ex) {
+            closeQuietly(lock, randomAccessFile);
+            throw ex;
+        }
+    }
+
+    /**
+     * Publish a new version of configuration properties.
+     * @param properties properties that represents a configuration
+     * @return published version
+     * @throws ConfigurationException if encoded properties exceed the capacity of the shared file
+     */
+    public synchronized long publish(final Properties properties) {
+        byte[] data = SharedConfigFormat.encode(properties);
+        if (data.length > buffer.capacity() - SharedConfigFormat.HEADER_SIZE) {
+            throw new ConfigurationException(String.format("Properties take %d bytes which exceeds capacity of shared configuration file %s (%d bytes)", data.length, file, buffer.capacity() - SharedConfigFormat.HEADER_SIZE));
+        }
+
+        // an odd sequence left by a publisher which died while writing is simply completed by this one
+        long sequence = (long) SharedConfigFormat.SEQUENCE.getVolatile(buffer, SharedConfigFormat.SEQUENCE_OFFSET);
+        long writingSequence = ((sequence & 1L) == 0L) ? sequence + 1L : sequence;
+        SharedConfigFormat.SEQUENCE.setVolatile(buffer, SharedConfigFormat.SEQUENCE_OFFSET, writingSequence);
+        VarHandle.storeStoreFence();
+
+        ByteBuffer dataBuffer = buffer.duplicate();
+        dataBuffer.position(SharedConfigFormat.HEADER_SIZE);
+        dataBuffer.put(data);
+        buffer.putInt(SharedConfigFormat.DATA_LENGTH_OFFSET, data.length);
+
+        SharedConfigFormat.SEQUENCE.setRelease(buffer, SharedConfigFormat.SEQUENCE_OFFSET, writingSequence + 1L);
+        return (writingSequence + 1L) >>> 1;
+    }
+
+    /**
+     * Release the shared file, leaving the last published version readable.
+     * @throws IOException if shared file can't be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        closeQuietly(fileLock, null);
+        randomAccessFile.close();
+    }
+
+    /**
+     * Release a file lock and close a file, ignoring any failure.
+     * @param lock file lock, or null
+     * @param closeable file to close, or null
+     */
+    private static void closeQuietly(final FileLock lock, final Closeable closeable) {
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException ex) {
+            // nothing else to do, the file is released anyway once the process exits
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads configuration properties published by a {@link SharedConfigPublisher} from a memory-mapped file, so that
+ * every JVM on the host shares a single copy in page cache.
+ * <p>Checking for a new version is a single read of the sequence number in the mapped file header. Properties of a
+ * version are only decoded the first time they are read, and configurations bound through {@link #bind(Class)} are
+ * reloaded by {@link #refresh()} once a new version is published.</p>
+ * <p>A version being written is waited for a bounded time only, so that a publisher dying halfway through a write
+ * doesn't hang readers: the last decoded properties are read instead.</p>
+ *
+ * @author Eka Lie
+ * @see SharedConfigFormat
+ */
+public final class SharedConfigSubscriber implements Closeable {
+
+    /** Default time a version being written is waited for, in milliseconds. **/
+    public static final long DEFAULT_READ_TIMEOUT_MILLIS = 1000L;
+
+    /** Shared file. **/
+    private final File file;
+    /** Shared file access. **/
+    private final RandomAccessFile randomAccessFile;
+    /** Mapped shared file. **/
+    private final MappedByteBuffer buffer;
+    /** Time a version being written is waited for, in nanoseconds. **/
+    private final long readTimeoutNanos;
+    /** Configurations reloaded on refresh. **/
+    private final List<ReloadableConfig<?>> reloadableConfigs = new CopyOnWriteArrayList<ReloadableConfig<?>>();
+    /** Version of the last decoded properties, 0 if none. **/
+    private long decodedVersion;
+    /** Last decoded properties. **/
+    private Properties decodedProperties;
+
+    /**
+     * Constructor.
+     * @param file shared file written by a {@link SharedConfigPublisher}
+     * @throws ConfigurationException if shared file can't be mapped or is not a shared configuration file
+     */
+    public SharedConfigSubscriber(final File file) {
+        this(file, DEFAULT_READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructor.
+     * @param file shared file written by a {@link SharedConfigPublisher}
+     * @param readTimeout time a version being written is waited for
+     * @param unit unit of read timeout
+     * @throws ConfigurationException if shared file can't be mapped or is not a shared configuration file
+     */
+    public SharedConfigSubscriber(final File file, final long readTimeout, final TimeUnit unit) {
+        this.file = file;
+        this.readTimeoutNanos = unit.toNanos(readTimeout);
+        try {
+            this.randomAccessFile = new RandomAccessFile(file, "r");
+        } catch (IOException ex) {
+            throw new ConfigurationException("Failed to open shared configuration file " + file, ex);
+        }
+
+        try {
+            this.buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+            if (buffer.capacity() < SharedConfigFormat.HEADER_SIZE
+                || buffer.getInt(SharedConfigFormat.MAGIC_OFFSET) != SharedConfigFormat.MAGIC
+                || buffer.getInt(SharedConfigFormat.FORMAT_VERSION_OFFSET) != SharedConfigFormat.FORMAT_VERSION) {
+                throw new ConfigurationException(file + " is not a shared configuration file");
+            }
+        } catch (IOException ex) {
+            closeQuietly();
+            throw new ConfigurationException("Failed to map shared configuration file " + file, ex);
+        } catch (RuntimeException ex) {
+            closeQuietly();
+            throw ex;
+        }
+    }
+
+    /**
+     * Get the latest published version.
+     * @return latest completely published version, 0 if nothing is published yet
+     */
+    public long getVersion() {
+        // while a version is being written the sequence is odd, and halving it gives the previous version
+        return ((long) SharedConfigFormat.SEQUENCE.getAcquire(buffer, SharedConfigFormat.SEQUENCE_OFFSET)) >>> 1;
+    }
+
+    /**
+     * Read properties of the latest published version, decoding them only if not decoded yet.
+     * <p>If the version being written isn't complete within the read timeout, e.g. because its publisher died, the
+     * properties decoded last are read instead.</p>
+     * @return properties of the latest published version, which must not be modified
+     * @throws ConfigurationException if nothing is published yet, or if no complete version could be read within
+     *                                the read timeout and none was decoded before
+     */
+    public synchronized Properties read() {
+        decodeLatest();
+        return decodedProperties;
+    }
+
+    /**
+     * Decode properties of the latest published version, unless decoded already.
+     * @return true if decoded properties are of the latest published version, false if the version being written
+     *         isn't complete within the read timeout and the properties decoded last are kept instead
+     * @throws ConfigurationException if nothing is published yet, or if no complete version could be read within
+     *                                the read timeout and none was decoded before
+     */
+    private boolean decodeLatest() {
+        if (decodedProperties != null && decodedVersion == getVersion()) {
+            return true;
+        }
+
+        int capacity = buffer.capacity() - SharedConfigFormat.HEADER_SIZE;
+        long deadline = System.nanoTime() + readTimeoutNanos;
+        while (true) {
+            long sequence = (long) SharedConfigFormat.SEQUENCE.getAcquire(buffer, SharedConfigFormat.SEQUENCE_OFFSET);
+            if (sequence == 0L) {
+                throw new ConfigurationException("Nothing is published yet into shared configuration file " + file);
+            }
+
+            if ((sequence & 1L) == 0L) {
+                // data read while the publisher writes may be garbage, it is only decoded once the sequence confirms it
+                int length = buffer.getInt(SharedConfigFormat.DATA_LENGTH_OFFSET);
+                byte[] data = null;
+                if (length >= 0 && length <= capacity) {
+                    data = new byte[length];
+                    ByteBuffer dataBuffer = buffer.duplicate();
+                    dataBuffer.position(SharedConfigFormat.HEADER_SIZE);
+                    dataBuffer.get(data);
+                }
+
+                VarHandle.acquireFence();
+                if (sequence == (long) SharedConfigFormat.SEQUENCE.getVolatile(buffer, SharedConfigFormat.SEQUENCE_OFFSET)) {
+                    if (data == null) {
+                        throw new ConfigurationException("Shared configuration file " + file + " has grown beyond its mapped size, it must be subscribed again");
+                    }
+
+                    decodedProperties = SharedConfigFormat.decode(data);
+                    decodedVersion = sequence >>> 1;
+                    return true;
+                }
+            }
+
+            if (System.nanoTime() - deadline >= 0L) {
+                if (decodedProperties != null) {
+                    return false;
+                }
+                throw new ConfigurationException("Timed out reading shared configuration file " + file + ", its publisher may have died while publishing");
+            }
+
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Bind the latest published version to a configuration interface, and keep reloading it on {@link #refresh()}.
+     * @param configInterface configuration interface
+     * @param <T> configuration interface type
+     * @return reloadable configuration
+     * @throws ConfigurationException if nothing is published yet, or if a property is missing, can't be converted or
+     *                                is invalid
+     */
+    public <T> ReloadableConfig<T> bind(final Class<T> configInterface) {
+        ReloadableConfig<T> reloadableConfig = Configuration.reloadableFromProperties(read(), configInterface);
+        reloadableConfigs.add(reloadableConfig);
+        return reloadableConfig;
+    }
+
+    /**
+     * Reload every bound configuration if a new version is published.
+     * <p>A configuration failing to reload keeps its current values and doesn't prevent the others from
+     * reloading. If the new version isn't complete within the read timeout, nothing is reloaded, as the properties
+     * decoded last are those bound configurations already hold.</p>
+     * @return true if a new version is picked up, false otherwise
+     * @throws ConfigurationException if a bound configuration failed to reload, after every other one is reloaded
+     */
+    public synchronized boolean refresh() {
+        if (decodedVersion == getVersion() || !decodeLatest()) {
+            return false;
+        }
+
+        Properties properties = decodedProperties;
+        ConfigurationException failure = null;
+        for (ReloadableConfig<?> reloadableConfig : reloadableConfigs) {
+            try {
+                reloadableConfig.reload(properties);
+            } catch (ConfigurationException ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+        return true;
+    }
+
+    /**
+     * Release the shared file. Bound configurations keep their current values.
+     * @throws IOException if shared file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reloadableConfigs.clear();
+        randomAccessFile.close();
+    }
+
+    /**
+     * Close the shared file, ignoring any failure.
+     */
+    private void closeQuietly() {
+        try {
+            randomAccessFile.close();
+        } catch (IOException ex) {
+            // nothing else to do, the file is released anyway once the process exits
+        }
+    }
+}
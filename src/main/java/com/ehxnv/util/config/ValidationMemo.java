@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.validator.ConfigPropertyValidator;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers outcomes of {@link com.ehxnv.util.config.validator.MemoizedPropertyValidator memoized validators} of a
+ * configuration interface, keyed by validator class and property value.
+ * <p>Each plan has its own memo, so remembered values and validator classes are only reachable from the plan of
+ * their configuration interface. Every memo is bounded by the same capacity: once full, some arbitrary entries are
+ * evicted to make room, which costs those values one more validation at worst. A validator which throws has nothing
+ * remembered.</p>
+ *
+ * @author Eka Lie
+ */
+final class ValidationMemo {
+
+    /** Default number of remembered outcomes per configuration interface. **/
+    static final int DEFAULT_CAPACITY = 4096;
+
+    /** Number of remembered outcomes above which entries are evicted, shared by every memo. **/
+    private static volatile int capacity = DEFAULT_CAPACITY;
+
+    /** Remembered outcome by validator class and property value. **/
+    private final ConcurrentMap<Key, Boolean> outcomes = new ConcurrentHashMap<Key, Boolean>();
+
+    /**
+     * Set number of remembered outcomes of every memo. Memos should then be cleared, see {@link #clear()}.
+     * @param memoCapacity number of remembered outcomes, 0 to remember none
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    static void setCapacity(final int memoCapacity) {
+        if (memoCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + memoCapacity);
+        }
+
+        capacity = memoCapacity;
+    }
+
+    /**
+     * Validate a property value, or look up its outcome if remembered.
+     * @param validator memoized property validator
+     * @param propertyValue converted property value
+     * @return true if property value is valid, false otherwise
+     */
+    boolean isValid(final ConfigPropertyValidator validator, final Object propertyValue) {
+        Key key = new Key(validator.getClass(), propertyValue);
+        Boolean outcome = outcomes.get(key);
+        if (outcome == null) {
+            outcome = Boolean.valueOf(validator.isValid(propertyValue));
+            remember(key, outcome);
+        }
+
+        return outcome.booleanValue();
+    }
+
+    /**
+     * Forget every outcome remembered so far.
+     */
+    void clear() {
+        outcomes.clear();
+    }
+
+    /**
+     * Get number of remembered outcomes.
+     * @return number of remembered outcomes
+     */
+    int size() {
+        return outcomes.size();
+    }
+
+    /**
+     * Remember an outcome, evicting entries first if the memo is full.
+     * @param key validator class and property value
+     * @param outcome validation outcome
+     */
+    private void remember(final Key key, final Boolean outcome) {
+        int memoCapacity = capacity;
+        if (memoCapacity == 0) {
+            return;
+        }
+
+        // racing threads may evict a few entries too many, which only costs a few validations
+        if (outcomes.size() >= memoCapacity) {
+            Iterator<Key> keys = outcomes.keySet().iterator();
+            for (int evicted = 0; evicted <= memoCapacity / 4 && keys.hasNext(); evicted++) {
+                keys.next();
+                keys.remove();
+            }
+        }
+
+        outcomes.put(key, outcome);
+    }
+
+    /**
+     * Key of a remembered outcome.
+     */
+    private static final class Key {
+        /** Validator class. **/
+        private final Class<?> validatorClass;
+        /** Property value. **/
+        private final Object propertyValue;
+        /** Precomputed hash code. **/
+        private final int hashCode;
+
+        /**
+         * Constructor.
+         * @param validatorClass validator class
+         * @param propertyValue property value
+         */
+        private Key(final Class<?> validatorClass, final Object propertyValue) {
+            this.validatorClass = validatorClass;
+            this.propertyValue = propertyValue;
+            this.hashCode = 31 * validatorClass.hashCode() + propertyValue.hashCode();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key that = (Key) o;
+            return hashCode == that.hashCode && validatorClass == that.validatorClass
+                   && propertyValue.equals(that.propertyValue);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the outcome of warming up every indexed configuration interface at once, see
+ * {@link Configuration#warmUp(java.util.Properties, ClassLoader, java.util.concurrent.ExecutorService)}.
+ * <p>Entries are kept in the same order as the index.</p>
+ *
+ * @author Eka Lie
+ */
+public final class WarmUpResult {
+
+    /** Warm-up entry of each indexed configuration interface. **/
+    private final List<Entry> entries;
+    /** Number of failed entries. **/
+    private final int failureCount;
+    /** Wall clock time spent warming up all configuration interfaces. **/
+    private final long elapsedNanos;
+
+    /**
+     * Constructor.
+     * @param entries warm-up entry of each indexed configuration interface
+     * @param elapsedNanos wall clock time spent warming up, in nanoseconds
+     */
+    WarmUpResult(final List<Entry> entries, final long elapsedNanos) {
+        int failures = 0;
+        for (Entry entry : entries) {
+            if (!entry.isSuccessful()) {
+                failures++;
+            }
+        }
+
+        this.entries = entries;
+        this.failureCount = failures;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get warm-up entry of each indexed configuration interface.
+     * @return warm-up entries, in the same order as the index
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Get warm-up entry of a configuration interface.
+     * @param configInterface configuration interface
+     * @return warm-up entry or null if the configuration interface isn't indexed
+     */
+    public Entry getEntry(final Class<?> configInterface) {
+        for (Entry entry : entries) {
+            if (entry.getClassName().equals(configInterface.getName())) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get configuration object bound during warm-up.
+     * @param configInterface configuration interface
+     * @param <T> configuration interface type
+     * @return configuration object
+     * @throws IllegalArgumentException if the configuration interface isn't indexed
+     * @throws ConfigurationException if the configuration interface failed to warm up
+     */
+    public <T> T getConfig(final Class<T> configInterface) {
+        Entry entry = getEntry(configInterface);
+        if (entry == null) {
+            throw new IllegalArgumentException(configInterface.getName() + " is not indexed");
+        }
+
+        if (!entry.isSuccessful()) {
+            throw entry.getFailure();
+        }
+
+        return configInterface.cast(entry.getResult().getConfig());
+    }
+
+    /**
+     * Determine if every indexed configuration interface warmed up.
+     * @return true if every entry succeeded, false otherwise
+     */
+    public boolean isSuccessful() {
+        return failureCount == 0;
+    }
+
+    /**
+     * Get number of failed entries.
+     * @return number of failed entries
+     */
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Get wall clock time spent warming up all configuration interfaces.
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Represents the outcome of warming up a single configuration interface, along with the time each step took.
+     */
+    public static final class Entry {
+
+        /** Binary name of the configuration interface as found in the index. **/
+        private final String className;
+        /** Configuration interface, null if it couldn't be loaded. **/
+        private final Class<?> configInterface;
+        /** Binding result, null if no plan could be compiled. **/
+        private final BindingResult<?> result;
+        /** Failure to load the configuration interface or to compile its plan. **/
+        private final ConfigurationException planFailure;
+        /** Time spent loading the configuration interface, resolving its metadata and compiling its plan. **/
+        private final long planNanos;
+        /** Time spent binding properties. **/
+        private final long bindNanos;
+
+        /**
+         * Constructor.
+         * @param className binary name of the configuration interface
+         * @param configInterface configuration interface, null if it couldn't be loaded
+         * @param result binding result, null if no plan could be compiled
+         * @param planFailure failure to load the configuration interface or to compile its plan
+         * @param planNanos time spent up to a compiled plan, in nanoseconds
+         * @param bindNanos time spent binding properties, in nanoseconds
+         */
+        Entry(final String className, final Class<?> configInterface, final BindingResult<?> result,
+              final ConfigurationException planFailure, final long planNanos, final long bindNanos) {
+            this.className = className;
+            this.configInterface = configInterface;
+            this.result = result;
+            this.planFailure = planFailure;
+            this.planNanos = planNanos;
+            this.bindNanos = bindNanos;
+        }
+
+        /**
+         * Get binary name of the configuration interface as found in the index.
+         * @return class name
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Get configuration interface.
+         * @return configuration interface or null if it couldn't be loaded
+         */
+        public Class<?> getConfigInterface() {
+            return configInterface;
+        }
+
+        /**
+         * Get binding result.
+         * @return binding result or null if no plan could be compiled
+         */
+        public BindingResult<?> getResult() {
+            return result;
+        }
+
+        /**
+         * Determine if the configuration interface warmed up.
+         * @return true if its plan was compiled and properties were bound to it, false otherwise
+         */
+        public boolean isSuccessful() {
+            return planFailure == null && result.isSuccessful();
+        }
+
+        /**
+         * Get warm-up failure.
+         * @return failure to load, compile or bind the configuration interface, or null if it warmed up
+         */
+        public ConfigurationException getFailure() {
+            return (planFailure != null) ? planFailure : result.getFailure();
+        }
+
+        /**
+         * Get time spent loading the configuration interface, resolving its metadata and compiling its plan.
+         * <p>This is close to zero when the plan was already compiled before warm-up.</p>
+         * @return elapsed time in nanoseconds
+         */
+        public long getPlanNanos() {
+            return planNanos;
+        }
+
+        /**
+         * Get time spent binding properties.
+         * @return elapsed time in nanoseconds
+         */
+        public long getBindNanos() {
+            return bindNanos;
+        }
+    }
+}
@@ -63,4 +63,11 @@ public @interface Config {
      * @return translation strategy class
      */
     Class<? extends ConfigPropertyNameTranslator> translator() default HypenedPropertyNameTranslator.class;
+
+    /**
+     * Whether configuration source keys are matched regardless of case and separators, so that e.g.
+     * {@code ENGINE_THRESHOLD}, {@code engine_threshold} and {@code engine-threshold} all bind to the same property.
+     * @return true if keys are matched relaxed, false if they must match translated property names exactly
+     */
+    boolean relaxedKeys() default false;
 }
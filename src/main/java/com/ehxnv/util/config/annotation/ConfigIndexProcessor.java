@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config.annotation;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>Annotation processor which writes the binary name of every type annotated with {@link Config} into
+ * {@link #INDEX_RESOURCE}, one per line, so that
+ * {@link com.ehxnv.util.config.Configuration#warmUp(java.util.Properties)} finds configuration interfaces at
+ * runtime without scanning the classpath.</p>
+ *
+ * <p>The processor is registered as a service, so javac picks it up from the classpath on its own. The index is
+ * written again on every compilation and only lists the types which were compiled, so it should be built from a
+ * full (not incremental) compilation.</p>
+ *
+ * @author Eka Lie
+ */
+@SupportedAnnotationTypes("com.ehxnv.util.config.annotation.Config")
+public class ConfigIndexProcessor extends AbstractProcessor {
+
+    /** Location of the index in the class output, and on the classpath at runtime. **/
+    public static final String INDEX_RESOURCE = "META-INF/pojo-config/config.index";
+
+    /** Binary names of annotated types found so far, sorted so that the index is reproducible. **/
+    private final Set<String> configTypes = new TreeSet<String>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!configTypes.isEmpty()) {
+                writeIndex();
+            }
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(Config.class)) {
+            // records are compared by name as ElementKind.RECORD doesn't exist before Java 16
+            ElementKind kind = element.getKind();
+            if (kind == ElementKind.INTERFACE || kind == ElementKind.CLASS || "RECORD".equals(kind.name())) {
+                configTypes.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Write binary names of every annotated type into the index.
+     */
+    private void writeIndex() {
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            Writer writer = new OutputStreamWriter(index.openOutputStream(), "UTF-8");
+            try {
+                for (String configType : configTypes) {
+                    writer.write(configType);
+                    writer.write('\n');
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                                                     "Failed to write " + INDEX_RESOURCE + ": " + ex.getMessage());
+        }
+    }
+}
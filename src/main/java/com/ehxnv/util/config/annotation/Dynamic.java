@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config.annotation;
+
+import com.ehxnv.util.config.supplier.ConfigPropertySupplier;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>An optional annotation that can be used to annotate method on configuration interface whose property value is
+ * supplied by a {@link ConfigPropertySupplier} and only stays fresh for a while.</p>
+ *
+ * <p>A dynamic property is bound from the configuration source like any other property. When the configuration is
+ * created through {@link com.ehxnv.util.config.Configuration#reloadableFromProperties(java.util.Properties, Class,
+ * java.util.concurrent.ScheduledExecutorService)}, its value is supplied instead, and supplied again in the
+ * background before it expires.</p>
+ *
+ * @author Eka Lie
+ * @see com.ehxnv.util.config.DynamicPropertyRefresher
+ */
+@Target({ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Dynamic {
+
+    /**
+     * Supplier class to supply property value.
+     * @return property supplier class
+     */
+    Class<? extends ConfigPropertySupplier> supplier();
+
+    /**
+     * How long a supplied property value stays fresh.
+     * @return time to live, in {@link #unit()}
+     */
+    long ttl();
+
+    /**
+     * Unit of {@link #ttl()}.
+     * @return time unit
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
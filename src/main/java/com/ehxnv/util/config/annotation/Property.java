@@ -37,20 +37,37 @@ import java.lang.annotation.Target;
 
 /**
  * <p>An optional annotation that can be used to annotate method on configuration interface.
- * Use this annotation if you want to specify your own validator on a specific property.</p>
+ * Use this annotation if you want to specify your own validator on a specific property, or if a specific property
+ * may be missing from the configuration source.</p>
  *
  * <p>By default, all property is using {@link IgnorantPropertyValidator} which doesn't validate property value.</p>
  *
  * @author Eka Lie
  * @see IgnorantPropertyValidator
  */
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.PARAMETER})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Property {
 
+    /** Marker value of {@link #defaultValue()} meaning the property has no default value. **/
+    String NO_DEFAULT_VALUE = "\0";
+
     /**
      * Validator class to validate property value.
      * @return property validator class
      */
     Class<? extends ConfigPropertyValidator> validator() default IgnorantPropertyValidator.class;
+
+    /**
+     * Default value (in string) used when property is missing from configuration source.
+     * <p>Default value is converted and validated once, when the configuration interface is first used.</p>
+     * @return property default value
+     */
+    String defaultValue() default NO_DEFAULT_VALUE;
+
+    /**
+     * Whether property may be missing from configuration source, in which case its method returns null.
+     * @return true if property is optional, false otherwise
+     */
+    boolean optional() default false;
 }
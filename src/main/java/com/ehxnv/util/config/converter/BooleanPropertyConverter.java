@@ -32,7 +32,7 @@ package com.ehxnv.util.config.converter;
  *
  * @author Eka Lie
  */
-public class BooleanPropertyConverter implements ConfigPropertyConverter<Boolean> {
+public class BooleanPropertyConverter implements CheckedPropertyConverter<Boolean> {
 
     /**
      * {@inheritDoc}
@@ -41,4 +41,12 @@ public class BooleanPropertyConverter implements ConfigPropertyConverter<Boolean
     public Boolean convertFromString(final String propertyValue) {
         return Boolean.valueOf(propertyValue);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return true;
+    }
 }
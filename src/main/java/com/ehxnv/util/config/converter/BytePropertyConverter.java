@@ -32,7 +32,7 @@ package com.ehxnv.util.config.converter;
  *
  * @author Eka Lie
  */
-public class BytePropertyConverter implements ConfigPropertyConverter<Byte> {
+public class BytePropertyConverter implements CheckedPropertyConverter<Byte> {
 
     /**
      * {@inheritDoc}
@@ -41,4 +41,12 @@ public class BytePropertyConverter implements ConfigPropertyConverter<Byte> {
     public Byte convertFromString(final String propertyValue) {
         return Byte.valueOf(propertyValue);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return NumberSyntax.isInteger(propertyValue, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
 }
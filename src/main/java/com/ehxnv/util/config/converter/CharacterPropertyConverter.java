@@ -32,7 +32,7 @@ package com.ehxnv.util.config.converter;
  *
  * @author Eka Lie
  */
-public class CharacterPropertyConverter implements ConfigPropertyConverter<Character> {
+public class CharacterPropertyConverter implements CheckedPropertyConverter<Character> {
 
     /**
      * {@inheritDoc}
@@ -41,4 +41,12 @@ public class CharacterPropertyConverter implements ConfigPropertyConverter<Chara
     public Character convertFromString(final String propertyValue) {
         return propertyValue.charAt(0);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return (propertyValue.length() > 0);
+    }
 }
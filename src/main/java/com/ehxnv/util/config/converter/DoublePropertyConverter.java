@@ -32,7 +32,7 @@ package com.ehxnv.util.config.converter;
  *
  * @author Eka Lie
  */
-public class DoublePropertyConverter implements ConfigPropertyConverter<Double> {
+public class DoublePropertyConverter implements CheckedPropertyConverter<Double> {
 
     /**
      * {@inheritDoc}
@@ -41,4 +41,12 @@ public class DoublePropertyConverter implements ConfigPropertyConverter<Double>
     public Double convertFromString(final String propertyValue) {
         return Double.valueOf(propertyValue);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return NumberSyntax.isFloatingPoint(propertyValue);
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config.converter;
+
+import com.ehxnv.util.config.annotation.Alias;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Convert property value to a constant of an enum.
+ * <p>A lookup table of the enum constants is built once, by name and by {@link Alias}, both as is and in lower case.
+ * Converting a value is then a hash lookup, an exact match first and a case insensitive one otherwise, and an
+ * unknown value is reported through {@link #isConvertible(String)} rather than by {@link Enum#valueOf}
+ * throwing.</p>
+ *
+ * @author Eka Lie
+ * @param <E> enum type
+ */
+public class EnumPropertyConverter<E extends Enum<E>> implements CheckedPropertyConverter<E> {
+
+    /** Enum class. **/
+    private final Class<E> enumClass;
+    /** Constants by name and alias. **/
+    private final Map<String, E> constantsByName = new HashMap<String, E>();
+    /** Constants by lower case name and alias, leaving out names which differ only by case. **/
+    private final Map<String, E> constantsByLowerCaseName = new HashMap<String, E>();
+
+    /**
+     * Constructor.
+     * @param enumClass enum class
+     * @throws IllegalArgumentException if an alias is also the name or alias of another constant
+     */
+    public EnumPropertyConverter(final Class<E> enumClass) {
+        this.enumClass = enumClass;
+
+        Set<String> ambiguousNames = new HashSet<String>();
+        for (E constant : enumClass.getEnumConstants()) {
+            register(constant, constant.name(), ambiguousNames);
+
+            Alias alias = aliasOf(constant);
+            if (alias != null) {
+                for (String name : alias.value()) {
+                    register(constant, name, ambiguousNames);
+                }
+            }
+        }
+
+        constantsByLowerCaseName.keySet().removeAll(ambiguousNames);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E convertFromString(final String propertyValue) {
+        E constant = lookup(propertyValue);
+        if (constant == null) {
+            throw new IllegalArgumentException(String.format("No constant of %s matches \"%s\"", enumClass.getName(), propertyValue));
+        }
+
+        return constant;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return lookup(propertyValue) != null;
+    }
+
+    /**
+     * Look up the constant matching a property value.
+     * @param propertyValue property value in string
+     * @return matching constant or null if none
+     */
+    private E lookup(final String propertyValue) {
+        E constant = constantsByName.get(propertyValue);
+        return (constant != null) ? constant : constantsByLowerCaseName.get(propertyValue.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Register a name of a constant in the lookup tables.
+     * @param constant enum constant
+     * @param name constant name or alias
+     * @param ambiguousNames lower case names shared by several constants so far
+     * @throws IllegalArgumentException if name is already the name or alias of another constant
+     */
+    private void register(final E constant, final String name, final Set<String> ambiguousNames) {
+        E existingConstant = constantsByName.put(name, constant);
+        if (existingConstant != null && existingConstant != constant) {
+            throw new IllegalArgumentException(String.format("\"%s\" matches both %s and %s of %s", name, existingConstant.name(), constant.name(), enumClass.getName()));
+        }
+
+        // constants named e.g. "A" and "a" can only be told apart by exact match
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+        existingConstant = constantsByLowerCaseName.put(lowerCaseName, constant);
+        if (existingConstant != null && existingConstant != constant) {
+            ambiguousNames.add(lowerCaseName);
+        }
+    }
+
+    /**
+     * Get aliases of a constant.
+     * @param constant enum constant
+     * @return alias annotation or null if constant has no alias
+     */
+    private Alias aliasOf(final E constant) {
+        try {
+            return enumClass.getField(constant.name()).getAnnotation(Alias.class);
+        } catch (NoSuchFieldException ex) {
+            return null;
+        }
+    }
+}
@@ -32,7 +32,7 @@ package com.ehxnv.util.config.converter;
  *
  * @author Eka Lie
  */
-public class FloatPropertyConverter implements ConfigPropertyConverter<Float> {
+public class FloatPropertyConverter implements CheckedPropertyConverter<Float> {
 
     /**
      * {@inheritDoc}
@@ -41,4 +41,12 @@ public class FloatPropertyConverter implements ConfigPropertyConverter<Float> {
     public Float convertFromString(final String propertyValue) {
         return Float.valueOf(propertyValue);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return NumberSyntax.isFloatingPoint(propertyValue);
+    }
 }
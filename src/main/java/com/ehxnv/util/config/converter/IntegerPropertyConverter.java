@@ -32,7 +32,7 @@ package com.ehxnv.util.config.converter;
  *
  * @author Eka Lie
  */
-public class IntegerPropertyConverter implements ConfigPropertyConverter<Integer> {
+public class IntegerPropertyConverter implements CheckedPropertyConverter<Integer> {
 
     /**
      * {@inheritDoc}
@@ -41,4 +41,12 @@ public class IntegerPropertyConverter implements ConfigPropertyConverter<Integer
     public Integer convertFromString(final String propertyValue) {
         return Integer.valueOf(propertyValue);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return NumberSyntax.isInteger(propertyValue, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
 }
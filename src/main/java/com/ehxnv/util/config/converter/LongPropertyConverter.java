@@ -32,7 +32,7 @@ package com.ehxnv.util.config.converter;
  *
  * @author Eka Lie
  */
-public class LongPropertyConverter implements ConfigPropertyConverter<Long> {
+public class LongPropertyConverter implements CheckedPropertyConverter<Long> {
 
     /**
      * {@inheritDoc}
@@ -41,4 +41,12 @@ public class LongPropertyConverter implements ConfigPropertyConverter<Long> {
     public Long convertFromString(final String propertyValue) {
         return Long.valueOf(propertyValue);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return NumberSyntax.isInteger(propertyValue, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
 }
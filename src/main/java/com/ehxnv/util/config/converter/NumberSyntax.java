@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config.converter;
+
+import java.util.regex.Pattern;
+
+/**
+ * Utility class that checks property value syntax the same way as {@code valueOf} methods of Java number types,
+ * without throwing {@link NumberFormatException}.
+ *
+ * @author Eka Lie
+ */
+final class NumberSyntax {
+
+    /** Decimal digits. **/
+    private static final String DIGITS = "(\\p{Digit}+)";
+    /** Hexadecimal digits. **/
+    private static final String HEX_DIGITS = "(\\p{XDigit}+)";
+    /** Exponent. **/
+    private static final String EXPONENT = "[eE][+-]?" + DIGITS;
+    /** Floating point syntax accepted by {@link Double#valueOf(String)} and {@link Float#valueOf(String)}. **/
+    private static final Pattern FLOATING_POINT = Pattern.compile(
+            "[\\x00-\\x20]*[+-]?(NaN|Infinity|(((" + DIGITS + "(\\.)?(" + DIGITS + "?)(" + EXPONENT + ")?)|"
+            + "(\\.(" + DIGITS + ")(" + EXPONENT + ")?)|"
+            + "(((0[xX]" + HEX_DIGITS + "(\\.)?)|(0[xX]" + HEX_DIGITS + "?(\\.)" + HEX_DIGITS + "))"
+            + "[pP][+-]?" + DIGITS + "))[fFdD]?))[\\x00-\\x20]*");
+
+    /**
+     * Private constructor.
+     */
+    private NumberSyntax() {
+    }
+
+    /**
+     * Determine if a given value is a decimal integer within given range.
+     * @param value value in string
+     * @param min minimum allowed value
+     * @param max maximum allowed value
+     * @return true if value can be parsed into an integer within range, false otherwise
+     */
+    static boolean isInteger(final String value, final long min, final long max) {
+        int length = value.length();
+        if (length == 0) {
+            return false;
+        }
+
+        int idx = 0;
+        boolean negative = false;
+        char firstChar = value.charAt(0);
+        if (firstChar == '-' || firstChar == '+') {
+            if (length == 1) {
+                return false;
+            }
+
+            negative = (firstChar == '-');
+            idx++;
+        }
+
+        // accumulate negatively as the negative range is larger than the positive one
+        long limit = negative ? min : -max;
+        long limitBeforeMultiply = limit / 10;
+        long result = 0;
+        while (idx < length) {
+            int digit = Character.digit(value.charAt(idx++), 10);
+            if (digit < 0 || result < limitBeforeMultiply) {
+                return false;
+            }
+
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+
+            result -= digit;
+        }
+
+        return true;
+    }
+
+    /**
+     * Determine if a given value is a floating point number.
+     * @param value value in string
+     * @return true if value can be parsed into a floating point number, false otherwise
+     */
+    static boolean isFloatingPoint(final String value) {
+        return FLOATING_POINT.matcher(value).matches();
+    }
+}
@@ -32,7 +32,7 @@ package com.ehxnv.util.config.converter;
  *
  * @author Eka Lie
  */
-public class ShortPropertyConverter implements ConfigPropertyConverter<Short> {
+public class ShortPropertyConverter implements CheckedPropertyConverter<Short> {
 
     /**
      * {@inheritDoc}
@@ -41,4 +41,12 @@ public class ShortPropertyConverter implements ConfigPropertyConverter<Short> {
     public Short convertFromString(final String propertyValue) {
         return Short.valueOf(propertyValue);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return NumberSyntax.isInteger(propertyValue, Short.MIN_VALUE, Short.MAX_VALUE);
+    }
 }
@@ -32,7 +32,7 @@ package com.ehxnv.util.config.converter;
  *
  * @author Eka Lie
  */
-public class StringPropertyConverter implements ConfigPropertyConverter<String> {
+public class StringPropertyConverter implements CheckedPropertyConverter<String> {
 
     /**
      * {@inheritDoc}
@@ -41,4 +41,12 @@ public class StringPropertyConverter implements ConfigPropertyConverter<String>
     public String convertFromString(final String propertyValue) {
         return propertyValue;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConvertible(final String propertyValue) {
+        return true;
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.validator.AsyncPropertyValidator;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link AsyncValidation}, binding properties with asynchronous validators.
+ *
+ * @author Eka Lie
+ */
+public class AsyncValidationTest {
+
+    /** How long each slow validation takes, in milliseconds. **/
+    private static final long VALIDATION_MILLIS = 200L;
+
+    // purposely made this into static class for accessibility purpose
+    static class SlowPortPropertyValidator implements AsyncPropertyValidator<Integer> {
+        @Override
+        public boolean isValid(final Integer propertyValue) {
+            try {
+                Thread.sleep(VALIDATION_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return propertyValue.intValue() > 1024;
+        }
+    }
+
+    private interface MyPortsConfiguration {
+        @Property(validator = SlowPortPropertyValidator.class)
+        Integer getAdminPort();
+        @Property(validator = SlowPortPropertyValidator.class)
+        Integer getDebugPort();
+        @Property(validator = SlowPortPropertyValidator.class)
+        Integer getHttpPort();
+        @Property(validator = SlowPortPropertyValidator.class)
+        Integer getMetricsPort();
+        @Property(validator = SlowPortPropertyValidator.class)
+        Integer getRpcPort();
+        @Property(optional = true)
+        String getVendorName();
+    }
+
+    @After
+    public void resetValidationExecutor() {
+        Configuration.setValidationExecutor(null);
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with asynchronous validators.
+     * <p>This test covers scenario where slow validators run concurrently, so binding takes about as long as one of
+     * them</p>
+     */
+    @Test
+    public void testFromPropertiesValidatesConcurrently() {
+        long startTime = System.nanoTime();
+        MyPortsConfiguration config = Configuration.fromProperties(TestProperties.of("admin-port", "8080", "debug-port", "8080", "http-port", "8080", "metrics-port", "8080", "rpc-port", "8080"), MyPortsConfiguration.class);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertEquals(Integer.valueOf(8080), config.getHttpPort());
+        assertTrue("took " + elapsedMillis + "ms", elapsedMillis < 4 * VALIDATION_MILLIS);
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with asynchronous validators.
+     * <p>This test covers scenario where several properties are invalid and reported in a single failure</p>
+     */
+    @Test
+    public void testFromPropertiesReportsEveryInvalidProperty() {
+        Properties properties = TestProperties.of("admin-port", "8080", "debug-port", "8080", "http-port", "8080", "metrics-port", "8080", "rpc-port", "8080");
+        properties.put("debug-port", "80");
+        properties.put("rpc-port", "443");
+
+        try {
+            Configuration.fromProperties(properties, MyPortsConfiguration.class);
+            fail("ConfigurationException expected");
+        } catch (ConfigurationException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("2 properties failed to bind:"));
+            assertTrue(ex.getMessage(), ex.getMessage().contains("debug-port"));
+            assertTrue(ex.getMessage(), ex.getMessage().contains("rpc-port"));
+        }
+    }
+
+    /**
+     * Test {@code tryBind} of {@link Configuration} with asynchronous validators.
+     * <p>This test covers scenario where invalid properties are reported along with other problems, on a custom
+     * validation executor</p>
+     */
+    @Test
+    public void testTryBindOnValidationExecutor() {
+        final AtomicInteger validationCount = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(5);
+        Configuration.setValidationExecutor(new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                validationCount.incrementAndGet();
+                pool.execute(command);
+            }
+        });
+
+        try {
+            Properties properties = TestProperties.of("admin-port", "8080", "debug-port", "8080", "http-port", "8080", "metrics-port", "8080", "rpc-port", "8080");
+            properties.put("admin-port", "22");
+            properties.remove("metrics-port");
+
+            BindingResult<MyPortsConfiguration> result = Configuration.tryBind(properties, MyPortsConfiguration.class);
+            assertEquals(2, result.getProblems().size());
+            assertEquals(BindingProblem.Kind.MISSING, result.getProblems().get(0).getKind());
+            assertEquals("metrics-port", result.getProblems().get(0).getPropertyName());
+            assertEquals(BindingProblem.Kind.INVALID, result.getProblems().get(1).getKind());
+            assertEquals("admin-port", result.getProblems().get(1).getPropertyName());
+            assertEquals(4, validationCount.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
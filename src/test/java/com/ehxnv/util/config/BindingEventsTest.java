@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.validator.ConfigPropertyValidator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Unit test for Java Flight Recorder events reported while binding.
+ *
+ * @author Eka Lie
+ */
+public class BindingEventsTest {
+
+    // purposely made this into static class for accessibility purpose
+    static class SlowPropertyValidator implements ConfigPropertyValidator<String> {
+        @Override
+        public boolean isValid(final String propertyValue) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+
+            return true;
+        }
+    }
+
+    private interface MyRecordedConfig {
+        Integer getMaxConnections();
+        @Property(validator = SlowPropertyValidator.class)
+        String getVendorName();
+    }
+
+    /**
+     * Test events recorded while binding a configuration interface.
+     * <p>This test covers scenario where each binding phase is recorded with its configuration interface and
+     * property name, and where the default threshold still catches a slow validator</p>
+     */
+    @Test
+    public void testBindingPhasesAreRecorded() throws Exception {
+        assertTrue(BindingEvents.AVAILABLE);
+
+        Properties properties = new Properties();
+        properties.put("max-connections", "10");
+        properties.put("vendor-name", "FooBar");
+
+        File recordingFile = File.createTempFile("binding-events", ".jfr");
+        Recording recording = new Recording();
+        try {
+            recording.enable("com.ehxnv.util.config.MetadataResolution");
+            recording.enable("com.ehxnv.util.config.PropertyConversion").withThreshold(Duration.ZERO);
+            recording.enable("com.ehxnv.util.config.PropertyValidation");
+            recording.enable("com.ehxnv.util.config.ConfigCreation");
+            recording.start();
+
+            Configuration.fromProperties(properties, MyRecordedConfig.class);
+
+            recording.stop();
+            recording.dump(recordingFile.toPath());
+
+            Set<String> recorded = new HashSet<String>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile.toPath())) {
+                assertEquals(MyRecordedConfig.class.getName(), event.getClass("configInterface").getName());
+                String propertyName = event.hasField("propertyName") ? " " + event.getString("propertyName") : "";
+                recorded.add(event.getEventType().getName() + propertyName);
+            }
+
+            assertTrue(recorded.contains("com.ehxnv.util.config.MetadataResolution"));
+            assertTrue(recorded.contains("com.ehxnv.util.config.PropertyConversion max-connections"));
+            assertTrue(recorded.contains("com.ehxnv.util.config.PropertyValidation vendor-name"));
+            assertFalse(recorded.contains("com.ehxnv.util.config.PropertyValidation max-connections"));
+            assertTrue(recorded.contains("com.ehxnv.util.config.ConfigCreation"));
+        } finally {
+            recording.close();
+            recordingFile.delete();
+        }
+    }
+}
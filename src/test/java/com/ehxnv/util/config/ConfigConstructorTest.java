@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.annotation.Secret;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+/**
+ * Unit test for {@link ConfigConstructor}, binding configuration records and classes.
+ *
+ * @author Eka Lie
+ */
+public class ConfigConstructorTest {
+
+    private record MyEngineRecord(double engineThreshold,
+                                  @Property(defaultValue = "42") int maxConnections,
+                                  @Property(optional = true) String vendorName) {
+        MyEngineRecord {
+            if (engineThreshold > maxConnections * 10) {
+                throw new IllegalArgumentException("engineThreshold must not exceed 10 times maxConnections");
+            }
+        }
+    }
+
+    private record MySecretRecord(@Secret(decryptor = ConfigurationTest.ReversingPropertyDecryptor.class) String password) {
+    }
+
+    public static final class MyEngineClass {
+        private final double engineThreshold;
+
+        public MyEngineClass(final double engineThreshold) {
+            this.engineThreshold = engineThreshold;
+        }
+    }
+
+    public abstract static class MyAbstractEngineClass {
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with a record.
+     * <p>This test covers scenario where record components are bound through the canonical constructor, including
+     * primitive, defaulted and optional components</p>
+     */
+    @Test
+    public void testFromPropertiesWithRecord() {
+        Properties properties = new Properties();
+        properties.put("engine-threshold", "300.5");
+
+        MyEngineRecord config = Configuration.fromProperties(properties, MyEngineRecord.class);
+        assertEquals(new MyEngineRecord(300.5d, 42, null), config);
+
+        properties.put("max-connections", "50");
+        properties.put("vendor-name", "Acme");
+        assertEquals(new MyEngineRecord(300.5d, 50, "Acme"), Configuration.fromProperties(properties, MyEngineRecord.class));
+    }
+
+    /**
+     * Test {@code tryBind} of {@link Configuration} with a record.
+     * <p>This test covers scenario where the record constructor rejects property values</p>
+     */
+    @Test
+    public void testTryBindRejectedRecord() {
+        Properties properties = new Properties();
+        properties.put("engine-threshold", "1000");
+
+        BindingResult<MyEngineRecord> result = Configuration.tryBind(properties, MyEngineRecord.class);
+        assertFalse(result.isSuccessful());
+        assertEquals(BindingProblem.Kind.REJECTED, result.getProblems().get(0).getKind());
+        assertTrue(result.getProblems().get(0).getMessage().endsWith("engineThreshold must not exceed 10 times maxConnections"));
+    }
+
+    /**
+     * Test {@code reloadableFromProperties} of {@link Configuration} with a record.
+     * <p>This test covers scenario where a new record is created on each reload</p>
+     */
+    @Test
+    public void testReloadableRecord() {
+        Properties properties = new Properties();
+        properties.put("engine-threshold", "300.5");
+
+        ReloadableConfig<MyEngineRecord> reloadableConfig = Configuration.reloadableFromProperties(properties, MyEngineRecord.class);
+        assertEquals(300.5d, reloadableConfig.get().engineThreshold(), 0.0d);
+        assertEquals(Double.valueOf(300.5d), reloadableConfig.getSnapshot().getValues().get(reloadableConfig.getSnapshot().getValues().getLayout().slotOf("engineThreshold")));
+
+        properties.put("engine-threshold", "400.5");
+        reloadableConfig.reload(properties);
+        assertEquals(400.5d, reloadableConfig.get().engineThreshold(), 0.0d);
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with a class.
+     * <p>This test covers scenario where the class is not compiled with {@code -parameters}, so its properties
+     * can't be named</p>
+     */
+    @Test(expected = ConfigurationException.class)
+    public void testFromPropertiesWithClassWithoutParameterNames() {
+        Configuration.fromProperties(new Properties(), MyEngineClass.class);
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with an abstract class.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromPropertiesWithAbstractClass() {
+        Configuration.fromProperties(new Properties(), MyAbstractEngineClass.class);
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with a record.
+     * <p>This test covers scenario where a record component is secret, which would leave its decrypted value in
+     * clear text</p>
+     */
+    @Test(expected = ConfigurationException.class)
+    public void testFromPropertiesWithSecretRecordComponent() {
+        Properties properties = new Properties();
+        properties.put("password", "terces");
+        Configuration.fromProperties(properties, MySecretRecord.class);
+    }
+}
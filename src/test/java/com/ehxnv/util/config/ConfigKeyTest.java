@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Property;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+/**
+ * Unit test for {@link ConfigKey}.
+ *
+ * @author Eka Lie
+ */
+public class ConfigKeyTest {
+
+    private interface MyPoolConfig {
+        Integer getMaxConnections();
+        @Property(optional = true)
+        String getPoolName();
+    }
+
+    private interface MyOtherPoolConfig {
+        Integer getMaxConnections();
+    }
+
+    private record MyPoolRecord(int maxConnections, String poolName) {
+    }
+
+    private record MyOtherPoolRecord(int maxConnections) {
+    }
+
+    private static final ConfigKey<Integer> MAX_CONNECTIONS = Configuration.key(MyPoolConfig.class, "max-connections", Integer.class);
+    private static final ConfigKey<String> POOL_NAME = Configuration.key(MyPoolConfig.class, "pool-name", String.class);
+
+    /**
+     * Test {@code get} of {@link ConfigKey}.
+     * <p>This test covers scenario where properties are read through keys, including from a projection</p>
+     */
+    @Test
+    public void testGet() {
+        MyPoolConfig config = Configuration.fromProperties(TestProperties.of("max-connections", "10"), MyPoolConfig.class);
+
+        assertEquals(Integer.valueOf(10), MAX_CONNECTIONS.get(config));
+        assertNull(POOL_NAME.get(config));
+        assertEquals(Integer.valueOf(10), MAX_CONNECTIONS.get(Configuration.project(config, MyOtherPoolConfig.class)));
+
+        assertEquals("max-connections", MAX_CONNECTIONS.getPropertyName());
+        assertEquals(MyPoolConfig.class, MAX_CONNECTIONS.getConfigInterface());
+        assertEquals(MAX_CONNECTIONS, Configuration.key(MyPoolConfig.class, "max-connections", Integer.class));
+        assertEquals(Integer.valueOf(10), Configuration.key(MyPoolConfig.class, "max-connections", Number.class).get(config));
+    }
+
+    /**
+     * Test {@code get} of {@link ConfigKey}.
+     * <p>This test covers scenario where the configuration object is of another configuration interface</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetFromOtherConfiguration() {
+        MAX_CONNECTIONS.get(Configuration.fromProperties(TestProperties.of("max-connections", "10"), MyOtherPoolConfig.class));
+    }
+
+    /**
+     * Test {@code get} of {@link ConfigKey}.
+     * <p>This test covers scenario where a key alternately reads several configuration objects, so that the object it
+     * last read is never mistaken for another</p>
+     */
+    @Test
+    public void testGetAlternately() {
+        MyPoolConfig config = Configuration.fromProperties(TestProperties.of("max-connections", "10"), MyPoolConfig.class);
+        MyPoolConfig otherConfig = Configuration.fromProperties(TestProperties.of("max-connections", "20"), MyPoolConfig.class);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Integer.valueOf(10), MAX_CONNECTIONS.get(config));
+            assertEquals(Integer.valueOf(10), MAX_CONNECTIONS.get(config));
+            assertEquals(Integer.valueOf(20), MAX_CONNECTIONS.get(otherConfig));
+        }
+
+        try {
+            MAX_CONNECTIONS.get(Configuration.fromProperties(TestProperties.of("max-connections", "10"), MyOtherPoolConfig.class));
+            fail("Configuration object of another configuration interface should not be read");
+        } catch (IllegalArgumentException ex) {
+            assertEquals(Integer.valueOf(20), MAX_CONNECTIONS.get(otherConfig));
+        }
+    }
+
+    /**
+     * Test {@code get} of {@link ConfigKey}.
+     * <p>This test covers scenario where properties of a record are read through its component accessors</p>
+     */
+    @Test
+    public void testGetFromRecord() {
+        Properties properties = TestProperties.of("max-connections", "10");
+        properties.put("pool-name", "main");
+
+        MyPoolRecord record = Configuration.fromProperties(properties, MyPoolRecord.class);
+        assertEquals(Integer.valueOf(10), Configuration.key(MyPoolRecord.class, "max-connections", Integer.class).get(record));
+        assertEquals("main", Configuration.key(MyPoolRecord.class, "pool-name", String.class).get(record));
+    }
+
+    /**
+     * Test {@code get} of {@link ConfigKey}.
+     * <p>This test covers scenario where the configuration object is another record</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetFromOtherRecord() {
+        Configuration.key(MyPoolRecord.class, "max-connections", Integer.class).get(new MyOtherPoolRecord(10));
+    }
+
+    /**
+     * Test {@code get} of {@link ReloadableConfig} with a key.
+     * <p>This test covers scenario where a key reads the current snapshot</p>
+     */
+    @Test
+    public void testGetReloadable() {
+        ReloadableConfig<MyPoolConfig> reloadableConfig = Configuration.reloadableFromProperties(TestProperties.of("max-connections", "10"), MyPoolConfig.class);
+        assertEquals(Integer.valueOf(10), reloadableConfig.get(MAX_CONNECTIONS));
+
+        MyPoolConfig config = reloadableConfig.get();
+        reloadableConfig.reload(TestProperties.of("max-connections", "20"));
+        assertEquals(Integer.valueOf(20), reloadableConfig.get(MAX_CONNECTIONS));
+        assertEquals(Integer.valueOf(20), MAX_CONNECTIONS.get(config));
+    }
+
+    /**
+     * Test {@code key} of {@link Configuration}.
+     * <p>This test covers scenario where there's no such property</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeyOfUnknownProperty() {
+        Configuration.key(MyPoolConfig.class, "min-connections", Integer.class);
+    }
+
+    /**
+     * Test {@code key} of {@link Configuration}.
+     * <p>This test covers scenario where the property is of another type</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeyOfIncompatibleType() {
+        Configuration.key(MyPoolConfig.class, "max-connections", Long.class);
+    }
+}
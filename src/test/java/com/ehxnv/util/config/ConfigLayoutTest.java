@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Config;
+import com.ehxnv.util.config.translator.HypenedPropertyNameTranslator;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Unit test for {@link ConfigLayout} and {@link ConfigValues}.
+ *
+ * @author Eka Lie
+ */
+public class ConfigLayoutTest {
+
+    private interface TenantConfig {
+        Boolean getEnabled();
+        Character getGrade();
+        Byte getPriority();
+        Short getShard();
+        Integer getMaxConnections();
+        Long getQuota();
+        Float getRatio();
+        Double getThreshold();
+        String getName();
+    }
+
+    /**
+     * Test slot assignment of {@link ConfigLayout}.
+     * <p>This test covers scenario where each property is assigned a slot, in method name order</p>
+     */
+    @Test
+    public void testLayoutAssignsSlots() {
+        ConfigMetadata configMetadata = new JavaBeanMetadataResolver<TenantConfig>().resolveMetadata(TenantConfig.class);
+        ConfigLayout configLayout = new ConfigLayout(configMetadata, new HypenedPropertyNameTranslator());
+
+        assertEquals(9, configLayout.size());
+        assertEquals(-1, configLayout.slotOf("toString"));
+        assertEquals(0, configLayout.slotOf("getEnabled"));
+        assertEquals(8, configLayout.slotOf("getThreshold"));
+
+        int slot = configLayout.slotOf("getMaxConnections");
+        assertEquals("max-connections", configLayout.getPropertyName(slot));
+        assertEquals("getMaxConnections", configLayout.getConfigProperty(slot).getMethodName());
+    }
+
+    /**
+     * Test memory footprint of configuration objects created by {@link Configuration}.
+     * <p>This test compares the shallow size of what each configuration object carries, a {@link ConfigValues}
+     * and its value array, against the previous representation, a {@link HashMap} of method name to value. Property
+     * values, method names and the proxy are the same in both so they are left out, and sizes are computed for a
+     * 64-bit JVM with compressed oops, so the comparison doesn't depend on garbage collection</p>
+     */
+    @Test
+    public void testFootprintPerInstance() throws ClassNotFoundException {
+        int propertyCount = 9;
+        TenantConfig config = Configuration.fromProperties(tenantProperties(), TenantConfig.class);
+        assertEquals(Long.valueOf(5000000000L), config.getQuota());
+
+        // a map sized by its default load factor of 0.75, see HashMap.tableSizeFor
+        int tableLength = Integer.highestOneBit((int) (propertyCount / 0.75f) * 2 - 1);
+        long bytesBefore = shallowSize(HashMap.class) + arraySize(tableLength)
+                           + propertyCount * shallowSize(Class.forName("java.util.HashMap$Node"));
+        long bytesAfter = shallowSize(ConfigValues.class) + arraySize(propertyCount);
+
+        assertEquals(80L, bytesAfter);
+        assertTrue(String.format("%d bytes after, %d bytes before", bytesAfter, bytesBefore), bytesAfter * 4 < bytesBefore);
+    }
+
+    /**
+     * Test {@code get} of {@link ConfigValues} through a configuration object.
+     * <p>This test covers scenario where repeated reads return the same value object rather than boxing again</p>
+     */
+    @Test
+    public void testRepeatedReadsReturnSameInstance() {
+        TenantConfig config = Configuration.fromProperties(tenantProperties(), TenantConfig.class);
+
+        assertSame(config.getQuota(), config.getQuota());
+        assertSame(config.getThreshold(), config.getThreshold());
+        assertSame(config.getRatio(), config.getRatio());
+        assertSame(config.getMaxConnections(), config.getMaxConnections());
+    }
+
+    @Config(relaxedKeys = true)
+    private interface CollidingConfig {
+        Integer getMaxConnections();
+        Integer getMaxconnections();
+    }
+
+    /**
+     * Test slot assignment of {@link ConfigLayout}.
+     * <p>This test covers scenario where two properties have the same relaxed name</p>
+     */
+    @Test(expected = ConfigurationException.class)
+    public void testLayoutRejectsCollidingRelaxedNames() {
+        ConfigMetadata configMetadata = new JavaBeanMetadataResolver<CollidingConfig>().resolveMetadata(CollidingConfig.class);
+        new ConfigLayout(configMetadata, new HypenedPropertyNameTranslator());
+    }
+
+    /**
+     * Test {@code set} and {@code get} of {@link ConfigValues}.
+     * <p>This test covers scenario where values survive a round trip through their packed representation</p>
+     */
+    @Test
+    public void testValuesRoundTrip() {
+        ConfigMetadata configMetadata = new JavaBeanMetadataResolver<TenantConfig>().resolveMetadata(TenantConfig.class);
+        ConfigLayout configLayout = new ConfigLayout(configMetadata, new HypenedPropertyNameTranslator());
+        ConfigValues configValues = new ConfigValues(configLayout);
+
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("getEnabled", Boolean.TRUE);
+        expected.put("getGrade", Character.valueOf(Character.MAX_VALUE));
+        expected.put("getPriority", Byte.valueOf((byte) -100));
+        expected.put("getShard", Short.valueOf((short) -1000));
+        expected.put("getMaxConnections", Integer.valueOf(Integer.MIN_VALUE));
+        expected.put("getQuota", Long.valueOf(Long.MAX_VALUE));
+        expected.put("getRatio", Float.valueOf(-0.5f));
+        expected.put("getThreshold", Double.valueOf(Double.NaN));
+        expected.put("getName", "tenant");
+
+        for (Map.Entry<String, Object> entry : expected.entrySet()) {
+            configValues.set(configLayout.slotOf(entry.getKey()), entry.getValue());
+        }
+
+        for (Map.Entry<String, Object> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), configValues.get(configLayout.slotOf(entry.getKey())));
+        }
+    }
+
+    /**
+     * Create tenant properties, using values outside of the boxing caches.
+     * @return tenant properties
+     */
+    private static Properties tenantProperties() {
+        return TestProperties.of("enabled", "true", "grade", "B", "priority", "-100", "shard", "1000",
+                "max-connections", "1000", "quota", "5000000000", "ratio", "0.5", "threshold", "0.25", "name", "tenant");
+    }
+
+    /**
+     * Compute shallow size of an object, from a 12 bytes header and its instance fields (references taking 4
+     * bytes), aligned to 8 bytes.
+     * @param clazz object class
+     * @return shallow size in bytes
+     */
+    private static long shallowSize(final Class<?> clazz) {
+        long size = 12L;
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+
+                Class<?> type = field.getType();
+                if (type == long.class || type == double.class) {
+                    size += 8L;
+                } else if (type == short.class || type == char.class) {
+                    size += 2L;
+                } else if (type == byte.class || type == boolean.class) {
+                    size += 1L;
+                } else {
+                    size += 4L;
+                }
+            }
+        }
+
+        return align(size);
+    }
+
+    /**
+     * Compute size of a reference array, from a 16 bytes header, aligned to 8 bytes.
+     * @param length array length
+     * @return array size in bytes
+     */
+    private static long arraySize(final int length) {
+        return align(16L + 4L * length);
+    }
+
+    /**
+     * Align a size to 8 bytes.
+     * @param size size in bytes
+     * @return aligned size in bytes
+     */
+    private static long align(final long size) {
+        return (size + 7L) & ~7L;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.annotation.Rule;
+import com.ehxnv.util.config.validator.ConfigValidator;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link ConfigRules}.
+ *
+ * @author Eka Lie
+ */
+public class ConfigRulesTest {
+
+    // purposely made this into static class for accessibility purpose
+    static class PoolSizeValidator implements ConfigValidator<MyPoolConfiguration> {
+        static final AtomicInteger CHECK_COUNT = new AtomicInteger();
+
+        @Override
+        public boolean isValid(final MyPoolConfiguration config) {
+            CHECK_COUNT.incrementAndGet();
+            return config.getMinPoolSize().intValue() <= config.getMaxPoolSize().intValue();
+        }
+    }
+
+    // purposely made this into static class for accessibility purpose
+    static class CertificateValidator implements ConfigValidator<MyPoolConfiguration> {
+        static final AtomicInteger CHECK_COUNT = new AtomicInteger();
+
+        @Override
+        public boolean isValid(final MyPoolConfiguration config) {
+            CHECK_COUNT.incrementAndGet();
+            return !config.getTlsEnabled().booleanValue() || config.getCertPath() != null;
+        }
+    }
+
+    @Rule(validator = PoolSizeValidator.class, dependsOn = {"getMinPoolSize", "getMaxPoolSize"})
+    @Rule(validator = CertificateValidator.class, dependsOn = {"getTlsEnabled", "getCertPath"})
+    interface MyPoolConfiguration {
+        Integer getMinPoolSize();
+        Integer getMaxPoolSize();
+        Boolean getTlsEnabled();
+        @Property(optional = true)
+        String getCertPath();
+        String getVendorName();
+    }
+
+    // purposely made this into static class for accessibility purpose
+    static class RecordPoolSizeValidator implements ConfigValidator<MyPoolRecord> {
+        static volatile MyPoolRecord lastChecked;
+
+        @Override
+        public boolean isValid(final MyPoolRecord config) {
+            lastChecked = config;
+            return config.minPoolSize() <= config.maxPoolSize();
+        }
+    }
+
+    @Rule(validator = RecordPoolSizeValidator.class, dependsOn = {"minPoolSize", "maxPoolSize"})
+    record MyPoolRecord(int minPoolSize, int maxPoolSize) {
+        static final AtomicInteger CONSTRUCTION_COUNT = new AtomicInteger();
+
+        MyPoolRecord {
+            CONSTRUCTION_COUNT.incrementAndGet();
+        }
+    }
+
+    @Rule(validator = PoolSizeValidator.class, dependsOn = "getPoolSize")
+    private interface MyUnknownDependencyConfiguration {
+        Integer getMinPoolSize();
+    }
+
+    /**
+     * Test {@code tryBind} of {@link Configuration} with rules.
+     * <p>This test covers scenario where every violated rule is reported, and a rule isn't checked when a property
+     * it depends on is invalid already</p>
+     */
+    @Test
+    public void testViolatedRules() {
+        assertEquals(Integer.valueOf(8), Configuration.fromProperties(TestProperties.of("min-pool-size", "2", "max-pool-size", "8", "tls-enabled", "false", "vendor-name", "ehxnv"), MyPoolConfiguration.class).getMaxPoolSize());
+
+        BindingResult<MyPoolConfiguration> result = Configuration.tryBind(TestProperties.of("min-pool-size", "10", "max-pool-size", "8", "tls-enabled", "true", "vendor-name", "ehxnv"), MyPoolConfiguration.class);
+        assertEquals(2, result.getProblems().size());
+        for (BindingProblem problem : result.getProblems()) {
+            assertEquals(BindingProblem.Kind.VIOLATED, problem.getKind());
+            assertNull(problem.getPropertyName());
+        }
+        assertTrue(result.getFailure().getMessage(), result.getFailure().getMessage().contains("PoolSizeValidator of [min-pool-size, max-pool-size]"));
+
+        int checkCount = PoolSizeValidator.CHECK_COUNT.get();
+        result = Configuration.tryBind(TestProperties.of("min-pool-size", "ten", "max-pool-size", "8", "tls-enabled", "false", "vendor-name", "ehxnv"), MyPoolConfiguration.class);
+        assertEquals(BindingProblem.Kind.UNCONVERTIBLE, result.getProblems().get(0).getKind());
+        assertEquals(1, result.getProblems().size());
+        assertEquals(checkCount, PoolSizeValidator.CHECK_COUNT.get());
+    }
+
+    /**
+     * Test {@code reload} of {@link ReloadableConfig} with rules.
+     * <p>This test covers scenario where a reload only checks the rules depending on a changed property, and a
+     * violated rule fails the reload</p>
+     */
+    @Test
+    public void testReloadChecksDependentRules() {
+        Properties properties = TestProperties.of("min-pool-size", "2", "max-pool-size", "8", "tls-enabled", "false", "vendor-name", "ehxnv");
+        ReloadableConfig<MyPoolConfiguration> reloadableConfig = Configuration.reloadableFromProperties(properties, MyPoolConfiguration.class);
+        int poolSizeCheckCount = PoolSizeValidator.CHECK_COUNT.get();
+        int certificateCheckCount = CertificateValidator.CHECK_COUNT.get();
+
+        properties.put("vendor-name", "acme");
+        reloadableConfig.reload(properties);
+        assertEquals(poolSizeCheckCount, PoolSizeValidator.CHECK_COUNT.get());
+        assertEquals(certificateCheckCount, CertificateValidator.CHECK_COUNT.get());
+
+        properties.put("cert-path", "/etc/tls/cert.pem");
+        properties.put("tls-enabled", "true");
+        reloadableConfig.reload(properties);
+        assertEquals(poolSizeCheckCount, PoolSizeValidator.CHECK_COUNT.get());
+        assertEquals(certificateCheckCount + 1, CertificateValidator.CHECK_COUNT.get());
+
+        properties.put("min-pool-size", "16");
+        try {
+            reloadableConfig.reload(properties);
+            fail("ConfigurationException expected");
+        } catch (ConfigurationException ex) {
+            assertEquals(Integer.valueOf(2), reloadableConfig.get().getMinPoolSize());
+            assertEquals(poolSizeCheckCount + 1, PoolSizeValidator.CHECK_COUNT.get());
+            assertEquals(certificateCheckCount + 1, CertificateValidator.CHECK_COUNT.get());
+        }
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with a record having rules.
+     * <p>This test covers scenario where the record checked by the rules is the one binding returns, so its
+     * constructor only runs once per binding</p>
+     */
+    @Test
+    public void testRecordCheckedByRulesIsReturned() {
+        Properties properties = new Properties();
+        properties.put("min-pool-size", "2");
+        properties.put("max-pool-size", "8");
+
+        int constructionCount = MyPoolRecord.CONSTRUCTION_COUNT.get();
+        MyPoolRecord config = Configuration.fromProperties(properties, MyPoolRecord.class);
+        assertSame(config, RecordPoolSizeValidator.lastChecked);
+        assertEquals(constructionCount + 1, MyPoolRecord.CONSTRUCTION_COUNT.get());
+
+        ReloadableConfig<MyPoolRecord> reloadableConfig = Configuration.reloadableFromProperties(properties, MyPoolRecord.class);
+        properties.put("max-pool-size", "16");
+        reloadableConfig.reload(properties);
+        assertSame(reloadableConfig.get(), RecordPoolSizeValidator.lastChecked);
+        assertEquals(constructionCount + 3, MyPoolRecord.CONSTRUCTION_COUNT.get());
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with a rule depending on an unknown property.
+     */
+    @Test(expected = ConfigurationException.class)
+    public void testUnknownDependency() {
+        Properties properties = new Properties();
+        properties.put("min-pool-size", "2");
+        Configuration.fromProperties(properties, MyUnknownDependencyConfiguration.class);
+    }
+}
@@ -27,18 +27,33 @@
 
 package com.ehxnv.util.config;
 
+import com.ehxnv.util.config.annotation.Alias;
 import com.ehxnv.util.config.annotation.Config;
+import com.ehxnv.util.config.annotation.ConfigIndexProcessor;
 import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.annotation.Secret;
+import com.ehxnv.util.config.decryptor.ConfigPropertyDecryptor;
 import com.ehxnv.util.config.extractor.ConfigPropertyNameExtractor;
 import com.ehxnv.util.config.translator.ConfigPropertyNameTranslator;
 import com.ehxnv.util.config.validator.ConfigPropertyValidator;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Unit test for {@link Configuration}.
@@ -76,6 +91,79 @@ public class ConfigurationTest {
         Double getEngineThreshold();
     }
 
+    private interface MyPoolConfiguration {
+        Integer getMaxConnections();
+        Number getEngineThreshold();
+    }
+
+    private interface MyMaxConnectionsConfiguration {
+        Integer getMaxConnections();
+    }
+
+    private interface MyMistypedPoolConfiguration {
+        String getMaxConnections();
+    }
+
+    private interface MyDefaultedConfiguration {
+        @Property(defaultValue = "300", validator = EngineThresholdPropertyValidator.class)
+        Double getEngineThreshold();
+        @Property(defaultValue = "42")
+        Integer getMaxConnections();
+        @Property(optional = true)
+        Long getQuota();
+        @Property(optional = true)
+        String getVendorName();
+    }
+
+    private interface MyInvalidDefaultConfiguration {
+        @Property(defaultValue = "100", validator = EngineThresholdPropertyValidator.class)
+        Double getEngineThreshold();
+    }
+
+    // purposely made this into static class for accessibility purpose
+    static class ReversingPropertyDecryptor implements ConfigPropertyDecryptor {
+        static final AtomicInteger DECRYPTION_COUNT = new AtomicInteger();
+
+        @Override
+        public String decrypt(final String encryptedValue) {
+            DECRYPTION_COUNT.incrementAndGet();
+            return new StringBuilder(encryptedValue).reverse().toString();
+        }
+    }
+
+    interface MySecretConfiguration {
+        @Secret(decryptor = ReversingPropertyDecryptor.class)
+        String getDatabasePassword();
+        @Secret(decryptor = ReversingPropertyDecryptor.class)
+        @Property(defaultValue = "003", validator = EngineThresholdPropertyValidator.class)
+        Double getEngineThreshold();
+    }
+
+    private interface MyRolloutConfiguration {
+        Rollout getNewCheckout();
+    }
+
+    enum MyEngineMode {
+        @Alias("on")
+        ACTIVE,
+        @Alias("off")
+        INACTIVE
+    }
+
+    private interface MyEngineModeConfiguration {
+        MyEngineMode getEngineMode();
+        @Property(defaultValue = "off")
+        MyEngineMode getFallbackMode();
+    }
+
+    @Config(relaxedKeys = true)
+    private interface MyRelaxedConfiguration {
+        Double getEngineThreshold();
+        Integer getMaxConnections();
+        @Property(optional = true)
+        String getVendorName();
+    }
+
     static class SimpleExtractor implements ConfigPropertyNameExtractor {
 
         /**
@@ -248,4 +336,447 @@ public class ConfigurationTest {
         assertEquals("FooBar", configuration.vendorName());
         assertEquals(Double.valueOf(249.0d), configuration.engineThreshold());
     }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where properties with default value or marked as optional are missing from the
+     * given {@link Properties}</p>
+     */
+    @Test
+    public void testFromPropertiesWithMissingOptionalProperties() {
+        MyDefaultedConfiguration configuration = Configuration.fromProperties(new Properties(), MyDefaultedConfiguration.class);
+        assertEquals(Double.valueOf(300d), configuration.getEngineThreshold());
+        assertEquals(Integer.valueOf(42), configuration.getMaxConnections());
+        assertNull(configuration.getQuota());
+        assertNull(configuration.getVendorName());
+
+        Properties properties = new Properties();
+        properties.put("engine-threshold", "400");
+        properties.put("quota", "1000");
+        configuration = Configuration.fromProperties(properties, MyDefaultedConfiguration.class);
+        assertEquals(Double.valueOf(400d), configuration.getEngineThreshold());
+        assertEquals(Integer.valueOf(42), configuration.getMaxConnections());
+        assertEquals(Long.valueOf(1000L), configuration.getQuota());
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where a property default value is rejected by its custom property validator,
+     * even though the property is given</p>
+     */
+    @Test(expected = ConfigurationException.class)
+    public void testFromPropertiesWithInvalidDefaultValue() {
+        Properties properties = new Properties();
+        properties.put("engine-threshold", "400");
+
+        Configuration.fromProperties(properties, MyInvalidDefaultConfiguration.class);
+    }
+
+    /**
+     * Test {@code tryBind} of {@link Configuration}.
+     * <p>This test covers scenario where properties are missing, unconvertible and invalid at the same time, and
+     * every problem is reported</p>
+     */
+    @Test
+    public void testTryBindReportsEveryProblem() {
+        Properties properties = new Properties();
+        properties.put("boolean-value", "true");
+        properties.put("byte-value", "1000");
+        properties.put("short-value", "1000");
+        properties.put("integer-value", "ten");
+        properties.put("long-value", "1000000");
+        properties.put("float-value", "128.128");
+        properties.put("double-value", "256.256");
+        properties.put("string-value", "foo bar");
+
+        BindingResult<MyBasicConfig> result = Configuration.tryBind(properties, MyBasicConfig.class);
+        assertFalse(result.isSuccessful());
+        assertEquals(3, result.getProblems().size());
+
+        List<String> problems = new ArrayList<String>();
+        for (BindingProblem problem : result.getProblems()) {
+            problems.add(problem.getKind() + " " + problem.getPropertyName());
+        }
+        assertTrue(problems.contains("MISSING char-value"));
+        assertTrue(problems.contains("UNCONVERTIBLE byte-value"));
+        assertTrue(problems.contains("UNCONVERTIBLE integer-value"));
+
+        try {
+            result.getConfig();
+            fail("Failed binding should not give configuration object");
+        } catch (ConfigurationException ex) {
+            assertSame(result.getFailure(), ex);
+        }
+    }
+
+    /**
+     * Test {@code tryBind} of {@link Configuration}.
+     * <p>This test covers scenario where a property is rejected by its custom property validator</p>
+     */
+    @Test
+    public void testTryBindWithCustomPropertyValidator() {
+        Properties properties = new Properties();
+        properties.put("engine-threshold", "249.0");
+
+        BindingResult<MyEngineConfiguration> result = Configuration.tryBind(properties, MyEngineConfiguration.class);
+        assertEquals(1, result.getProblems().size());
+        assertEquals(BindingProblem.Kind.INVALID, result.getProblems().get(0).getKind());
+        assertEquals(Double.valueOf(249.0d), result.getProblems().get(0).getPropertyValue());
+
+        properties.put("engine-threshold", "251.0");
+        assertEquals(Double.valueOf(251.0d), Configuration.tryBind(properties, MyEngineConfiguration.class).getConfig().getEngineThreshold());
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where a property is a rollout</p>
+     */
+    @Test
+    public void testFromPropertiesWithRollout() {
+        Properties properties = new Properties();
+        properties.put("new-checkout", "25%@checkout");
+
+        assertEquals(Rollout.valueOf("25%@checkout"), Configuration.fromProperties(properties, MyRolloutConfiguration.class).getNewCheckout());
+
+        properties.put("new-checkout", "most");
+        assertEquals(BindingProblem.Kind.UNCONVERTIBLE, Configuration.tryBind(properties, MyRolloutConfiguration.class).getProblems().get(0).getKind());
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where enum properties are bound by name or alias regardless of case, including a
+     * default value, and an unknown constant is reported as unconvertible</p>
+     */
+    @Test
+    public void testFromPropertiesWithEnum() {
+        Properties properties = new Properties();
+        properties.put("engine-mode", "On");
+
+        MyEngineModeConfiguration configuration = Configuration.fromProperties(properties, MyEngineModeConfiguration.class);
+        assertEquals(MyEngineMode.ACTIVE, configuration.getEngineMode());
+        assertEquals(MyEngineMode.INACTIVE, configuration.getFallbackMode());
+        assertEquals(MyEngineMode.ACTIVE, Configuration.key(MyEngineModeConfiguration.class, "engine-mode", MyEngineMode.class).get(configuration));
+
+        properties.put("engine-mode", "paused");
+        BindingProblem problem = Configuration.tryBind(properties, MyEngineModeConfiguration.class).getProblems().get(0);
+        assertEquals(BindingProblem.Kind.UNCONVERTIBLE, problem.getKind());
+        assertEquals("engine-mode", problem.getPropertyName());
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where source keys are matched regardless of case and separators</p>
+     */
+    @Test
+    public void testFromPropertiesWithRelaxedKeys() {
+        Properties properties = new Properties();
+        properties.put("ENGINE_THRESHOLD", "300");
+        properties.put("maxConnections", "${ENGINE_THRESHOLD}");
+
+        MyRelaxedConfiguration configuration = Configuration.fromProperties(properties, MyRelaxedConfiguration.class);
+        assertEquals(Double.valueOf(300.0d), configuration.getEngineThreshold());
+        assertEquals(Integer.valueOf(300), configuration.getMaxConnections());
+        assertNull(configuration.getVendorName());
+
+        properties.remove("maxConnections");
+        assertEquals("max-connections", Configuration.tryBind(properties, MyRelaxedConfiguration.class).getProblems().get(0).getPropertyName());
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where secret properties are decrypted on first read only</p>
+     */
+    @Test
+    public void testFromPropertiesWithSecrets() {
+        Properties properties = new Properties();
+        properties.put("database-password", "terces");
+
+        int decryptionCount = ReversingPropertyDecryptor.DECRYPTION_COUNT.get();
+        MySecretConfiguration configuration = Configuration.fromProperties(properties, MySecretConfiguration.class);
+        assertEquals(decryptionCount, ReversingPropertyDecryptor.DECRYPTION_COUNT.get());
+
+        assertEquals("secret", configuration.getDatabasePassword());
+        assertEquals("secret", configuration.getDatabasePassword());
+        assertEquals(Double.valueOf(300.0d), configuration.getEngineThreshold());
+        assertEquals(decryptionCount + 2, ReversingPropertyDecryptor.DECRYPTION_COUNT.get());
+    }
+
+    /**
+     * Test {@link Object} methods of a configuration object.
+     * <p>This test covers scenario where {@code equals} and {@code hashCode} are based on identity, and
+     * {@code toString} lists property values without decrypting secret ones, of both a plain and a reloadable
+     * configuration object</p>
+     */
+    @Test
+    public void testObjectMethods() {
+        Properties properties = new Properties();
+        properties.put("database-password", "terces");
+        properties.put("engine-threshold", "003");
+
+        int decryptionCount = ReversingPropertyDecryptor.DECRYPTION_COUNT.get();
+        MySecretConfiguration configuration = Configuration.fromProperties(properties, MySecretConfiguration.class);
+        MySecretConfiguration otherConfiguration = Configuration.fromProperties(properties, MySecretConfiguration.class);
+        assertTrue(configuration.equals(configuration));
+        assertFalse(configuration.equals(otherConfiguration));
+        assertEquals(System.identityHashCode(configuration), configuration.hashCode());
+        assertEquals("MySecretConfiguration{database-password=****, engine-threshold=****}", configuration.toString());
+        assertEquals(decryptionCount, ReversingPropertyDecryptor.DECRYPTION_COUNT.get());
+
+        properties.put("engine-threshold", "500");
+        MyEngineConfiguration reloadable = Configuration.reloadableFromProperties(properties, MyEngineConfiguration.class).get();
+        assertTrue(reloadable.equals(reloadable));
+        assertFalse(reloadable.equals(null));
+        assertEquals(System.identityHashCode(reloadable), reloadable.hashCode());
+        assertEquals("MyEngineConfiguration{engine-threshold=500.0}", reloadable.toString());
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where a secret property is missing, and where its decrypted value is invalid
+     * which is only reported on first read without revealing the value</p>
+     */
+    @Test
+    public void testFromPropertiesWithInvalidSecret() {
+        Properties properties = new Properties();
+        assertEquals(BindingProblem.Kind.MISSING, Configuration.tryBind(properties, MySecretConfiguration.class).getProblems().get(0).getKind());
+
+        properties.put("database-password", "terces");
+        properties.put("engine-threshold", "001");
+        MySecretConfiguration configuration = Configuration.fromProperties(properties, MySecretConfiguration.class);
+        try {
+            configuration.getEngineThreshold();
+            fail("Invalid secret value should not be returned");
+        } catch (ConfigurationException ex) {
+            assertEquals("Secret property \"engine-threshold\" value is invalid", ex.getMessage());
+        }
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where property values reference other properties</p>
+     */
+    @Test
+    public void testFromPropertiesWithReferences() {
+        Properties properties = new Properties();
+        properties.put("base-threshold", "300");
+        properties.put("engine-threshold", "${base-threshold}.5");
+
+        assertEquals(Double.valueOf(300.5d), Configuration.fromProperties(properties, MyEngineConfiguration.class).getEngineThreshold());
+    }
+
+    /**
+     * Test {@code tryBind} of {@link Configuration}.
+     * <p>This test covers scenario where a property value references itself through another property</p>
+     */
+    @Test
+    public void testTryBindWithReferenceCycle() {
+        Properties properties = new Properties();
+        properties.put("engine-threshold", "${base-threshold}");
+        properties.put("base-threshold", "${engine-threshold}");
+
+        BindingResult<MyEngineConfiguration> result = Configuration.tryBind(properties, MyEngineConfiguration.class);
+        assertEquals(1, result.getProblems().size());
+        assertEquals(BindingProblem.Kind.UNRESOLVABLE, result.getProblems().get(0).getKind());
+        assertEquals("Failed to resolve \"${base-threshold}\" of property \"engine-threshold\": reference cycle engine-threshold -> base-threshold -> engine-threshold",
+                     result.getProblems().get(0).getMessage());
+    }
+
+    /**
+     * Test bulk {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where many properties are bound in parallel, some of them invalid, and results
+     * come back in the same order as given</p>
+     */
+    @Test
+    public void testFromPropertiesInBulk() {
+        List<Properties> sources = new ArrayList<Properties>();
+        for (int i = 0; i < 1000; i++) {
+            Properties properties = new Properties();
+            properties.put("engine-threshold", String.valueOf(i));
+            sources.add(properties);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            BulkBindingResult<MyEngineConfiguration> bulkResult = Configuration.fromProperties(sources, MyEngineConfiguration.class, executor);
+
+            assertEquals(1000, bulkResult.getResults().size());
+            assertEquals(749, bulkResult.getSuccessCount());
+            assertEquals(251, bulkResult.getFailureCount());
+            assertTrue(bulkResult.getThroughput() > 0d);
+
+            BindingResult<MyEngineConfiguration> invalidResult = bulkResult.getResults().get(250);
+            assertFalse(invalidResult.isSuccessful());
+            assertNotNull(invalidResult.getFailure());
+
+            BindingResult<MyEngineConfiguration> validResult = bulkResult.getResults().get(251);
+            assertTrue(validResult.isSuccessful());
+            assertEquals(Double.valueOf(251d), validResult.getConfig().getEngineThreshold());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test bulk {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where no executor is given, so that every call binds on the same shared pool of
+     * daemon threads</p>
+     */
+    @Test
+    public void testFromPropertiesInBulkOnSharedPool() {
+        List<Properties> sources = new ArrayList<Properties>();
+        for (int i = 0; i < 100; i++) {
+            sources.add(TestProperties.of("engine-threshold", String.valueOf(300 + i)));
+        }
+
+        Set<Thread> bindingThreads = new HashSet<Thread>();
+        for (int call = 0; call < 3; call++) {
+            BulkBindingResult<MyEngineConfiguration> bulkResult = Configuration.fromProperties(sources, MyEngineConfiguration.class);
+            assertEquals(100, bulkResult.getSuccessCount());
+
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if ("pojo-config-binding".equals(thread.getName())) {
+                    assertTrue(thread.isDaemon());
+                    bindingThreads.add(thread);
+                }
+            }
+        }
+
+        assertFalse(bindingThreads.isEmpty());
+        assertTrue(bindingThreads.size() <= Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Test bulk {@code fromProperties} of {@link Configuration}.
+     * <p>This test covers scenario where no properties are given</p>
+     */
+    @Test
+    public void testFromPropertiesInBulkWithoutSources() {
+        BulkBindingResult<MyEngineConfiguration> bulkResult = Configuration.fromProperties(new ArrayList<Properties>(), MyEngineConfiguration.class);
+
+        assertTrue(bulkResult.getResults().isEmpty());
+        assertEquals(0, bulkResult.getFailureCount());
+    }
+
+    /**
+     * Test {@code warmUp} of {@link Configuration}.
+     * <p>This test covers scenario where every {@code @Config} interface of this test tree, as indexed by
+     * {@link ConfigIndexProcessor} during compilation, is warmed up</p>
+     */
+    @Test
+    public void testWarmUp() {
+        Properties properties = new Properties();
+        properties.put("MAX_CONNECTIONS", "10");
+        properties.put("engine.threshold", "200.5");
+        properties.put("vendor.name", "Acme");
+
+        WarmUpResult warmUpResult = Configuration.warmUp(properties);
+        assertTrue(warmUpResult.getElapsedNanos() > 0L);
+
+        WarmUpResult.Entry entry = warmUpResult.getEntry(MyRelaxedConfiguration.class);
+        assertTrue(entry.isSuccessful());
+        assertEquals(MyRelaxedConfiguration.class, entry.getConfigInterface());
+        assertTrue(entry.getPlanNanos() > 0L);
+        assertTrue(entry.getBindNanos() > 0L);
+        assertEquals(Integer.valueOf(10), warmUpResult.getConfig(MyRelaxedConfiguration.class).getMaxConnections());
+        assertEquals("Acme", warmUpResult.getConfig(MyOtherEngineConfiguration.class).vendorName());
+
+        assertNull(warmUpResult.getEntry(MyEngineConfiguration.class));
+    }
+
+    /**
+     * Test {@code warmUp} of {@link Configuration}.
+     * <p>This test covers scenario where the index lists a class which doesn't exist, and an interface whose
+     * properties are missing</p>
+     */
+    @Test
+    public void testWarmUpWithFailures() throws IOException {
+        final File index = File.createTempFile("config", ".index");
+        index.deleteOnExit();
+        FileOutputStream outputStream = new FileOutputStream(index);
+        try {
+            outputStream.write(("# generated\ncom.ehxnv.util.config.NoSuchConfiguration\n"
+                                + MyRelaxedConfiguration.class.getName() + "\n").getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(final String name) throws IOException {
+                return Collections.enumeration(Collections.singleton(index.toURI().toURL()));
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            WarmUpResult warmUpResult = Configuration.warmUp(new Properties(), classLoader, executor);
+
+            assertEquals(2, warmUpResult.getEntries().size());
+            assertEquals(2, warmUpResult.getFailureCount());
+            assertFalse(warmUpResult.isSuccessful());
+
+            WarmUpResult.Entry missingEntry = warmUpResult.getEntries().get(0);
+            assertEquals("com.ehxnv.util.config.NoSuchConfiguration", missingEntry.getClassName());
+            assertNull(missingEntry.getConfigInterface());
+            assertNull(missingEntry.getResult());
+            assertEquals("Failed to load com.ehxnv.util.config.NoSuchConfiguration", missingEntry.getFailure().getMessage());
+
+            WarmUpResult.Entry unboundEntry = warmUpResult.getEntries().get(1);
+            assertEquals(MyRelaxedConfiguration.class, unboundEntry.getConfigInterface());
+            assertEquals(2, unboundEntry.getResult().getProblems().size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test {@code project} of {@link Configuration}.
+     * <p>This test covers scenario where a configuration object is projected onto narrower interfaces, including
+     * a projection of a projection</p>
+     */
+    @Test
+    public void testProject() {
+        MyDefaultedConfiguration config = Configuration.fromProperties(new Properties(), MyDefaultedConfiguration.class);
+
+        MyPoolConfiguration poolConfig = Configuration.project(config, MyPoolConfiguration.class);
+        assertEquals(Integer.valueOf(42), poolConfig.getMaxConnections());
+        assertEquals(Double.valueOf(300d), poolConfig.getEngineThreshold());
+        assertNotSame(poolConfig, Configuration.project(config, MyPoolConfiguration.class));
+
+        MyMaxConnectionsConfiguration maxConnectionsConfig = Configuration.project(poolConfig, MyMaxConnectionsConfiguration.class);
+        assertEquals(Integer.valueOf(42), maxConnectionsConfig.getMaxConnections());
+    }
+
+    /**
+     * Test {@code project} of {@link Configuration}.
+     * <p>This test covers scenario where the projection interface has a method which isn't a property of the
+     * configuration interface</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testProjectWithUnknownProperty() {
+        Properties properties = new Properties();
+        properties.put("engine-threshold", "300");
+
+        MyEngineConfiguration config = Configuration.fromProperties(properties, MyEngineConfiguration.class);
+        Configuration.project(config, MyPoolConfiguration.class);
+    }
+
+    /**
+     * Test {@code project} of {@link Configuration}.
+     * <p>This test covers scenario where the projection interface expects another type than the property has</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testProjectWithIncompatibleType() {
+        MyDefaultedConfiguration config = Configuration.fromProperties(new Properties(), MyDefaultedConfiguration.class);
+        Configuration.project(config, MyMistypedPoolConfiguration.class);
+    }
+
+    /**
+     * Test {@code project} of {@link Configuration}.
+     * <p>This test covers scenario where the object given isn't a configuration object</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testProjectWithoutConfigurationObject() {
+        Configuration.project(new Object(), MyPoolConfiguration.class);
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Matches;
+import com.ehxnv.util.config.annotation.Max;
+import com.ehxnv.util.config.annotation.Min;
+import com.ehxnv.util.config.annotation.NotEmpty;
+import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.annotation.Range;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Unit test for {@link ConstraintCheck}.
+ *
+ * @author Eka Lie
+ */
+public class ConstraintCheckTest {
+
+    private interface MyServerConfiguration {
+        @Range(min = 1, max = 65535)
+        Integer getPort();
+        @Min(1) @Max(64)
+        Short getWorkerCount();
+        @Min(0) @Range(max = 100)
+        Byte getSamplePercent();
+        @NotEmpty @Matches("[a-z][a-z0-9-]*")
+        String getHostName();
+        @Min(1000) @Property(defaultValue = "30000")
+        Long getTimeoutMillis();
+    }
+
+    private interface MyBoundedFlagConfiguration {
+        @Min(1)
+        Boolean getFeatureEnabled();
+    }
+
+    private interface MyBoundedRatioConfiguration {
+        @Max(1)
+        Double getSampleRate();
+    }
+
+    private interface MyContradictingConfiguration {
+        @Min(10) @Max(5)
+        Integer getPoolSize();
+    }
+
+    private interface MyInvalidDefaultConfiguration {
+        @Max(10) @Property(defaultValue = "20")
+        Integer getPoolSize();
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with built-in constraints.
+     * <p>This test covers scenario where every property satisfies its constraints, including bound values</p>
+     */
+    @Test
+    public void testSatisfiedConstraints() {
+        MyServerConfiguration config = Configuration.fromProperties(TestProperties.of("port", "65535", "worker-count", "1", "sample-percent", "100", "host-name", "edge-01"), MyServerConfiguration.class);
+        assertEquals(Integer.valueOf(65535), config.getPort());
+        assertEquals(Short.valueOf((short) 1), config.getWorkerCount());
+        assertEquals(Byte.valueOf((byte) 100), config.getSamplePercent());
+        assertEquals("edge-01", config.getHostName());
+        assertEquals(Long.valueOf(30000L), config.getTimeoutMillis());
+    }
+
+    /**
+     * Test {@code tryBind} of {@link Configuration} with built-in constraints.
+     * <p>This test covers scenario where each kind of constraint is violated and reported as an invalid
+     * property</p>
+     */
+    @Test
+    public void testViolatedConstraints() {
+        BindingResult<MyServerConfiguration> result = Configuration.tryBind(TestProperties.of("port", "0", "worker-count", "65", "sample-percent", "101", "host-name", "Edge"), MyServerConfiguration.class);
+        assertInvalid(result, "host-name", "port", "sample-percent", "worker-count");
+
+        result = Configuration.tryBind(TestProperties.of("port", "80", "worker-count", "8", "sample-percent", "-1", "host-name", ""), MyServerConfiguration.class);
+        assertInvalid(result, "host-name", "sample-percent");
+
+        Properties properties = TestProperties.of("port", "80", "worker-count", "8", "sample-percent", "50", "host-name", "edge");
+        properties.put("timeout-millis", "999");
+        assertInvalid(Configuration.tryBind(properties, MyServerConfiguration.class), "timeout-millis");
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with misplaced built-in constraints.
+     * <p>This test covers scenario where a constraint doesn't apply to the property type, bounds contradict each
+     * other and a default value violates a constraint</p>
+     */
+    @Test
+    public void testMisplacedConstraints() {
+        Properties properties = new Properties();
+        properties.put("feature-enabled", "true");
+        properties.put("sample-rate", "0.5");
+        properties.put("pool-size", "7");
+
+        Class<?>[] configInterfaces = {MyBoundedFlagConfiguration.class, MyBoundedRatioConfiguration.class, MyContradictingConfiguration.class, MyInvalidDefaultConfiguration.class};
+        for (Class<?> configInterface : configInterfaces) {
+            try {
+                Configuration.fromProperties(properties, configInterface);
+                fail("ConfigurationException expected for " + configInterface.getSimpleName());
+            } catch (ConfigurationException ex) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Assert that binding failed with only invalid properties.
+     * @param result binding result
+     * @param propertyNames names of the invalid properties, in alphabetical order
+     */
+    private static void assertInvalid(final BindingResult<?> result, final String... propertyNames) {
+        List<String> invalidPropertyNames = new ArrayList<String>();
+        for (BindingProblem problem : result.getProblems()) {
+            assertEquals(BindingProblem.Kind.INVALID, problem.getKind());
+            invalidPropertyNames.add(problem.getPropertyName());
+        }
+
+        Collections.sort(invalidPropertyNames);
+        assertEquals(Arrays.asList(propertyNames), invalidPropertyNames);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Dynamic;
+import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.supplier.ConfigPropertySupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link DynamicPropertyRefresher}.
+ *
+ * @author Eka Lie
+ */
+public class DynamicPropertyRefresherTest {
+
+    /** Value the sidecar supplier currently supplies, null to fail. **/
+    private static volatile String sidecarValue;
+
+    // purposely made this into static class for accessibility purpose
+    static class SidecarPropertySupplier implements ConfigPropertySupplier {
+        @Override
+        public String supply(final String propertyName) {
+            if (sidecarValue == null) {
+                throw new IllegalStateException("sidecar is down");
+            }
+            return sidecarValue;
+        }
+    }
+
+    private interface MyPoolConfig {
+        @Dynamic(supplier = SidecarPropertySupplier.class, ttl = 100, unit = TimeUnit.MILLISECONDS)
+        Integer getMaxConnections();
+        @Property(optional = true)
+        String getPoolName();
+    }
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void createScheduler() {
+        scheduler = Executors.newScheduledThreadPool(2);
+        sidecarValue = "10";
+    }
+
+    @After
+    public void shutdownScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Test {@code reloadableFromProperties} of {@link Configuration} with dynamic properties.
+     * <p>This test covers scenario where a dynamic property is supplied before binding, refreshed in the
+     * background, and kept across reloads</p>
+     */
+    @Test
+    public void testRefresh() throws InterruptedException {
+        ReloadableConfig<MyPoolConfig> reloadableConfig = Configuration.reloadableFromProperties(new Properties(), MyPoolConfig.class, scheduler);
+        DynamicPropertyRefresher refresher = reloadableConfig.getRefresher();
+        try {
+            assertEquals(Integer.valueOf(10), reloadableConfig.get().getMaxConnections());
+            assertEquals(1L, refresher.getRefreshCount("max-connections"));
+            assertTrue(refresher.getLastRefreshLatencyNanos("max-connections") > 0L);
+            assertFalse(refresher.isExpired("max-connections"));
+
+            sidecarValue = "20";
+            assertTrue(awaitMaxConnections(reloadableConfig, 20));
+            assertTrue(refresher.getStalenessNanos("max-connections") < TimeUnit.SECONDS.toNanos(1L));
+
+            Properties properties = new Properties();
+            properties.put("max-connections", "5");
+            properties.put("pool-name", "main");
+            reloadableConfig.reload(properties);
+            assertEquals(Integer.valueOf(20), reloadableConfig.get().getMaxConnections());
+            assertEquals("main", reloadableConfig.get().getPoolName());
+        } finally {
+            refresher.close();
+        }
+    }
+
+    /**
+     * Test {@code reloadableFromProperties} of {@link Configuration} with dynamic properties.
+     * <p>This test covers scenario where refreshed values are applied without counting as reloads: the version,
+     * reload count and history are left untouched</p>
+     */
+    @Test
+    public void testRefreshIsNotReload() throws InterruptedException {
+        ReloadableConfig<MyPoolConfig> reloadableConfig = Configuration.reloadableFromProperties(new Properties(), MyPoolConfig.class, scheduler);
+        DynamicPropertyRefresher refresher = reloadableConfig.getRefresher();
+        try {
+            sidecarValue = "20";
+            assertTrue(awaitMaxConnections(reloadableConfig, 20));
+            sidecarValue = "30";
+            assertTrue(awaitMaxConnections(reloadableConfig, 30));
+
+            assertEquals(1L, reloadableConfig.getVersion());
+            assertEquals(0L, reloadableConfig.getReloadCount());
+            assertEquals(0, reloadableConfig.getHistoryVersions().length);
+        } finally {
+            refresher.close();
+        }
+    }
+
+    /**
+     * Test {@code rollback} of {@link ReloadableConfig} with dynamic properties.
+     * <p>This test covers scenario where refreshes between reloads don't evict a reload from the history, and the
+     * value last supplied survives rolling back to a snapshot bound before it was supplied</p>
+     */
+    @Test
+    public void testRefreshKeepsHistory() throws InterruptedException {
+        ReloadableConfig<MyPoolConfig> reloadableConfig = Configuration.reloadableFromProperties(new Properties(), MyPoolConfig.class, scheduler);
+        DynamicPropertyRefresher refresher = reloadableConfig.getRefresher();
+        try {
+            reloadableConfig.setHistorySize(1);
+            reloadableConfig.reload(TestProperties.of("pool-name", "main"));
+
+            sidecarValue = "20";
+            assertTrue(awaitMaxConnections(reloadableConfig, 20));
+            sidecarValue = "30";
+            assertTrue(awaitMaxConnections(reloadableConfig, 30));
+            assertArrayEquals(new long[] {1L}, reloadableConfig.getHistoryVersions());
+
+            reloadableConfig.rollback(1L);
+            assertEquals(3L, reloadableConfig.getVersion());
+            assertNull(reloadableConfig.get().getPoolName());
+            assertEquals(Integer.valueOf(30), reloadableConfig.get().getMaxConnections());
+            assertArrayEquals(new long[] {2L}, reloadableConfig.getHistoryVersions());
+        } finally {
+            refresher.close();
+        }
+    }
+
+    /**
+     * Test {@code reloadableFromProperties} of {@link Configuration} with dynamic properties.
+     * <p>This test covers scenario where the supplier fails or supplies an invalid value, so the last good value
+     * keeps being read</p>
+     */
+    @Test
+    public void testRefreshFailure() throws InterruptedException {
+        sidecarValue = null;
+        Properties properties = new Properties();
+        properties.put("max-connections", "5");
+
+        ReloadableConfig<MyPoolConfig> reloadableConfig = Configuration.reloadableFromProperties(properties, MyPoolConfig.class, scheduler);
+        DynamicPropertyRefresher refresher = reloadableConfig.getRefresher();
+        try {
+            assertEquals(Integer.valueOf(5), reloadableConfig.get().getMaxConnections());
+            assertEquals(-1L, refresher.getStalenessNanos("max-connections"));
+            assertTrue(refresher.isExpired("max-connections"));
+            assertEquals(0L, refresher.getRefreshCount("max-connections"));
+
+            sidecarValue = "not a number";
+            Thread.sleep(300L);
+            assertEquals(Integer.valueOf(5), reloadableConfig.get().getMaxConnections());
+            assertTrue(refresher.getFailedRefreshCount("max-connections") > 1L);
+
+            sidecarValue = "30";
+            assertTrue(awaitMaxConnections(reloadableConfig, 30));
+        } finally {
+            refresher.close();
+        }
+    }
+
+    /**
+     * Test metrics of {@link DynamicPropertyRefresher}.
+     * <p>This test covers scenario where a property which isn't dynamic is asked for</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMetricsOfStaticProperty() {
+        ReloadableConfig<MyPoolConfig> reloadableConfig = Configuration.reloadableFromProperties(new Properties(), MyPoolConfig.class, scheduler);
+        reloadableConfig.getRefresher().close();
+        reloadableConfig.getRefresher().getStalenessNanos("pool-name");
+    }
+
+    private static boolean awaitMaxConnections(final ReloadableConfig<MyPoolConfig> reloadableConfig, final int expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (System.nanoTime() < deadline) {
+            if (reloadableConfig.get().getMaxConnections().intValue() == expected) {
+                return true;
+            }
+            Thread.sleep(10L);
+        }
+        return false;
+    }
+}
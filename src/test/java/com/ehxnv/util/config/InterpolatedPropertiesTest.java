@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+/**
+ * Unit test for {@link InterpolatedProperties}.
+ *
+ * @author Eka Lie
+ */
+public class InterpolatedPropertiesTest {
+
+    /**
+     * Test {@code get} of {@link InterpolatedProperties}.
+     * <p>This test covers scenario where references are nested through several properties</p>
+     */
+    @Test
+    public void testGet() {
+        Properties properties = new Properties();
+        properties.put("host", "localhost");
+        properties.put("port", "8080");
+        properties.put("base-url", "http://${host}:${port}");
+        properties.put("health-url", "${base-url}/health");
+        properties.put("unterminated", "${host");
+        properties.put("timeout", Integer.valueOf(30));
+
+        InterpolatedProperties interpolatedProperties = new InterpolatedProperties(properties);
+        assertEquals("http://localhost:8080/health", interpolatedProperties.get("health-url"));
+        assertEquals("http://localhost:8080", interpolatedProperties.get("base-url"));
+        assertEquals("${host", interpolatedProperties.get("unterminated"));
+        assertEquals(Integer.valueOf(30), interpolatedProperties.get("timeout"));
+        assertNull(interpolatedProperties.get("unknown"));
+        assertNull(interpolatedProperties.getFailure("health-url"));
+
+        assertTrue(interpolatedProperties.isMemoized("health-url"));
+        assertTrue(interpolatedProperties.isMemoized("base-url"));
+    }
+
+    /**
+     * Test {@code get} of {@link InterpolatedProperties}.
+     * <p>This test covers scenario where a reference is undefined or part of a cycle, making every property
+     * depending on it unresolvable</p>
+     */
+    @Test
+    public void testGetUnresolvable() {
+        Properties properties = new Properties();
+        properties.put("a", "${b}");
+        properties.put("b", "${c}");
+        properties.put("c", "${a}");
+        properties.put("d", "${c}");
+        properties.put("e", "${undefined}");
+
+        InterpolatedProperties interpolatedProperties = new InterpolatedProperties(properties);
+        assertNull(interpolatedProperties.get("d"));
+        assertEquals("reference cycle c -> a -> b -> c", interpolatedProperties.getFailure("d"));
+        assertNull(interpolatedProperties.get("a"));
+        assertNull(interpolatedProperties.get("e"));
+        assertEquals("undefined property \"undefined\"", interpolatedProperties.getFailure("e"));
+    }
+
+    /**
+     * Test {@code update} of {@link InterpolatedProperties}.
+     * <p>This test covers scenario where only properties downstream of a changed property are resolved again</p>
+     */
+    @Test
+    public void testUpdate() {
+        Properties properties = new Properties();
+        properties.put("host", "localhost");
+        properties.put("port", "8080");
+        properties.put("base-url", "http://${host}:${port}");
+        properties.put("health-url", "${base-url}/health");
+        properties.put("log-dir", "/var/log/${host}");
+        properties.put("app-log", "${log-dir}/app.log");
+        properties.put("missing", "${later}");
+
+        InterpolatedProperties interpolatedProperties = new InterpolatedProperties(properties);
+        interpolatedProperties.get("health-url");
+        interpolatedProperties.get("app-log");
+        interpolatedProperties.get("missing");
+
+        Properties newProperties = new Properties();
+        newProperties.putAll(properties);
+        newProperties.put("port", "9090");
+        newProperties.put("later", "now");
+
+        InterpolatedProperties updatedProperties = interpolatedProperties.update(newProperties);
+        assertFalse(updatedProperties.isMemoized("base-url"));
+        assertFalse(updatedProperties.isMemoized("health-url"));
+        assertFalse(updatedProperties.isMemoized("missing"));
+        assertTrue(updatedProperties.isMemoized("log-dir"));
+        assertTrue(updatedProperties.isMemoized("app-log"));
+
+        assertEquals("http://localhost:9090/health", updatedProperties.get("health-url"));
+        assertEquals("/var/log/localhost/app.log", updatedProperties.get("app-log"));
+        assertEquals("now", updatedProperties.get("missing"));
+        assertEquals("http://localhost:8080/health", interpolatedProperties.get("health-url"));
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Unit test for {@link ProfiledProperties}.
+ *
+ * @author Eka Lie
+ */
+public class ProfiledPropertiesTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Test {@code profileChain} of {@link ProfiledProperties}.
+     */
+    @Test
+    public void testProfileChain() {
+        assertEquals(Arrays.asList("default"), ProfiledProperties.profileChain(null));
+        assertEquals(Arrays.asList("default"), ProfiledProperties.profileChain("default"));
+        assertEquals(Arrays.asList("default", "prod", "prod-eu"), ProfiledProperties.profileChain("prod-eu"));
+    }
+
+    /**
+     * Test {@code load} and {@code reload} of {@link ProfiledProperties}.
+     * <p>This test covers scenario where profile files override each other, one of them is missing, and the active
+     * profile is switched</p>
+     */
+    @Test
+    public void testLoad() throws IOException {
+        File directory = temporaryFolder.getRoot();
+        store(new File(directory, "app.properties"), "engine-threshold", "100", "max-connections", "10", "region", "none");
+        store(new File(directory, "app-prod.properties"), "engine-threshold", "300");
+        store(new File(directory, "app-prod-eu.properties"), "region", "eu");
+        store(new File(directory, "app-prod-us.properties"), "region", "us", "max-connections", "20");
+
+        ProfiledProperties profiledProperties = ProfiledProperties.load(directory, "app", "prod-eu");
+        assertEquals("300", profiledProperties.getProperties().get("engine-threshold"));
+        assertEquals("10", profiledProperties.getProperties().get("max-connections"));
+        assertEquals("eu", profiledProperties.getProperties().get("region"));
+
+        profiledProperties = profiledProperties.reload(directory, "app", "prod-us");
+        assertEquals(Arrays.asList("default", "prod", "prod-us"), profiledProperties.getProfiles());
+        assertEquals("300", profiledProperties.getProperties().get("engine-threshold"));
+        assertEquals("20", profiledProperties.getProperties().get("max-connections"));
+        assertEquals("us", profiledProperties.getProperties().get("region"));
+
+        profiledProperties = profiledProperties.reload(directory, "app", "staging");
+        assertEquals("100", profiledProperties.getProperties().get("engine-threshold"));
+        assertEquals("10", profiledProperties.getProperties().get("max-connections"));
+        assertEquals("none", profiledProperties.getProperties().get("region"));
+        assertTrue(profiledProperties.getLayer("staging").isEmpty());
+    }
+
+    /**
+     * Test {@code withLayer} of {@link ProfiledProperties}.
+     * <p>This test covers scenario where a layer is replaced, removing a key it used to override, and where it is
+     * replaced by equal properties</p>
+     */
+    @Test
+    public void testWithLayer() {
+        Properties defaultLayer = TestProperties.of("engine-threshold", "100", "max-connections", "10");
+        Properties prodLayer = TestProperties.of("engine-threshold", "300", "region", "eu");
+        ProfiledProperties profiledProperties = new ProfiledProperties(Arrays.asList("default", "prod"), Arrays.asList(defaultLayer, prodLayer));
+
+        ProfiledProperties updatedProperties = profiledProperties.withLayer("prod", TestProperties.of("max-connections", "50"));
+        assertEquals("100", updatedProperties.getProperties().get("engine-threshold"));
+        assertEquals("50", updatedProperties.getProperties().get("max-connections"));
+        assertNull(updatedProperties.getProperties().get("region"));
+        assertEquals("300", profiledProperties.getProperties().get("engine-threshold"));
+
+        assertEquals(profiledProperties.getProperties(), profiledProperties.withLayer("prod", TestProperties.of("engine-threshold", "300", "region", "eu")).getProperties());
+    }
+
+    /**
+     * Test {@code withLayer} of {@link ProfiledProperties}.
+     * <p>This test covers scenario where a small layer is replaced over and over on top of a large one, which only
+     * keeps the touched keys aside from the shared table until they outnumber half of it</p>
+     */
+    @Test
+    public void testWithLayerSharesTable() {
+        Properties defaultLayer = new Properties();
+        for (int i = 0; i < 1000; i++) {
+            defaultLayer.put("key-" + i, "default");
+        }
+        ProfiledProperties profiledProperties = new ProfiledProperties(Arrays.asList("default", "prod"), Arrays.asList(defaultLayer, new Properties()));
+
+        ProfiledProperties updatedProperties = profiledProperties.withLayer("prod", TestProperties.of("key-0", "prod", "region", "eu"));
+        assertEquals(2, updatedProperties.getOverrideCount());
+        assertEquals("prod", updatedProperties.getProperties().get("key-0"));
+        assertEquals("eu", updatedProperties.getProperties().get("region"));
+        assertEquals(0, updatedProperties.withLayer("prod", new Properties()).getOverrideCount());
+
+        Properties prodLayer = new Properties();
+        for (int i = 0; i < 1000; i += 2) {
+            prodLayer.put("key-" + i, "prod");
+            updatedProperties = updatedProperties.withLayer("prod", prodLayer);
+            assertTrue(updatedProperties.getOverrideCount() <= 500);
+        }
+
+        Properties expectedProperties = new Properties();
+        expectedProperties.putAll(defaultLayer);
+        expectedProperties.putAll(prodLayer);
+        assertEquals(expectedProperties, updatedProperties.getProperties());
+    }
+
+    /**
+     * Test immutability of {@link ProfiledProperties}.
+     * <p>This test covers scenario where given layers and returned tables are modified afterwards</p>
+     */
+    @Test
+    public void testImmutable() {
+        Properties defaultLayer = TestProperties.of("engine-threshold", "100", "max-connections", "10");
+        ProfiledProperties profiledProperties = new ProfiledProperties(Arrays.asList("default"), Arrays.asList(defaultLayer));
+
+        defaultLayer.put("engine-threshold", "200");
+        profiledProperties.getProperties().put("max-connections", "20");
+        profiledProperties.getLayer("default").put("max-connections", "30");
+
+        assertEquals("100", profiledProperties.getProperties().get("engine-threshold"));
+        assertEquals("10", profiledProperties.getProperties().get("max-connections"));
+        assertEquals("10", profiledProperties.getLayer("default").get("max-connections"));
+    }
+
+    /**
+     * Test {@code withLayer} of {@link ProfiledProperties}.
+     * <p>This test covers scenario where profile is not in the chain</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithLayerUnknownProfile() {
+        ProfiledProperties profiledProperties = new ProfiledProperties(Arrays.asList("default"), Arrays.asList(new Properties()));
+        profiledProperties.withLayer("prod", new Properties());
+    }
+
+    /**
+     * Store properties out of keys and values into a file.
+     * @param file file to store into
+     * @param keysAndValues alternating keys and values
+     */
+    private static void store(final File file, final String... keysAndValues) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            TestProperties.of(keysAndValues).store(outputStream, null);
+        } finally {
+            outputStream.close();
+        }
+    }
+}
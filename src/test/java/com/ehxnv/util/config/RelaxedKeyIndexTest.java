@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+/**
+ * Unit test for {@link RelaxedKeyIndex}.
+ *
+ * @author Eka Lie
+ */
+public class RelaxedKeyIndexTest {
+
+    /**
+     * Test {@code normalize} of {@link RelaxedKeyIndex}.
+     */
+    @Test
+    public void testNormalize() {
+        assertEquals("enginethreshold", RelaxedKeyIndex.normalize("ENGINE_THRESHOLD"));
+        assertEquals("enginethreshold", RelaxedKeyIndex.normalize("engine_threshold"));
+        assertEquals("enginethreshold", RelaxedKeyIndex.normalize("engine-threshold"));
+        assertEquals("enginethreshold", RelaxedKeyIndex.normalize("engine.threshold"));
+        assertEquals("enginethreshold", RelaxedKeyIndex.normalize("engineThreshold"));
+    }
+
+    /**
+     * Test {@code keyOf} of {@link RelaxedKeyIndex}.
+     * <p>This test covers scenario where several source keys have the same normalized form</p>
+     */
+    @Test
+    public void testKeyOf() {
+        Properties properties = new Properties();
+        properties.put("ENGINE_THRESHOLD", "100");
+        properties.put("engine_threshold", "200");
+        properties.put("engine-threshold", "300");
+        properties.put("MAX_CONNECTIONS", "10");
+        properties.put("Max_Connections", "20");
+
+        RelaxedKeyIndex relaxedKeyIndex = new RelaxedKeyIndex(properties);
+        assertEquals("engine-threshold", relaxedKeyIndex.keyOf("enginethreshold"));
+        assertEquals("MAX_CONNECTIONS", relaxedKeyIndex.keyOf("maxconnections"));
+        assertNull(relaxedKeyIndex.keyOf("unknown"));
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.validator.ConfigPropertyValidator;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+/**
+ * Unit test for {@link ReloadableConfig}.
+ *
+ * @author Eka Lie
+ */
+public class ReloadableConfigTest {
+
+    // purposely made this into static class for accessibility purpose
+    static class CountingPropertyValidator implements ConfigPropertyValidator<Integer> {
+        private static final AtomicInteger VALIDATION_COUNT = new AtomicInteger();
+
+        @Override
+        public boolean isValid(final Integer propertyValue) {
+            VALIDATION_COUNT.incrementAndGet();
+            return propertyValue.intValue() > 0;
+        }
+    }
+
+    private interface MyPoolConfig {
+        @Property(validator = CountingPropertyValidator.class)
+        Integer getMaxConnections();
+        @Property(validator = CountingPropertyValidator.class)
+        Integer getMinConnections();
+        @Property(validator = CountingPropertyValidator.class, optional = true)
+        Integer getPoolSize();
+    }
+
+    private interface MyFeatureToggle {
+        Boolean getFeatureEnabled();
+    }
+
+    private interface MyFeatureConfig {
+        Boolean getFeatureEnabled();
+        Integer getMaxConnections();
+        @Property(optional = true)
+        String getVendorName();
+    }
+
+    /**
+     * Test {@code reload} of {@link ReloadableConfig}.
+     * <p>This test covers scenario where configuration object reads new values after a successful reload and keeps
+     * old values after a failed one</p>
+     */
+    @Test
+    public void testReload() {
+        ReloadableConfig<MyFeatureConfig> reloadableConfig = Configuration.reloadableFromProperties(TestProperties.of("feature-enabled", "false", "max-connections", "10"), MyFeatureConfig.class);
+        MyFeatureConfig config = reloadableConfig.get();
+        assertEquals(Boolean.FALSE, config.getFeatureEnabled());
+        assertEquals(1L, reloadableConfig.getVersion());
+
+        reloadableConfig.reload(TestProperties.of("feature-enabled", "true", "max-connections", "20"));
+        assertEquals(Boolean.TRUE, config.getFeatureEnabled());
+        assertEquals(Integer.valueOf(20), config.getMaxConnections());
+        assertEquals(2L, reloadableConfig.getVersion());
+
+        try {
+            reloadableConfig.reload(TestProperties.of("feature-enabled", "true", "max-connections", "lots"));
+            fail("Invalid properties should not be reloaded");
+        } catch (ConfigurationException ex) {
+            assertEquals(Integer.valueOf(20), config.getMaxConnections());
+            assertEquals(2L, reloadableConfig.getVersion());
+        }
+    }
+
+    /**
+     * Test {@code constantGetter} of {@link ReloadableConfig}.
+     * <p>This test covers scenario where constant getters are relinked to new values after a reload, including
+     * once they have been compiled</p>
+     */
+    @Test
+    public void testConstantGetter() throws Throwable {
+        ReloadableConfig<MyFeatureConfig> reloadableConfig = Configuration.reloadableFromProperties(TestProperties.of("feature-enabled", "false", "max-connections", "10"), MyFeatureConfig.class);
+        MethodHandle featureEnabled = reloadableConfig.constantGetter("getFeatureEnabled");
+        MethodHandle vendorName = reloadableConfig.constantGetter("getVendorName");
+        assertSame(featureEnabled, reloadableConfig.constantGetter("getFeatureEnabled"));
+
+        for (int reload = 0; reload < 4; reload++) {
+            boolean expected = (reload % 2 == 1);
+            for (int i = 0; i < 20000; i++) {
+                assertEquals(Boolean.valueOf(expected), (Boolean) featureEnabled.invokeExact());
+            }
+            assertNull((String) vendorName.invokeExact());
+
+            reloadableConfig.reload(TestProperties.of("feature-enabled", String.valueOf(!expected), "max-connections", "10"));
+        }
+    }
+
+    /**
+     * Test {@code constantGetter} of {@link ReloadableConfig}.
+     * <p>This test covers scenario where given method is not a configuration property</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstantGetterOfUnknownMethod() {
+        Configuration.reloadableFromProperties(TestProperties.of("feature-enabled", "false", "max-connections", "10"), MyFeatureConfig.class).constantGetter("toString");
+    }
+
+    /**
+     * Test {@code reload} of {@link ReloadableConfig}.
+     * <p>This test covers scenario where a decrypted secret value is cleared on reload and the new one decrypted on
+     * first read</p>
+     */
+    @Test
+    public void testReloadSecret() {
+        Properties properties = new Properties();
+        properties.put("database-password", "terces");
+        ReloadableConfig<ConfigurationTest.MySecretConfiguration> reloadableConfig = Configuration.reloadableFromProperties(properties, ConfigurationTest.MySecretConfiguration.class);
+        assertEquals("secret", reloadableConfig.get().getDatabasePassword());
+
+        ConfigValues previousValues = reloadableConfig.getSnapshot().getValues();
+        properties.put("database-password", "wen");
+        reloadableConfig.reload(properties);
+
+        int decryptionCount = ConfigurationTest.ReversingPropertyDecryptor.DECRYPTION_COUNT.get();
+        assertEquals("new", reloadableConfig.get().getDatabasePassword());
+        assertEquals("secret", previousValues.get(previousValues.getLayout().slotOf("getDatabasePassword")));
+        assertEquals(decryptionCount + 2, ConfigurationTest.ReversingPropertyDecryptor.DECRYPTION_COUNT.get());
+    }
+
+    /**
+     * Test {@code registerMBean} of {@link ReloadableConfig}.
+     * <p>This test covers scenario where values, reload statistics and access counts are read through JMX and an
+     * override is applied through JMX without being retained in history</p>
+     */
+    @Test
+    public void testRegisterMBean() throws Exception {
+        ReloadableConfig<MyFeatureConfig> reloadableConfig = Configuration.reloadableFromProperties(TestProperties.of("feature-enabled", "false", "max-connections", "10"), MyFeatureConfig.class);
+        ObjectName objectName = reloadableConfig.registerMBean();
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            reloadableConfig.get().getMaxConnections();
+            reloadableConfig.get().getMaxConnections();
+
+            mBeanServer.invoke(objectName, "applyOverride", new Object[] {"max-connections", "30"},
+                               new String[] {String.class.getName(), String.class.getName()});
+            assertEquals(Integer.valueOf(30), reloadableConfig.get().getMaxConnections());
+            assertEquals(Boolean.FALSE, reloadableConfig.get().getFeatureEnabled());
+
+            assertEquals(MyFeatureConfig.class.getName(), mBeanServer.getAttribute(objectName, "ConfigInterface"));
+            assertEquals(2L, mBeanServer.getAttribute(objectName, "Version"));
+            assertEquals(1L, mBeanServer.getAttribute(objectName, "ReloadCount"));
+            assertEquals(0, reloadableConfig.getHistoryVersions().length);
+            assertEquals("30", entryValue((TabularData) mBeanServer.getAttribute(objectName, "Values"), "max-connections"));
+            assertEquals(3L, entryValue((TabularData) mBeanServer.getAttribute(objectName, "AccessCounts"), "max-connections"));
+
+            try {
+                mBeanServer.invoke(objectName, "applyOverride", new Object[] {"max-connections", "lots"},
+                                   new String[] {String.class.getName(), String.class.getName()});
+                fail("Invalid override should not be applied");
+            } catch (Exception ex) {
+                assertEquals(1L, mBeanServer.getAttribute(objectName, "FailedReloadCount"));
+                assertEquals(Integer.valueOf(30), reloadableConfig.get().getMaxConnections());
+            }
+        } finally {
+            reloadableConfig.unregisterMBean();
+        }
+
+        assertFalse(mBeanServer.isRegistered(objectName));
+    }
+
+    /**
+     * Get value of an entry of a map exposed through JMX.
+     * @param tabularData map exposed through JMX
+     * @param key entry key
+     * @return entry value
+     */
+    private static Object entryValue(final TabularData tabularData, final String key) {
+        CompositeData entry = tabularData.get(new Object[] {key});
+        return entry.get("value");
+    }
+
+    /**
+     * Test {@code project} of {@link Configuration} with a reloadable configuration object.
+     * <p>This test covers scenario where a projection reads new values after a reload</p>
+     */
+    @Test
+    public void testProjectReloadable() {
+        ReloadableConfig<MyFeatureConfig> reloadableConfig = Configuration.reloadableFromProperties(TestProperties.of("feature-enabled", "false", "max-connections", "10"), MyFeatureConfig.class);
+        MyFeatureToggle featureToggle = Configuration.project(reloadableConfig.get(), MyFeatureToggle.class);
+        assertEquals(Boolean.FALSE, featureToggle.getFeatureEnabled());
+
+        reloadableConfig.reload(TestProperties.of("feature-enabled", "true", "max-connections", "10"));
+        assertEquals(Boolean.TRUE, featureToggle.getFeatureEnabled());
+    }
+
+    /**
+     * Test {@code reload} of {@link ReloadableConfig}.
+     * <p>This test covers scenario where only properties whose resolved value changed are converted and validated
+     * again, including a property referencing a changed one and a removed optional property</p>
+     */
+    @Test
+    public void testReloadRebindsOnlyChangedProperties() {
+        Properties properties = new Properties();
+        properties.put("max-connections", "10");
+        properties.put("min-connections", "${base-connections}");
+        properties.put("base-connections", "2");
+        properties.put("pool-size", "3");
+
+        ReloadableConfig<MyPoolConfig> reloadableConfig = Configuration.reloadableFromProperties(properties, MyPoolConfig.class);
+        MyPoolConfig config = reloadableConfig.get();
+        int validationCount = CountingPropertyValidator.VALIDATION_COUNT.get();
+
+        reloadableConfig.reload(properties);
+        assertEquals(validationCount, CountingPropertyValidator.VALIDATION_COUNT.get());
+
+        properties.put("max-connections", "20");
+        reloadableConfig.reload(properties);
+        assertEquals(validationCount + 1, CountingPropertyValidator.VALIDATION_COUNT.get());
+        assertEquals(Integer.valueOf(20), config.getMaxConnections());
+        assertEquals(Integer.valueOf(2), config.getMinConnections());
+
+        properties.put("base-connections", "4");
+        reloadableConfig.reload(properties);
+        assertEquals(validationCount + 2, CountingPropertyValidator.VALIDATION_COUNT.get());
+        assertEquals(Integer.valueOf(4), config.getMinConnections());
+        assertEquals(Integer.valueOf(3), config.getPoolSize());
+
+        properties.remove("pool-size");
+        reloadableConfig.reload(properties);
+        assertEquals(validationCount + 2, CountingPropertyValidator.VALIDATION_COUNT.get());
+        assertNull(config.getPoolSize());
+        assertEquals(Integer.valueOf(20), config.getMaxConnections());
+
+        properties.put("max-connections", "-1");
+        try {
+            reloadableConfig.reload(properties);
+            fail("ConfigurationException expected");
+        } catch (ConfigurationException ex) {
+            assertEquals(Integer.valueOf(20), config.getMaxConnections());
+        }
+    }
+
+    /**
+     * Test {@code rollback} of {@link ReloadableConfig}.
+     * <p>This test covers scenario where retained snapshots are published again, including constant getters and a
+     * rollback of a rollback, and where only the most recent snapshots are retained</p>
+     */
+    @Test
+    public void testRollback() throws Throwable {
+        ReloadableConfig<MyFeatureConfig> reloadableConfig = Configuration.reloadableFromProperties(TestProperties.of("feature-enabled", "false", "max-connections", "10"), MyFeatureConfig.class);
+        MyFeatureConfig config = reloadableConfig.get();
+        MethodHandle maxConnections = reloadableConfig.constantGetter("getMaxConnections");
+        reloadableConfig.setHistorySize(2);
+
+        reloadableConfig.reload(TestProperties.of("feature-enabled", "false", "max-connections", "20"));
+        reloadableConfig.reload(TestProperties.of("feature-enabled", "false", "max-connections", "30"));
+        reloadableConfig.reload(TestProperties.of("feature-enabled", "true", "max-connections", "40"));
+        assertArrayEquals(new long[] {3L, 2L}, reloadableConfig.getHistoryVersions());
+
+        reloadableConfig.rollback(2L);
+        assertEquals(Boolean.FALSE, config.getFeatureEnabled());
+        assertEquals(Integer.valueOf(20), config.getMaxConnections());
+        assertEquals(Integer.valueOf(20), (Integer) maxConnections.invokeExact());
+        assertEquals(5L, reloadableConfig.getVersion());
+        assertArrayEquals(new long[] {4L, 3L}, reloadableConfig.getHistoryVersions());
+
+        reloadableConfig.rollback(4L);
+        assertEquals(Integer.valueOf(40), config.getMaxConnections());
+        assertEquals(Integer.valueOf(40), (Integer) maxConnections.invokeExact());
+
+        reloadableConfig.reload(TestProperties.of("feature-enabled", "true", "max-connections", "50"));
+        assertEquals(Integer.valueOf(50), config.getMaxConnections());
+
+        try {
+            reloadableConfig.rollback(1L);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException ex) {
+            assertEquals(Integer.valueOf(50), config.getMaxConnections());
+        }
+
+        reloadableConfig.setHistorySize(0);
+        reloadableConfig.reload(TestProperties.of("feature-enabled", "true", "max-connections", "60"));
+        assertEquals(0, reloadableConfig.getHistoryVersions().length);
+    }
+}
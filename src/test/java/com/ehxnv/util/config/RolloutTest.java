@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Unit test for {@link Rollout}.
+ *
+ * @author Eka Lie
+ */
+public class RolloutTest {
+
+    /**
+     * Test {@code valueOf} and {@code toString} of {@link Rollout}.
+     */
+    @Test
+    public void testValueOf() {
+        assertEquals(500, Rollout.valueOf("5%").getTo());
+        assertEquals(500, Rollout.valueOf(" 5 ").getTo());
+        assertEquals(1250, Rollout.valueOf("12.5%").getTo());
+        assertEquals(1, Rollout.valueOf("0.01%").getTo());
+        assertEquals(Rollout.BUCKETS, Rollout.valueOf("true").getTo());
+        assertEquals(0, Rollout.valueOf("false").getTo());
+        assertEquals(1000, Rollout.valueOf("10%-15%").getFrom());
+        assertEquals(5.0d, Rollout.valueOf("10%-15%@checkout").getPercentage(), 0.0d);
+
+        assertEquals("12.5%", Rollout.valueOf("12.50").toString());
+        assertEquals("10%-15.05%@checkout", Rollout.valueOf("10% - 15.05% @ checkout").toString());
+        assertEquals(Rollout.valueOf("5%@checkout"), Rollout.valueOf("5@checkout"));
+        assertFalse(Rollout.valueOf("5%@checkout").equals(Rollout.valueOf("5%")));
+
+        for (String value : new String[] {"", "%", "abc", "100.01%", "-5%", "15%-10%", "5.%", ".5%", "1.234%", "1000000%", null}) {
+            assertFalse(value, Rollout.isRollout(value));
+        }
+    }
+
+    /**
+     * Test {@code valueOf} of {@link Rollout}.
+     * <p>This test covers scenario where value is not a rollout</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testValueOfInvalid() {
+        Rollout.valueOf("half");
+    }
+
+    /**
+     * Test {@code isEnabledFor} of {@link Rollout}.
+     * <p>This test covers scenario where a rollout is evaluated for many ids, which must be enabled for the expected
+     * share of them, stay enabled as the rollout grows and be bucketed independently under another salt</p>
+     */
+    @Test
+    public void testIsEnabledFor() {
+        Rollout fivePercent = Rollout.valueOf("5%");
+        Rollout tenPercent = Rollout.valueOf("10%");
+        Rollout saltedFivePercent = Rollout.valueOf("5%@checkout");
+
+        int enabled = 0, saltedEnabled = 0, bothEnabled = 0;
+        for (long id = 0; id < 100000; id++) {
+            if (fivePercent.isEnabledFor(id)) {
+                enabled++;
+                assertTrue(tenPercent.isEnabledFor(id));
+                if (saltedFivePercent.isEnabledFor(id)) {
+                    bothEnabled++;
+                }
+            }
+            if (saltedFivePercent.isEnabledFor(id)) {
+                saltedEnabled++;
+            }
+        }
+
+        assertTrue(String.valueOf(enabled), enabled > 4500 && enabled < 5500);
+        assertTrue(String.valueOf(saltedEnabled), saltedEnabled > 4500 && saltedEnabled < 5500);
+        // independent salts overlap on about 5% of 5%
+        assertTrue(String.valueOf(bothEnabled), bothEnabled < 500);
+
+        assertTrue(Rollout.valueOf("true").isEnabledFor(42L));
+        assertFalse(Rollout.valueOf("false").isEnabledFor(42L));
+        assertEquals(fivePercent.isEnabledFor("user-42"), fivePercent.isEnabledFor(new StringBuilder("user-").append(42)));
+    }
+
+    /**
+     * Test {@code isEnabledFor} of {@link Rollout}.
+     * <p>This test covers scenario where evaluating a rollout must not allocate</p>
+     */
+    @Test
+    public void testIsEnabledForDoesNotAllocate() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        long threadId = Thread.currentThread().getId();
+        Rollout rollout = Rollout.valueOf("50%@checkout");
+        String key = "user-42";
+
+        int enabled = 0;
+        long allocatedBytes = allocationMXBean.getThreadAllocatedBytes(threadId);
+        for (long id = 0; id < 100000; id++) {
+            if (rollout.isEnabledFor(id) || rollout.isEnabledFor(key)) {
+                enabled++;
+            }
+        }
+        allocatedBytes = allocationMXBean.getThreadAllocatedBytes(threadId) - allocatedBytes;
+
+        assertTrue(enabled > 0);
+        assertTrue(String.valueOf(allocatedBytes), allocatedBytes < 1024);
+    }
+}
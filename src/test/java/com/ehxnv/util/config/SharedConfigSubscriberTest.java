@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.ehxnv.util.config;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit test for {@link SharedConfigSubscriber} (and {@link SharedConfigPublisher}).
+ *
+ * @author Eka Lie
+ */
+public class SharedConfigSubscriberTest {
+
+    private interface MyEngineConfiguration {
+        Double getEngineThreshold();
+        String getVendorName();
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Test {@code bind} and {@code refresh} of {@link SharedConfigSubscriber}.
+     * <p>This test covers scenario where a configuration is bound against the shared file and picks up a newly
+     * published version</p>
+     */
+    @Test
+    public void testBindAndRefresh() throws IOException {
+        File file = new File(temporaryFolder.getRoot(), "app.shared");
+        SharedConfigPublisher publisher = new SharedConfigPublisher(file, 4096);
+        SharedConfigSubscriber subscriber = new SharedConfigSubscriber(file);
+        try {
+            assertEquals(0L, subscriber.getVersion());
+            assertEquals(1L, publisher.publish(TestProperties.of("engine-threshold", "300.5", "vendor-name", "Acme")));
+            assertEquals(1L, subscriber.getVersion());
+
+            ReloadableConfig<MyEngineConfiguration> reloadableConfig = subscriber.bind(MyEngineConfiguration.class);
+            assertEquals(Double.valueOf(300.5d), reloadableConfig.get().getEngineThreshold());
+            assertEquals("Acme", reloadableConfig.get().getVendorName());
+            assertFalse(subscriber.refresh());
+
+            assertEquals(2L, publisher.publish(TestProperties.of("engine-threshold", "400.0", "vendor-name", "\u00c5cme")));
+            assertTrue(subscriber.refresh());
+            assertEquals(Double.valueOf(400.0d), reloadableConfig.get().getEngineThreshold());
+            assertEquals("\u00c5cme", reloadableConfig.get().getVendorName());
+            assertSame(subscriber.read(), subscriber.read());
+        } finally {
+            subscriber.close();
+            publisher.close();
+        }
+
+        // a new publisher carries on with the versions of the existing file
+        publisher = new SharedConfigPublisher(file, 4096);
+        try {
+            assertEquals(3L, publisher.publish(TestProperties.of("engine-threshold", "500.0", "vendor-name", "Acme")));
+        } finally {
+            publisher.close();
+        }
+    }
+
+    /**
+     * Test {@code read} of {@link SharedConfigSubscriber}.
+     * <p>This test covers scenario where versions are read while being published, which must never be seen half
+     * written</p>
+     */
+    @Test
+    public void testReadWhilePublishing() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "app.shared");
+        final SharedConfigPublisher publisher = new SharedConfigPublisher(file, 4096);
+        SharedConfigSubscriber subscriber = new SharedConfigSubscriber(file);
+        final AtomicBoolean publishing = new AtomicBoolean(true);
+        publisher.publish(TestProperties.of("engine-threshold", "0", "vendor-name", "0"));
+
+        Thread publishingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= 20000; i++) {
+                    publisher.publish(TestProperties.of("engine-threshold", String.valueOf(i), "vendor-name", String.valueOf(i)));
+                }
+                publishing.set(false);
+            }
+        });
+
+        try {
+            publishingThread.start();
+            while (publishing.get()) {
+                Properties properties = subscriber.read();
+                assertEquals(properties.get("engine-threshold"), properties.get("vendor-name"));
+            }
+            publishingThread.join();
+            assertEquals("20000", subscriber.read().get("vendor-name"));
+        } finally {
+            subscriber.close();
+            publisher.close();
+        }
+    }
+
+    /**
+     * Test {@code read} of {@link SharedConfigSubscriber}.
+     * <p>This test covers scenario where the publisher died while publishing, leaving the sequence odd, which gives
+     * up after the read timeout with the last decoded properties or a failure if none</p>
+     */
+    @Test
+    public void testReadAbandonedVersion() throws IOException {
+        File file = new File(temporaryFolder.getRoot(), "app.shared");
+        SharedConfigPublisher publisher = new SharedConfigPublisher(file, 4096);
+        SharedConfigSubscriber subscriber = new SharedConfigSubscriber(file, 50L, TimeUnit.MILLISECONDS);
+        SharedConfigSubscriber lateSubscriber = null;
+        try {
+            publisher.publish(TestProperties.of("engine-threshold", "300.5", "vendor-name", "Acme"));
+            assertEquals("Acme", subscriber.read().get("vendor-name"));
+
+            publisher.publish(TestProperties.of("engine-threshold", "400.0", "vendor-name", "Acme"));
+            writeSequence(file, 5L);
+            assertEquals("300.5", subscriber.read().get("engine-threshold"));
+
+            lateSubscriber = new SharedConfigSubscriber(file, 50L, TimeUnit.MILLISECONDS);
+            try {
+                lateSubscriber.read();
+                fail("ConfigurationException expected");
+            } catch (ConfigurationException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("Timed out"));
+            }
+        } finally {
+            if (lateSubscriber != null) {
+                lateSubscriber.close();
+            }
+            subscriber.close();
+            publisher.close();
+        }
+    }
+
+    /**
+     * Test {@code refresh} of {@link SharedConfigSubscriber}.
+     * <p>This test covers scenario where the publisher died while publishing, so refreshing gives up after the read
+     * timeout without reloading bound configurations, and picks up the next complete version</p>
+     */
+    @Test
+    public void testRefreshAbandonedVersion() throws IOException {
+        File file = new File(temporaryFolder.getRoot(), "app.shared");
+        SharedConfigPublisher publisher = new SharedConfigPublisher(file, 4096);
+        SharedConfigSubscriber subscriber = new SharedConfigSubscriber(file, 50L, TimeUnit.MILLISECONDS);
+        try {
+            publisher.publish(TestProperties.of("engine-threshold", "300.5", "vendor-name", "Acme"));
+            ReloadableConfig<MyEngineConfiguration> reloadableConfig = subscriber.bind(MyEngineConfiguration.class);
+
+            publisher.publish(TestProperties.of("engine-threshold", "400.0", "vendor-name", "Acme"));
+            writeSequence(file, 5L);
+            assertFalse(subscriber.refresh());
+            assertEquals(1L, reloadableConfig.getVersion());
+            assertEquals(Double.valueOf(300.5), reloadableConfig.get().getEngineThreshold());
+
+            writeSequence(file, 4L);
+            assertTrue(subscriber.refresh());
+            assertEquals(2L, reloadableConfig.getVersion());
+            assertEquals(Double.valueOf(400.0), reloadableConfig.get().getEngineThreshold());
+        } finally {
+            subscriber.close();
+            publisher.close();
+        }
+    }
+
+    /**
+     * Test {@link SharedConfigPublisher} constructor.
+     * <p>This test covers scenario where the shared file is already published by another publisher</p>
+     */
+    @Test(expected = ConfigurationException.class)
+    public void testSecondPublisher() throws IOException {
+        File file = new File(temporaryFolder.getRoot(), "app.shared");
+        SharedConfigPublisher publisher = new SharedConfigPublisher(file, 4096);
+        try {
+            new SharedConfigPublisher(file, 4096);
+        } finally {
+            publisher.close();
+        }
+    }
+
+    /**
+     * Test {@link SharedConfigSubscriber} constructor.
+     * <p>This test covers scenario where the file is not a shared configuration file</p>
+     */
+    @Test(expected = ConfigurationException.class)
+    public void testNotSharedFile() throws IOException {
+        new SharedConfigSubscriber(temporaryFolder.newFile("app.properties"));
+    }
+
+    /**
+     * Test {@code publish} of {@link SharedConfigPublisher}.
+     * <p>This test covers scenario where properties exceed the capacity of the shared file</p>
+     */
+    @Test(expected = ConfigurationException.class)
+    public void testPublishBeyondCapacity() throws IOException {
+        SharedConfigPublisher publisher = new SharedConfigPublisher(new File(temporaryFolder.getRoot(), "app.shared"), 16);
+        try {
+            publisher.publish(TestProperties.of("engine-threshold", "300.5", "vendor-name", "Acme"));
+        } finally {
+            publisher.close();
+        }
+    }
+
+    /**
+     * Overwrite the sequence of a shared file, as a publisher dying halfway through a write would leave it.
+     * @param file shared file
+     * @param sequence sequence to write
+     */
+    private static void writeSequence(final File file, final long sequence) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(SharedConfigFormat.SEQUENCE_OFFSET);
+            randomAccessFile.writeLong(sequence);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+}
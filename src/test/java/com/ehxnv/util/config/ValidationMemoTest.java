@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config;
+
+import com.ehxnv.util.config.annotation.Property;
+import com.ehxnv.util.config.validator.MemoizedPropertyValidator;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link ValidationMemo}.
+ *
+ * @author Eka Lie
+ */
+public class ValidationMemoTest {
+
+    // purposely made this into static class for accessibility purpose
+    static class ChecksumPropertyValidator implements MemoizedPropertyValidator<String> {
+        static final AtomicInteger VALIDATION_COUNT = new AtomicInteger();
+
+        @Override
+        public boolean isValid(final String propertyValue) {
+            VALIDATION_COUNT.incrementAndGet();
+            int sum = 0;
+            for (int i = 0; i < propertyValue.length(); i++) {
+                sum += Character.digit(propertyValue.charAt(i), 10);
+            }
+            return sum % 10 == 0;
+        }
+    }
+
+    private interface MyAccountConfiguration {
+        @Property(validator = ChecksumPropertyValidator.class)
+        String getAccountNumber();
+        @Property(validator = ChecksumPropertyValidator.class)
+        String getBackupAccountNumber();
+    }
+
+    private interface MyOtherAccountConfiguration {
+        @Property(validator = ChecksumPropertyValidator.class)
+        String getAccountNumber();
+    }
+
+    @After
+    public void resetValidationMemoCapacity() {
+        Configuration.setValidationMemoCapacity(ValidationMemo.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with memoized validators.
+     * <p>This test covers scenario where a value validated already, valid or not, is not validated again, even by
+     * another property</p>
+     */
+    @Test
+    public void testRepeatedValuesAreValidatedOnce() {
+        Configuration.setValidationMemoCapacity(16);
+        int validationCount = ChecksumPropertyValidator.VALIDATION_COUNT.get();
+
+        for (int i = 0; i < 3; i++) {
+            Configuration.fromProperties(TestProperties.of("account-number", "1234", "backup-account-number", "1234"), MyAccountConfiguration.class);
+            assertFalse(Configuration.tryBind(TestProperties.of("account-number", "1234", "backup-account-number", "1235"), MyAccountConfiguration.class).isSuccessful());
+        }
+
+        assertEquals(validationCount + 2, ChecksumPropertyValidator.VALIDATION_COUNT.get());
+    }
+
+    /**
+     * Test {@code fromProperties} of {@link Configuration} with memoized validators.
+     * <p>This test covers scenario where outcomes are remembered per configuration interface, so another interface
+     * using the same validator validates the value again</p>
+     */
+    @Test
+    public void testOutcomesAreRememberedPerConfiguration() {
+        Configuration.fromProperties(TestProperties.of("account-number", "5050", "backup-account-number", "5050"), MyAccountConfiguration.class);
+        int validationCount = ChecksumPropertyValidator.VALIDATION_COUNT.get();
+
+        Configuration.fromProperties(TestProperties.of("account-number", "5050"), MyOtherAccountConfiguration.class);
+        Configuration.fromProperties(TestProperties.of("account-number", "5050"), MyOtherAccountConfiguration.class);
+        assertEquals(validationCount + 1, ChecksumPropertyValidator.VALIDATION_COUNT.get());
+    }
+
+    /**
+     * Test {@code setValidationMemoCapacity} of {@link Configuration}.
+     * <p>This test covers scenario where the memo never grows beyond its capacity and remembers nothing when its
+     * capacity is 0</p>
+     */
+    @Test
+    public void testCapacity() {
+        Configuration.setValidationMemoCapacity(8);
+        ValidationMemo validationMemo = Configuration.key(MyAccountConfiguration.class, "account-number", String.class).getPlan().getValidationMemo();
+        for (int i = 0; i < 100; i++) {
+            Configuration.tryBind(TestProperties.of("account-number", String.valueOf(1000 + i), "backup-account-number", "1234"), MyAccountConfiguration.class);
+            assertTrue(validationMemo.size() <= 8);
+        }
+
+        Configuration.setValidationMemoCapacity(0);
+        int validationCount = ChecksumPropertyValidator.VALIDATION_COUNT.get();
+        Configuration.fromProperties(TestProperties.of("account-number", "1234", "backup-account-number", "1234"), MyAccountConfiguration.class);
+        assertEquals(validationCount + 2, ChecksumPropertyValidator.VALIDATION_COUNT.get());
+        assertEquals(0, validationMemo.size());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config.converter;
+
+import com.ehxnv.util.config.annotation.Alias;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link EnumPropertyConverter}.
+ *
+ * @author Eka Lie
+ */
+public class EnumPropertyConverterTest {
+
+    private enum Mode {
+        @Alias({"on", "enabled"})
+        ACTIVE,
+        @Alias("off")
+        INACTIVE,
+        DRAINING
+    }
+
+    private enum Grade {
+        A,
+        a,
+        B
+    }
+
+    private enum Clashing {
+        @Alias("both")
+        FIRST,
+        @Alias("both")
+        SECOND
+    }
+
+    /**
+     * Test {@code convertFromString} of {@link EnumPropertyConverter}.
+     * <p>This test covers scenario where values match constant names and aliases regardless of case</p>
+     */
+    @Test
+    public void testConvertFromString() {
+        EnumPropertyConverter<Mode> converter = new EnumPropertyConverter<Mode>(Mode.class);
+        assertEquals(Mode.ACTIVE, converter.convertFromString("ACTIVE"));
+        assertEquals(Mode.ACTIVE, converter.convertFromString("active"));
+        assertEquals(Mode.ACTIVE, converter.convertFromString("On"));
+        assertEquals(Mode.ACTIVE, converter.convertFromString("ENABLED"));
+        assertEquals(Mode.INACTIVE, converter.convertFromString("off"));
+        assertEquals(Mode.DRAINING, converter.convertFromString("Draining"));
+    }
+
+    /**
+     * Test {@code isConvertible} of {@link EnumPropertyConverter}.
+     * <p>This test covers scenario where unknown values are reported without exception, and constant names differing
+     * only by case are only matched exactly</p>
+     */
+    @Test
+    public void testIsConvertible() {
+        EnumPropertyConverter<Mode> converter = new EnumPropertyConverter<Mode>(Mode.class);
+        assertTrue(converter.isConvertible("inactive"));
+        assertFalse(converter.isConvertible("paused"));
+        assertFalse(converter.isConvertible(""));
+
+        EnumPropertyConverter<Grade> gradeConverter = new EnumPropertyConverter<Grade>(Grade.class);
+        assertEquals(Grade.A, gradeConverter.convertFromString("A"));
+        assertEquals(Grade.a, gradeConverter.convertFromString("a"));
+        assertEquals(Grade.B, gradeConverter.convertFromString("b"));
+    }
+
+    /**
+     * Test {@link EnumPropertyConverter} with an alias matching several constants.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testClashingAlias() {
+        new EnumPropertyConverter<Clashing>(Clashing.class);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012, Eka Heksanov Lie
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.ehxnv.util.config.converter;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link NumberSyntax}.
+ *
+ * @author Eka Lie
+ */
+public class NumberSyntaxTest {
+
+    /** Values checked against Java number parsing. **/
+    private static final String[] VALUES = {
+        "", "+", "-", "0", "-0", "+7", "127", "128", "-128", "-129", "32767", "32768", "2147483647", "2147483648",
+        "-2147483648", "-2147483649", "9223372036854775807", "9223372036854775808", "-9223372036854775808",
+        "-9223372036854775809", "00012", "1_000", " 1", "1 ", "1.5", "1e3", ".5", "5.", "-.5e-3", "0x1p3", "0x1.8p1",
+        "NaN", "-Infinity", "Infinity ", "1.5f", "2d", "abc", "1..2", "e5", "0x", "\u0661\u0662"
+    };
+
+    /**
+     * Test {@code isInteger} of {@link NumberSyntax}.
+     * <p>This test covers scenario where integer syntax agrees with {@link Long#parseLong(String)},
+     * {@link Integer#parseInt(String)}, {@link Short#parseShort(String)} and {@link Byte#parseByte(String)}</p>
+     */
+    @Test
+    public void testIsIntegerAgreesWithJavaParsing() {
+        for (String value : VALUES) {
+            assertEquals(value, parsesAsLong(value), NumberSyntax.isInteger(value, Long.MIN_VALUE, Long.MAX_VALUE));
+            assertEquals(value, parsesAsInteger(value), NumberSyntax.isInteger(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+            assertEquals(value, parsesAsShort(value), NumberSyntax.isInteger(value, Short.MIN_VALUE, Short.MAX_VALUE));
+            assertEquals(value, parsesAsByte(value), NumberSyntax.isInteger(value, Byte.MIN_VALUE, Byte.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Test {@code isFloatingPoint} of {@link NumberSyntax}.
+     * <p>This test covers scenario where floating point syntax agrees with {@link Double#parseDouble(String)}</p>
+     */
+    @Test
+    public void testIsFloatingPointAgreesWithJavaParsing() {
+        for (String value : VALUES) {
+            assertEquals(value, parsesAsDouble(value), NumberSyntax.isFloatingPoint(value));
+        }
+    }
+
+    private static boolean parsesAsLong(final String value) {
+        try {
+            Long.parseLong(value);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static boolean parsesAsInteger(final String value) {
+        try {
+            Integer.parseInt(value);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static boolean parsesAsShort(final String value) {
+        try {
+            Short.parseShort(value);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static boolean parsesAsByte(final String value) {
+        try {
+            Byte.parseByte(value);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static boolean parsesAsDouble(final String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}